@@ -1,13 +1,105 @@
 package de.ctoffer;
 
 import de.ctoffer.assistance.Assistant;
+import de.ctoffer.assistance.BatchSession;
+import de.ctoffer.assistance.Daemon;
+import de.ctoffer.assistance.DaemonClient;
+import de.ctoffer.util.Input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Main {
+    private static final int USAGE_ERROR = 2;
+    private static final String STARTUP_TIME = "--startup-time";
+    private static final String DAEMON = "--daemon";
+    private static final String CLIENT = "--client";
+    private static final String STOP_DAEMON = "--stop-daemon";
+    private static final String USAGE = "Usage: sea [--startup-time | --script <file> | --batch"
+            + " | --daemon | --client [command line] | --stop-daemon]";
+
     public static void main(String[] args) {
-        try(Assistant assistant = Assistant.getInstance()) {
-            while(assistant.shouldServe()) {
-                assistant.waitForOrder();
+        if (args.length == 0 || (args.length == 1 && STARTUP_TIME.equals(args[0]))) {
+            final long mainStart = System.nanoTime();
+            try(Assistant assistant = Assistant.getInstance()) {
+                if (args.length == 1) {
+                    reportStartupTime(mainStart);
+                }
+                while(assistant.shouldServe()) {
+                    assistant.waitForOrder();
+                }
+            }
+        } else if (args.length == 1 && DAEMON.equals(args[0])) {
+            System.exit(runDaemon());
+        } else if (CLIENT.equals(args[0])) {
+            System.exit(runClient(String.join(" ", Arrays.asList(args).subList(1, args.length))));
+        } else if (args.length == 1 && STOP_DAEMON.equals(args[0])) {
+            System.exit(stopDaemon());
+        } else {
+            System.exit(runBatch(args));
+        }
+    }
+
+    private static int runDaemon() {
+        try(Assistant assistant = Assistant.getInstance();
+            Daemon daemon = new Daemon(assistant)) {
+            daemon.serve();
+            return 0;
+        } catch (IOException ioe) {
+            System.err.println(ioe.getMessage());
+            return BatchSession.FAILURE;
+        }
+    }
+
+    private static int runClient(String commandLine) {
+        try(DaemonClient client = DaemonClient.connect()) {
+            return commandLine.isBlank() ? client.interact() : client.run(commandLine);
+        } catch (IOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return DaemonClient.FAILURE;
+        }
+    }
+
+    private static int stopDaemon() {
+        try(DaemonClient client = DaemonClient.connect()) {
+            return client.shutdown();
+        } catch (IOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return DaemonClient.FAILURE;
+        }
+    }
+
+    private static int runBatch(String[] args) {
+        try(Assistant assistant = Assistant.getInstance();
+            BufferedReader script = openScript(args)) {
+            if (script == null) {
+                System.err.println(USAGE);
+                return USAGE_ERROR;
             }
+            return new BatchSession(assistant, script, System.out).run();
+        } catch (IOException ioe) {
+            System.err.println(ioe.getMessage());
+            return BatchSession.FAILURE;
+        }
+    }
+
+    private static void reportStartupTime(long mainStart) {
+        final long sinceMain = (System.nanoTime() - mainStart) / 1_000_000;
+        // only loaded in this mode, the management classes are too heavy for a normal start
+        final long sinceJvm = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.err.printf("Time to first prompt: %d ms since JVM start, %d ms since main%n", sinceJvm, sinceMain);
+    }
+
+    private static BufferedReader openScript(String[] args) throws IOException {
+        if (args.length == 2 && "--script".equals(args[0])) {
+            return Files.newBufferedReader(Paths.get(args[1]));
+        } else if (args.length == 1 && "--batch".equals(args[0])) {
+            return Input.newReader(System.in);
         }
+        return null;
     }
 }
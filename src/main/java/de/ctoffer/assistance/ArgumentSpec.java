@@ -0,0 +1,155 @@
+package de.ctoffer.assistance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Declarative description of the arguments a command accepts. A spec is built once per
+ * command class and parses the arguments of every execution in a single pass into
+ * {@link ParsedArguments}:
+ * <pre><code>
+ * private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+ *         .flag("open")
+ *         .intOption("downloadSubmissions")
+ *         .flag("close")
+ *         .build();
+ * </code></pre>
+ * Flags are matched literally, int options have the form {@code name=<number>} and
+ * positional ints are bare numbers. Every spec accepts {@value #DEADLINE}{@code =<seconds>},
+ * which limits the running time of a command.
+ */
+public class ArgumentSpec {
+    public static final String DEADLINE = "deadline";
+    public static final ArgumentSpec NONE = builder().build();
+
+    enum Kind {
+        FLAG, INT_OPTION, POSITIONAL_INT
+    }
+
+    private final Map<String, Kind> names;
+    private final String positionalName;
+
+    private ArgumentSpec(final Map<String, Kind> names, final String positionalName) {
+        final Map<String, Kind> allNames = new HashMap<>(names);
+        allNames.putIfAbsent(DEADLINE, Kind.INT_OPTION);
+        this.names = Collections.unmodifiableMap(allNames);
+        this.positionalName = positionalName;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parses the given arguments.
+     *
+     * @param arguments   arguments without help flags
+     * @param commandName name of the command, used for error messages
+     * @return typed arguments in the order they were given
+     * @throws IllegalStateException if an argument is unknown or has a malformed value
+     */
+    public ParsedArguments parse(final List<String> arguments, final String commandName) {
+        final List<ParsedArguments.Value> values = new ArrayList<>(arguments.size());
+
+        for (String argument : arguments) {
+            final int separator = argument.indexOf('=');
+            if (names.get(argument) == Kind.FLAG) {
+                values.add(new ParsedArguments.Value(argument, 0));
+            } else if (separator > 0 && names.get(argument.substring(0, separator)) == Kind.INT_OPTION) {
+                final String name = argument.substring(0, separator);
+                values.add(new ParsedArguments.Value(name, parseInt(argument.substring(separator + 1), argument, commandName)));
+            } else if (positionalName != null && isNumber(argument)) {
+                values.add(new ParsedArguments.Value(positionalName, parseInt(argument, argument, commandName)));
+            } else {
+                throw new IllegalStateException(format("Unknown argument '%s' for command '%s'", argument, commandName));
+            }
+        }
+
+        return new ParsedArguments(values);
+    }
+
+    private static boolean isNumber(final String argument) {
+        if (argument.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < argument.length(); ++i) {
+            if (!Character.isDigit(argument.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(final String value, final String argument, final String commandName) {
+        try {
+            if (isNumber(value)) {
+                return Integer.parseInt(value);
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new IllegalStateException(format("Argument '%s' for command '%s' expects a number", argument, commandName));
+    }
+
+    /**
+     * @return a readable description of the accepted arguments, e.g. for help texts
+     */
+    public String describe() {
+        final List<String> parts = new ArrayList<>();
+        names.forEach((name, kind) -> {
+            if (kind == Kind.FLAG) {
+                parts.add(name);
+            } else if (kind == Kind.INT_OPTION) {
+                parts.add(name + "=<number>");
+            }
+        });
+        Collections.sort(parts);
+        if (positionalName != null) {
+            parts.add("<" + positionalName + ">...");
+        }
+        return String.join(" ", parts);
+    }
+
+    public static class Builder {
+        private final Map<String, Kind> names = new HashMap<>();
+        private String positionalName;
+
+        private Builder() {
+        }
+
+        public Builder flag(final String name) {
+            return add(name, Kind.FLAG);
+        }
+
+        public Builder intOption(final String name) {
+            return add(name, Kind.INT_OPTION);
+        }
+
+        public Builder positionalInts(final String name) {
+            if (positionalName != null) {
+                throw new IllegalStateException("Only one kind of positional arguments is supported!");
+            }
+            positionalName = name;
+            return add(name, Kind.POSITIONAL_INT);
+        }
+
+        private Builder add(final String name, final Kind kind) {
+            if (name.contains(" ") || name.contains("=")) {
+                throw new IllegalArgumentException("argument names mustn't contain space or '='!");
+            }
+            if (names.putIfAbsent(name, kind) != null) {
+                throw new IllegalArgumentException("Argument '" + name + "' is declared twice!");
+            }
+            return this;
+        }
+
+        public ArgumentSpec build() {
+            return new ArgumentSpec(names, positionalName);
+        }
+    }
+}
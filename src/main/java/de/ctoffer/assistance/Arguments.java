@@ -2,7 +2,6 @@ package de.ctoffer.assistance;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class Arguments {
@@ -39,12 +38,6 @@ public class Arguments {
         return argumentList.contains(flag);
     }
 
-    public Optional<String> hasFlagMatching(final String pattern) {
-        return argumentList.stream()
-                .filter(arg -> arg.matches(pattern))
-                .findFirst();
-    }
-
     public boolean containsHelp() {
         return argumentList.contains("--help") || argumentList.contains("-h") || argumentList.contains("?");
     }
@@ -3,20 +3,32 @@ package de.ctoffer.assistance;
 import de.ctoffer.assistance.commands.Command;
 import de.ctoffer.assistance.commands.CommandParser;
 import de.ctoffer.assistance.context.*;
+import de.ctoffer.assistance.jobs.Job;
+import de.ctoffer.assistance.jobs.JobManager;
+import de.ctoffer.assistance.progress.LoggingProgressListener;
+import de.ctoffer.assistance.progress.ProgressHub;
+import de.ctoffer.assistance.progress.ProgressRenderer;
+import de.ctoffer.util.CancellationToken;
 import de.ctoffer.util.Config;
 import de.ctoffer.util.Input;
 import de.ctoffer.util.pair.Pair;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public class Assistant implements AutoCloseable {
     private static final String INPUT_PREFIX = "SEA";
+    private static final long CLEANUP_SECONDS = 10;
     private static final Assistant INSTANCE = new Assistant();
 
     public static Assistant getInstance() {
@@ -25,14 +37,25 @@ public class Assistant implements AutoCloseable {
 
     private ActiveStreams streams;
     private boolean active;
-    private String subSpaceTag;
-    private SubSpaceContext subSpaceContext;
+    private final Session localSession;
+    private String indentTag;
+    private String indent;
+    private ConfigStore configStore;
+    private JobManager jobManager;
+    private TaskScheduler scheduler;
+    private final ProgressHub progressHub;
+    private final Map<CancellationToken, Thread> running = new ConcurrentHashMap<>();
 
     private Assistant() {
         this.active = true;
         streams = new ActiveStreams(System.out, System.out, System.in);
-        subSpaceTag = "";
-        subSpaceContext = SubSpaceContext.build(this::openSubSpace, this::closeSubSpace);
+        localSession = new Session(this::close);
+        progressHub = new ProgressHub();
+        progressHub.addListener(new LoggingProgressListener());
+        if (System.console() != null) {
+            progressHub.addListener(new ProgressRenderer(status -> streams.sink.status(status)));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cancelRunning, "cancel-on-exit"));
     }
 
     public StreamConfiguration configureStreams() {
@@ -41,55 +64,172 @@ public class Assistant implements AutoCloseable {
 
     public void waitForOrder() {
         String userMessage = readMessage(buildInputMessage());
-        Pair<Command, Arguments> input = parseUserMessage(userMessage);
+        if (userMessage == null) {
+            close();
+            return;
+        }
+        boolean background = CommandParser.isBackground(userMessage);
+        String commandLine = CommandParser.stripBackground(userMessage);
+        Pair<Command, Arguments> input = parseUserMessage(commandLine);
         Command command = input.first;
         Arguments args = input.second;
 
+        if (!command.isKnown()) {
+            writeIndentedError(String.format("Command '%s' is unknown.", command.name()));
+        } else if (background) {
+            Job job = getJobManager().start(commandLine, started -> runInBackground(started, command, args));
+            writeIndentedMessage(String.format("[%s] %s", job.getId(), commandLine));
+        } else {
+            try {
+                execute(command, args, getConsoleContext(), localSession, CancellationToken.create());
+            } catch (CancellationException e) {
+                writeIndentedError("Cancelled: " + e.getMessage());
+            } catch (Exception e) {
+                writeIndentedError(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts a task which is only written to the log, never drawn as status line, e.g. for a batch session.
+     *
+     * @param name       name of the task
+     * @param totalUnits number of units or a value &lt;= 0 if unknown
+     * @return progress of the task, must be closed when the task ends
+     */
+    public Progress startLoggedTask(final String name, final long totalUnits) {
+        return progressHub.start(name, totalUnits, false);
+    }
+
+    private void runInBackground(final Job job, final Command command, final Arguments args) {
+        final String prefix = "[" + job.getId() + "] ";
+        final ConsoleContext console = ConsoleContext.build(
+                message -> writeIndentedMessage(prefix + message),
+                error -> writeIndentedError(prefix + error),
+                message -> {
+                    throw new IllegalStateException("Background jobs can't read input!");
+                },
+                (name, total) -> progressHub.start(prefix + name, total, false)
+        );
+
         try {
-            if (command.isKnown()) {
-                injectContextFor(command);
-                command.setArguments(args);
-                command.execute();
-            } else {
-                writeIndentedError(String.format("Command '%s' is unknown.", command.name()));
+            execute(command, args, console, localSession, job.getCancellation());
+            writeIndentedMessage(prefix + "Done   " + job.getCommandLine());
+        } catch (RuntimeException e) {
+            writeIndentedError(prefix + "Failed " + job.getCommandLine() + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Executes the given command line on the calling thread in the local session, writing all messages
+     * to the given console.
+     *
+     * @param commandLine command with its arguments
+     * @param console     console the command writes to
+     * @throws IllegalArgumentException if the command is unknown
+     * @throws RuntimeException         if the command failed
+     */
+    public void execute(final String commandLine, final ConsoleContext console) {
+        execute(commandLine, console, localSession, CancellationToken.create());
+    }
+
+    /**
+     * Executes the given command line on the calling thread.
+     *
+     * @param commandLine  command with its arguments
+     * @param console      console the command writes to
+     * @param session      session whose sub space the command works in
+     * @param cancellation token to cancel the command
+     * @throws IllegalArgumentException if the command is unknown
+     * @throws RuntimeException         if the command failed
+     */
+    public void execute(final String commandLine,
+                        final ConsoleContext console,
+                        final Session session,
+                        final CancellationToken cancellation) {
+        Pair<Command, Arguments> input = parseUserMessage(commandLine);
+        if (!input.first.isKnown()) {
+            throw new IllegalArgumentException(String.format("Command '%s' is unknown.", input.first.name()));
+        }
+        execute(input.first, input.second, console, session, cancellation);
+    }
+
+    private void execute(final Command command,
+                         final Arguments args,
+                         final ConsoleContext console,
+                         final Session session,
+                         final CancellationToken cancellation) {
+        injectContextFor(command, console, session);
+        command.setArguments(args);
+        running.put(cancellation, Thread.currentThread());
+        try {
+            command.execute(cancellation);
+        } finally {
+            running.remove(cancellation);
+        }
+    }
+
+    // on Ctrl+C the running commands get a chance to stop at their next step and clean up
+    private void cancelRunning() {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CLEANUP_SECONDS);
+        running.keySet().forEach(token -> token.cancel("Shutting down"));
+        for (Thread thread : running.values()) {
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
             }
-        } catch (Exception e) {
-            writeIndentedError(e.getMessage());
+        }
+        if (jobManager != null) {
+            jobManager.close();
         }
     }
 
     private String buildInputMessage() {
-        return INPUT_PREFIX + subSpaceTag + ": ";
+        return INPUT_PREFIX + localSession.getSubSpaceTag() + ": ";
     }
 
     private Pair<Command, Arguments> parseUserMessage(String userMessage) {
         return CommandParser.parse(userMessage);
     }
 
-    private void injectContextFor(final Command command) {
+    private void injectContextFor(final Command command, final ConsoleContext console, final Session session) {
         final AvailableContexts contexts = new AvailableContexts();
         final Require require = command.getClass().getAnnotation(Require.class);
 
-        for (Context context : require.value()) {
-            injectContextIn(contexts, context);
-
+        if (require != null) {
+            for (Context context : require.value()) {
+                injectContextIn(contexts, context, command, console, session);
+            }
         }
         command.injectContexts(contexts);
     }
 
-    private void injectContextIn(AvailableContexts contexts, Context context) {
+    private void injectContextIn(AvailableContexts contexts,
+                                 Context context,
+                                 Command command,
+                                 ConsoleContext console,
+                                 Session session) {
         switch (context) {
             case APPLICATION:
-                setContext(contexts::setApplicationContext, this::getApplicationContext);
+                setContext(contexts::setApplicationContext, session::getApplicationContext);
                 break;
             case CONSOLE:
-                setContext(contexts::setConsoleContext, this::getConsoleContext);
+                contexts.setConsoleContext(console);
+                break;
+            case JOBS:
+                setContext(contexts::setJobContext, this::getJobManager);
+                break;
+            case SCHEDULER:
+                contexts.setSchedulerContext(getScheduler().forCommand(command.name()));
                 break;
             case CONFIG:
                 setContext(contexts::setConfig, this::getConfig);
                 break;
             case SUB_SPACE:
-                setContext(contexts::setSubSpaceContext, this::getSubSpaceContext);
+                setContext(contexts::setSubSpaceContext, session::getSubSpaceContext);
                 break;
         }
     }
@@ -105,58 +245,81 @@ public class Assistant implements AutoCloseable {
     @Override
     public void close() {
         this.active = false;
-    }
-
-    private ApplicationContext getApplicationContext() {
-        return this::close;
+        if (configStore != null) {
+            configStore.close();
+        }
+        if (jobManager != null) {
+            jobManager.close();
+        }
+        if (scheduler != null) {
+            scheduler.close();
+        }
+        try {
+            localSession.close();
+        } catch (RuntimeException e) {
+            writeIndentedError(e.getMessage());
+        }
+        progressHub.close();
+        streams.sink.close();
     }
 
     private ConsoleContext getConsoleContext() {
-        return ConsoleContext.build(this::writeIndentedMessage, this::writeIndentedError, this::readMessage);
+        return ConsoleContext.build(
+                this::writeIndentedMessage,
+                this::writeIndentedError,
+                this::readMessage,
+                (name, total) -> progressHub.start(name, total, true)
+        );
     }
 
     private void writeIndentedMessage(String message) {
-        int numberOfSpace = buildInputMessage().length();
-        writeMessage(" ".repeat(numberOfSpace) + message);
-    }
-
-    private void writeMessage(String message) {
-        streams.out.println(message);
+        streams.sink.output(indent() + message);
     }
 
     private void writeIndentedError(String errorMessage) {
-        int numberOfSpace = buildInputMessage().length();
-        writeError(" ".repeat(numberOfSpace) + errorMessage);
+        streams.sink.error(indent() + errorMessage);
     }
 
-    private void writeError(String errorMessage) {
-        streams.err.println(errorMessage);
+    // only recomputed when the sub space changed
+    private String indent() {
+        final String tag = localSession.getSubSpaceTag();
+        if (!tag.equals(indentTag)) {
+            indent = " ".repeat(buildInputMessage().length());
+            indentTag = tag;
+        }
+        return indent;
     }
 
     private String readMessage(final String message) {
+        streams.sink.flush();
         streams.out.print(message);
-        return Input.readNextLine(streams.in);
-    }
-
-    private SubSpaceContext getSubSpaceContext() {
-        return subSpaceContext;
+        streams.out.flush();
+        try {
+            return streams.reader.readLine();
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
     }
 
-    private void openSubSpace(SubSpace space) {
-        subSpaceTag = " [" + space.name() + "]";
+    private synchronized JobManager getJobManager() {
+        if (jobManager == null) {
+            jobManager = new JobManager();
+        }
+        return jobManager;
     }
 
-    private void closeSubSpace(SubSpace space) {
-        subSpaceTag = "";
+    private synchronized TaskScheduler getScheduler() {
+        if (scheduler == null) {
+            scheduler = new TaskScheduler();
+        }
+        return scheduler;
     }
 
-    private Config getConfig() {
-        try {
-            InputStream configStream = Assistant.class.getClassLoader().getResourceAsStream("config.json");
-            return new Config(configStream);
-        } catch (IOException ioe) {
-            throw new IllegalStateException(ioe);
+    private synchronized Config getConfig() {
+        if (configStore == null) {
+            configStore = new ConfigStore();
         }
+        return configStore.get();
     }
 
     public class StreamConfiguration {
@@ -206,6 +369,7 @@ public class Assistant implements AutoCloseable {
 
         public void applyChanges() {
             applied = true;
+            Assistant.this.streams.sink.close();
             Assistant.this.streams = new ActiveStreams(out, err, in);
         }
     }
@@ -214,11 +378,13 @@ public class Assistant implements AutoCloseable {
 class ActiveStreams {
     final PrintStream out;
     final PrintStream err;
-    final InputStream in;
+    final BufferedReader reader;
+    final ConsoleSink sink;
 
     ActiveStreams(final PrintStream out, final PrintStream err, final InputStream in) {
         this.out = out;
         this.err = err;
-        this.in = in;
+        this.reader = Input.newReader(in);
+        this.sink = new ConsoleSink(out, err);
     }
 }
\ No newline at end of file
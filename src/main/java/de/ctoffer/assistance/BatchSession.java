@@ -0,0 +1,119 @@
+package de.ctoffer.assistance;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import de.ctoffer.assistance.commands.CommandParser;
+import de.ctoffer.assistance.context.ConsoleContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Runs the command lines of a script one after another without a prompt.
+ *
+ * <p>
+ * Empty lines and lines starting with '#' are skipped; background markers are ignored, every
+ * command runs in the foreground. All output is written as JSON lines:
+ * </p>
+ * <pre><code>
+ * {"type":"command","line":3,"command":"unzip submissions=3 -d"}
+ * {"type":"output","line":3,"message":"Unzip from ..."}
+ * {"type":"error","line":3,"message":"..."}
+ * {"type":"result","line":3,"status":"ok","millis":1532}
+ * </code></pre>
+ * A command fails if it throws or reports an error. The session stops at the first failure. The progress of
+ * the commands only goes to the log file, so the output stays machine readable.
+ */
+public class BatchSession {
+    public static final int SUCCESS = 0;
+    public static final int FAILURE = 1;
+    private static final String COMMENT = "#";
+
+    private final Assistant assistant;
+    private final BufferedReader script;
+    private final PrintStream out;
+    private final Gson gson = new Gson();
+
+    public BatchSession(final Assistant assistant, final BufferedReader script, final PrintStream out) {
+        this.assistant = assistant;
+        this.script = script;
+        this.out = out;
+    }
+
+    /**
+     * Runs the script until its end, the first failure or an 'exit' command.
+     *
+     * @return {@link #SUCCESS} or {@link #FAILURE}
+     * @throws IOException if the script can't be read
+     */
+    public int run() throws IOException {
+        int lineNumber = 0;
+        String line;
+        while (assistant.shouldServe() && (line = script.readLine()) != null) {
+            ++lineNumber;
+            final String commandLine = CommandParser.stripBackground(line);
+            if (commandLine.isEmpty() || commandLine.startsWith(COMMENT)) {
+                continue;
+            }
+            if (!runLine(lineNumber, commandLine)) {
+                return FAILURE;
+            }
+        }
+        return SUCCESS;
+    }
+
+    private boolean runLine(final int lineNumber, final String commandLine) {
+        final JsonObject command = event("command", lineNumber);
+        command.addProperty("command", commandLine);
+        emit(command);
+
+        final boolean[] reportedError = {false};
+        final ConsoleContext console = ConsoleContext.build(
+                message -> emitMessage("output", lineNumber, message),
+                message -> {
+                    reportedError[0] = true;
+                    emitMessage("error", lineNumber, message);
+                },
+                message -> {
+                    throw new IllegalStateException("Commands can't read input in batch mode!");
+                },
+                assistant::startLoggedTask
+        );
+
+        final long start = System.nanoTime();
+        String failure = null;
+        try {
+            assistant.execute(commandLine, console);
+        } catch (Exception e) {
+            failure = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        }
+
+        final boolean success = failure == null && !reportedError[0];
+        final JsonObject result = event("result", lineNumber);
+        result.addProperty("status", success ? "ok" : "failed");
+        result.addProperty("millis", (System.nanoTime() - start) / 1_000_000);
+        if (failure != null) {
+            result.addProperty("message", failure);
+        }
+        emit(result);
+        return success;
+    }
+
+    private void emitMessage(final String type, final int lineNumber, final String message) {
+        final JsonObject event = event(type, lineNumber);
+        event.addProperty("message", message);
+        emit(event);
+    }
+
+    private static JsonObject event(final String type, final int lineNumber) {
+        final JsonObject event = new JsonObject();
+        event.addProperty("type", type);
+        event.addProperty("line", lineNumber);
+        return event;
+    }
+
+    private synchronized void emit(final JsonObject event) {
+        out.println(gson.toJson(event));
+    }
+}
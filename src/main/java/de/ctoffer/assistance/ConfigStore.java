@@ -0,0 +1,132 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.util.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Holds the current {@link Config} snapshot of the application.
+ *
+ * <p>
+ * The configuration is read from the file given by the system property {@value #CONFIG_PROPERTY},
+ * or from {@value #CONFIG_NAME} in the working directory. While the store is open, a daemon thread
+ * watches the file and swaps in a new snapshot whenever it changes. If the changed file can't be
+ * parsed, the previous snapshot is kept.
+ * </p>
+ * If no such file exists, the {@value #CONFIG_NAME} resource on the classpath is loaded once.
+ */
+public class ConfigStore implements AutoCloseable {
+    public static final String CONFIG_PROPERTY = "sea.config";
+    public static final String CONFIG_NAME = "config.json";
+    private static final Logger logger = LogManager.getLogger(ConfigStore.class);
+
+    private final AtomicReference<Config> current = new AtomicReference<>();
+    private final Path location;
+    private WatchService watchService;
+
+    public ConfigStore() {
+        this(Paths.get(System.getProperty(CONFIG_PROPERTY, CONFIG_NAME)));
+    }
+
+    public ConfigStore(final Path location) {
+        this.location = location.toAbsolutePath();
+        if (Files.isRegularFile(this.location)) {
+            current.set(load(this.location));
+            startWatching();
+        } else {
+            logger.info("No config at '{}', using classpath resource '{}'", this.location, CONFIG_NAME);
+            current.set(loadFromClasspath());
+        }
+    }
+
+    public Config get() {
+        return current.get();
+    }
+
+    private static Config load(final Path path) {
+        try {
+            return new Config(path);
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+    }
+
+    private static Config loadFromClasspath() {
+        try (InputStream configStream = ConfigStore.class.getClassLoader().getResourceAsStream(CONFIG_NAME)) {
+            if (configStream == null) {
+                throw new IllegalStateException("No " + CONFIG_NAME + " found!");
+            }
+            return new Config(configStream);
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+    }
+
+    private void startWatching() {
+        try {
+            watchService = location.getFileSystem().newWatchService();
+            location.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException ioe) {
+            logger.warn("Config '{}' won't be reloaded on change: {}", location, ioe.getMessage());
+            return;
+        }
+
+        final Thread watcher = new Thread(this::watch, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                final WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= location.getFileName().equals(event.context());
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // store was closed
+        }
+    }
+
+    private void reload() {
+        try {
+            current.set(new Config(location));
+            logger.info("Reloaded config '{}'", location);
+        } catch (Exception e) {
+            logger.warn("Keeping previous config, '{}' could not be loaded: {}", location, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ioe) {
+                logger.warn(ioe.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package de.ctoffer.assistance;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes console lines on a dedicated thread, so commands don't block on terminal I/O.
+ *
+ * <p>
+ * Lines are queued in a bounded queue, a full queue blocks the writing thread until the sink caught up.
+ * The writer drains all queued lines at once, writes them in order and flushes the streams as soon as
+ * the queue runs empty or {@link #FLUSH_INTERVAL_MS} passed since the last flush. Lines of one thread keep
+ * their order, lines of different threads are written in the order they were queued.
+ * </p>
+ * <p>
+ * Additionally the sink keeps a status line at the bottom of the output, which is replaced instead of
+ * appended. It's cleared before other lines are written and redrawn below them.
+ * </p>
+ */
+class ConsoleSink implements AutoCloseable {
+    static final int CAPACITY = 8192;
+    static final long FLUSH_INTERVAL_MS = 50;
+    private static final int MAX_BATCH = 1024;
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final BlockingQueue<Line> queue = new LinkedBlockingQueue<>(CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed = false;
+    // only accessed by the writer thread
+    private String status = "";
+    private int shownStatusLength = 0;
+
+    ConsoleSink(final PrintStream out, final PrintStream err) {
+        this.out = out;
+        this.err = err;
+        this.writer = new Thread(this::drain, "console-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void output(final String message) {
+        enqueue(new Line(out, message, null));
+    }
+
+    /**
+     * @param text replaces the status line, an empty text removes it
+     */
+    void status(final String text) {
+        if (!closed) {
+            enqueue(new Line(null, text, null));
+        }
+    }
+
+    void error(final String message) {
+        enqueue(new Line(err, message, null));
+    }
+
+    /**
+     * Blocks until every line queued before this call was written and flushed.
+     */
+    void flush() {
+        if (closed || Thread.currentThread() == writer) {
+            return;
+        }
+        final Line barrier = new Line(null, null, new CountDownLatch(1));
+        enqueue(barrier);
+        try {
+            barrier.written.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(final Line line) {
+        if (closed) {
+            writeDirectly(line);
+            return;
+        }
+        try {
+            queue.put(line);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            writeDirectly(line);
+        }
+    }
+
+    private static void writeDirectly(final Line line) {
+        if (line.target != null && line.text != null) {
+            synchronized (line.target) {
+                line.target.println(line.text);
+            }
+        }
+        line.markWritten();
+    }
+
+    private void drain() {
+        final List<Line> batch = new ArrayList<>();
+        long lastFlush = System.nanoTime();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                final Line first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException ie) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            write(batch);
+
+            final boolean barrier = batch.stream().anyMatch(Line::isBarrier);
+            final long now = System.nanoTime();
+            if (barrier || queue.isEmpty() || now - lastFlush >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS)) {
+                out.flush();
+                err.flush();
+                lastFlush = now;
+            }
+            batch.forEach(Line::markWritten);
+            batch.clear();
+        }
+    }
+
+    // consecutive lines for the same stream are joined, so a batch needs one write per switch of the stream
+    private void write(final List<Line> batch) {
+        final StringBuilder text = new StringBuilder();
+        final String previousStatus = status;
+        PrintStream target = null;
+        for (Line line : batch) {
+            if (line.isStatus()) {
+                status = line.text;
+                continue;
+            } else if (line.isBarrier()) {
+                continue;
+            }
+            if (target == null) {
+                clearStatus();
+            }
+            if (line.target != target) {
+                print(target, text);
+                target = line.target;
+            }
+            text.append(line.text).append(System.lineSeparator());
+        }
+        print(target, text);
+
+        if (shownStatusLength == 0 ? !status.isEmpty() : !status.equals(previousStatus)) {
+            clearStatus();
+            out.print(status);
+            shownStatusLength = status.length();
+        }
+    }
+
+    private void clearStatus() {
+        if (shownStatusLength > 0) {
+            out.print("\r" + " ".repeat(shownStatusLength) + "\r");
+            shownStatusLength = 0;
+        }
+    }
+
+    private static void print(final PrintStream target, final StringBuilder text) {
+        if (target != null && text.length() > 0) {
+            target.print(text);
+        }
+        text.setLength(0);
+    }
+
+    /**
+     * Writes all queued lines and stops the writer thread. Lines written afterwards go directly to the streams.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        status("");
+        flush();
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        // lines queued while closing
+        Line line;
+        while ((line = queue.poll()) != null) {
+            writeDirectly(line);
+        }
+    }
+
+    private static class Line {
+        private final PrintStream target;
+        private final String text;
+        // only set for barriers of flush(), the writer counts it down once everything before was flushed
+        private final CountDownLatch written;
+
+        private Line(final PrintStream target, final String text, final CountDownLatch written) {
+            this.target = target;
+            this.text = text;
+            this.written = written;
+        }
+
+        private boolean isStatus() {
+            return target == null && text != null;
+        }
+
+        private boolean isBarrier() {
+            return target == null && text == null;
+        }
+
+        private void markWritten() {
+            if (written != null) {
+                written.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.assistance.commands.CommandParser;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.util.CancellationToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.ctoffer.assistance.DaemonProtocol.*;
+
+/**
+ * Keeps the assistant resident, so its configuration, caches and browser session stay warm between
+ * invocations. Clients connect to a socket on the loopback interface; port and access token are
+ * written to {@link DaemonProtocol#infoFile()}, which only the owner can read.
+ *
+ * <p>
+ * Every connection is served by its own thread and gets its own {@link Session}, so several clients
+ * can work at the same time. Commands run in the foreground of their connection, background markers
+ * are ignored.
+ * </p>
+ */
+public class Daemon implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(Daemon.class);
+    private static final String PORT_SYSTEM_PROPERTY = "sea.daemon.port";
+    private static final int TOKEN_BYTES = 32;
+
+    private final Assistant assistant;
+    private final String token;
+    private final ExecutorService connections;
+    private ServerSocket server;
+    private volatile boolean running = true;
+
+    public Daemon(final Assistant assistant) {
+        this.assistant = assistant;
+        this.token = createToken();
+        final AtomicInteger counter = new AtomicInteger(1);
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "daemon-connection-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static String createToken() {
+        final byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Accepts connections until the daemon is closed or a client sends {@link DaemonProtocol#SHUTDOWN}.
+     *
+     * @throws IOException if the socket can't be opened
+     */
+    public void serve() throws IOException {
+        final int port = Integer.getInteger(PORT_SYSTEM_PROPERTY, 0);
+        server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        writeInfoFile(server.getLocalPort());
+        logger.info("Daemon listening on {}", server.getLocalSocketAddress());
+
+        try {
+            while (running) {
+                final Socket socket = server.accept();
+                connections.submit(() -> serve(socket));
+            }
+        } catch (SocketException e) {
+            if (running) {
+                throw e;
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void writeInfoFile(final int port) throws IOException {
+        final Path file = infoFile();
+        Files.createDirectories(file.getParent());
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        Files.createFile(temp);
+        try {
+            Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            logger.warn("Can't restrict the permissions of {}", temp);
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty(PORT_PROPERTY, Integer.toString(port));
+        properties.setProperty(TOKEN_PROPERTY, token);
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "sea daemon");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void serve(final Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            final Connection connection = new Connection(in, out);
+            if (connection.authorize()) {
+                try {
+                    connection.serve();
+                } finally {
+                    connection.closeSession();
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Connection closed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        try {
+            if (server != null) {
+                server.close();
+            }
+            Files.deleteIfExists(infoFile());
+        } catch (IOException e) {
+            logger.warn("Couldn't close the daemon cleanly: {}", e.getMessage());
+        }
+        connections.shutdownNow();
+    }
+
+    private class Connection {
+        private final BufferedReader in;
+        private final PrintWriter out;
+        private boolean open = true;
+        private final Session session = new Session(() -> open = false);
+
+        private Connection(final BufferedReader in, final PrintWriter out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        // a client which went away without closing its sub space must not leave its browser behind
+        private void closeSession() {
+            try {
+                session.close();
+            } catch (RuntimeException e) {
+                logger.warn("Couldn't close the session of a connection: {}", e.getMessage());
+            }
+        }
+
+        private boolean authorize() throws IOException {
+            final String frame = in.readLine();
+            final boolean authorized = frame != null
+                    && AUTH.equals(keyword(frame))
+                    && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), payload(frame).getBytes(StandardCharsets.UTF_8));
+            if (!authorized) {
+                send(ERR, "Not authorized!");
+                send(END, FAILED);
+            }
+            return authorized;
+        }
+
+        private void serve() throws IOException {
+            String frame;
+            while (open && running && (frame = in.readLine()) != null) {
+                switch (keyword(frame)) {
+                    case RUN:
+                        run(CommandParser.stripBackground(payload(frame)));
+                        break;
+                    case SHUTDOWN:
+                        send(END, OK);
+                        Daemon.this.close();
+                        return;
+                    default:
+                        send(ERR, "Unexpected frame '" + keyword(frame) + "'");
+                        send(END, FAILED);
+                }
+            }
+        }
+
+        private void run(final String commandLine) {
+            final CancellationToken cancellation = CancellationToken.create();
+            final boolean[] failed = {false};
+            final ConsoleContext console = ConsoleContext.build(
+                    message -> send(OUT, message, cancellation),
+                    message -> {
+                        failed[0] = true;
+                        send(ERR, message, cancellation);
+                    },
+                    this::ask,
+                    (name, total) -> Progress.NONE
+            );
+
+            try {
+                assistant.execute(commandLine, console, session, cancellation);
+            } catch (Exception e) {
+                failed[0] = true;
+                send(ERR, e.getMessage());
+            }
+            send(END, failed[0] ? FAILED : OK);
+        }
+
+        private String ask(final String prompt) {
+            send(ASK, prompt);
+            try {
+                final String frame = in.readLine();
+                if (frame == null || !INPUT.equals(keyword(frame))) {
+                    throw new IllegalStateException("Client didn't answer the input request!");
+                }
+                return payload(frame);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // a client which went away cancels its command
+        private void send(final String keyword, final String payload, final CancellationToken cancellation) {
+            if (!send(keyword, payload)) {
+                cancellation.cancel("Client disconnected");
+            }
+        }
+
+        private synchronized boolean send(final String keyword, final String payload) {
+            out.println(frame(keyword, payload));
+            out.flush();
+            return !out.checkError();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.util.Input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static de.ctoffer.assistance.DaemonProtocol.*;
+
+/**
+ * Thin front end of the {@link Daemon}: sends command lines and prints the streamed output.
+ */
+public class DaemonClient implements AutoCloseable {
+    public static final int SUCCESS = 0;
+    public static final int FAILURE = 1;
+    private static final String PROMPT = "SEA (daemon): ";
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final BufferedReader console = Input.newReader(System.in);
+
+    private DaemonClient(final Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * Connects to the running daemon.
+     *
+     * @throws IllegalStateException if no daemon is running
+     * @throws IOException           if the connection fails
+     */
+    public static DaemonClient connect() throws IOException {
+        final Path file = infoFile();
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No daemon running, start one with --daemon!");
+        }
+        final Properties properties = new Properties();
+        try (InputStream stream = Files.newInputStream(file)) {
+            properties.load(stream);
+        }
+
+        final int port = Integer.parseInt(properties.getProperty(PORT_PROPERTY));
+        final DaemonClient client = new DaemonClient(new Socket(InetAddress.getLoopbackAddress(), port));
+        client.out.println(frame(AUTH, properties.getProperty(TOKEN_PROPERTY)));
+        return client;
+    }
+
+    /**
+     * Runs a single command line on the daemon.
+     *
+     * @return {@link #SUCCESS} or {@link #FAILURE}
+     */
+    public int run(final String commandLine) throws IOException {
+        out.println(frame(RUN, commandLine));
+        return awaitEnd();
+    }
+
+    /**
+     * Reads command lines from stdin and runs them one after another until stdin ends or the
+     * session is stopped by 'exit'.
+     *
+     * @return status of the last command
+     */
+    public int interact() throws IOException {
+        int status = SUCCESS;
+        String line;
+        while (!socket.isClosed() && (line = prompt(PROMPT)) != null) {
+            status = run(line);
+            if (status == SUCCESS && isExit(line)) {
+                break;
+            }
+        }
+        return status;
+    }
+
+    private static boolean isExit(final String line) {
+        final String command = line.trim();
+        return command.equals("exit") || command.equals("stop");
+    }
+
+    public int shutdown() throws IOException {
+        out.println(frame(SHUTDOWN, ""));
+        return awaitEnd();
+    }
+
+    private int awaitEnd() throws IOException {
+        String frame;
+        while ((frame = in.readLine()) != null) {
+            final String payload = payload(frame);
+            switch (keyword(frame)) {
+                case OUT:
+                    System.out.println(payload);
+                    break;
+                case ERR:
+                    System.err.println(payload);
+                    break;
+                case ASK:
+                    final String answer = prompt(payload);
+                    out.println(frame(INPUT, answer == null ? "" : answer));
+                    break;
+                case END:
+                    return OK.equals(payload) ? SUCCESS : FAILURE;
+                default:
+                    break;
+            }
+        }
+        throw new IOException("Daemon closed the connection");
+    }
+
+    private String prompt(final String prompt) throws IOException {
+        System.out.print(prompt);
+        System.out.flush();
+        return console.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,74 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.meta.FolderManager;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Line based protocol between {@link Daemon} and {@link DaemonClient}. Every line is a frame of a
+ * keyword and an escaped payload, separated by a single space.
+ *
+ * <pre><code>
+ * client: AUTH &lt;token&gt;        daemon: OUT &lt;message&gt;
+ *         RUN &lt;command line&gt;           ERR &lt;message&gt;
+ *         INPUT &lt;answer&gt;                ASK &lt;prompt&gt;
+ *         SHUTDOWN                      END ok|failed
+ * </code></pre>
+ */
+enum DaemonProtocol {
+    ;
+
+    static final String AUTH = "AUTH";
+    static final String RUN = "RUN";
+    static final String INPUT = "INPUT";
+    static final String SHUTDOWN = "SHUTDOWN";
+    static final String OUT = "OUT";
+    static final String ERR = "ERR";
+    static final String ASK = "ASK";
+    static final String END = "END";
+    static final String OK = "ok";
+    static final String FAILED = "failed";
+
+    static final String PORT_PROPERTY = "port";
+    static final String TOKEN_PROPERTY = "token";
+
+    /**
+     * @return file the running daemon writes its port and access token to
+     */
+    static Path infoFile() {
+        return Paths.get(System.getProperty("user.home"), FolderManager.CACHE_FOLDER, "daemon.properties");
+    }
+
+    static String frame(final String keyword, final String payload) {
+        return keyword + " " + escape(payload);
+    }
+
+    static String keyword(final String frame) {
+        final int separator = frame.indexOf(' ');
+        return separator < 0 ? frame : frame.substring(0, separator);
+    }
+
+    static String payload(final String frame) {
+        final int separator = frame.indexOf(' ');
+        return separator < 0 ? "" : unescape(frame.substring(separator + 1));
+    }
+
+    private static String escape(final String text) {
+        return text == null ? "" : text.replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    private static String unescape(final String text) {
+        final StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                final char next = text.charAt(++i);
+                result.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package de.ctoffer.assistance;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Typed result of {@link ArgumentSpec#parse(List, String)}.
+ */
+public class ParsedArguments {
+    private final List<Value> values;
+
+    ParsedArguments(final List<Value> values) {
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    public boolean has(final String name) {
+        for (Value value : values) {
+            if (value.name.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param name name of an int option or of the positional ints
+     * @return value of the first occurrence
+     * @throws NoSuchElementException if the argument wasn't given
+     */
+    public int getInt(final String name) {
+        for (Value value : values) {
+            if (value.name.equals(name)) {
+                return value.number;
+            }
+        }
+        throw new NoSuchElementException("Argument '" + name + "' is missing");
+    }
+
+    public List<Integer> getInts(final String name) {
+        return values.stream()
+                .filter(value -> value.name.equals(name))
+                .map(Value::getNumber)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return all arguments in the order they were given
+     */
+    public List<Value> inOrder() {
+        return values;
+    }
+
+    public static class Value {
+        private final String name;
+        private final int number;
+
+        Value(final String name, final int number) {
+            this.name = name;
+            this.number = number;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return parsed number of int options and positional ints, 0 for flags
+         */
+        public int getNumber() {
+            return number;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.assistance.context.ApplicationContext;
+import de.ctoffer.assistance.context.SubSpaceContext;
+
+/**
+ * State of one user of the assistant: the opened sub space with its resources and what stopping means for them.
+ * The local console has its own session, every connection to the {@link Daemon} gets another one.
+ */
+public class Session {
+    private final SubSpaceContext subSpaceContext;
+    private final ApplicationContext applicationContext;
+    private volatile String subSpaceTag = "";
+
+    /**
+     * @param stop called when a command of this session stops the application
+     */
+    public Session(final Runnable stop) {
+        this.subSpaceContext = SubSpaceContext.build(
+                space -> subSpaceTag = " [" + space.name() + "]",
+                space -> subSpaceTag = ""
+        );
+        this.applicationContext = stop::run;
+    }
+
+    /**
+     * @return tag of the opened sub space, e.g. " [MOODLE]", or an empty string
+     */
+    public String getSubSpaceTag() {
+        return subSpaceTag;
+    }
+
+    SubSpaceContext getSubSpaceContext() {
+        return subSpaceContext;
+    }
+
+    ApplicationContext getApplicationContext() {
+        return applicationContext;
+    }
+
+    /**
+     * Closes what the session left open, like the browser of the {@code [MOODLE]} sub space.
+     */
+    void close() {
+        subSpaceContext.closeOpenSpace();
+    }
+}
@@ -0,0 +1,288 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.assistance.context.SchedulerContext.Priority;
+import de.ctoffer.assistance.context.SchedulerContext.Workload;
+import de.ctoffer.assistance.context.SchedulerStats;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The thread pools shared by all commands.
+ *
+ * <ul>
+ *     <li>{@link Workload#IO}: {@value #IO_THREADS} threads</li>
+ *     <li>{@link Workload#CPU}: one thread per core</li>
+ * </ul>
+ * Both pools start queued tasks by priority and, within a priority, in submission order. Each command
+ * may occupy at most its quota of a pool at a time, by default {@value #DEFAULT_QUOTA_PERCENT}% of the
+ * pool; its further tasks are held back until one of its running tasks finished. Tasks which can't run
+ * anymore because the scheduler was closed are cancelled.
+ *
+ * <p>
+ * Both pools run on platform threads only. The priority queue needs a pool with a fixed number of
+ * threads, which caps the concurrency just the same, so virtual threads would gain nothing here.
+ * </p>
+ */
+public class TaskScheduler implements AutoCloseable {
+    public static final int IO_THREADS = 32;
+    public static final int DEFAULT_QUOTA_PERCENT = 75;
+
+    private final Map<Workload, Pool> pools = new EnumMap<>(Workload.class);
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public TaskScheduler() {
+        pools.put(Workload.IO, new Pool(Workload.IO, IO_THREADS, threadFactory("io")));
+        pools.put(Workload.CPU, new Pool(Workload.CPU, Runtime.getRuntime().availableProcessors(),
+                threadFactory("cpu")));
+    }
+
+    private static ThreadFactory threadFactory(final String prefix) {
+        final AtomicInteger counter = new AtomicInteger(1);
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @param commandName name of the command whose tasks are submitted
+     * @return view of the scheduler which accounts all tasks to the given command
+     */
+    public SchedulerContext forCommand(final String commandName) {
+        return new SchedulerContext() {
+            @Override
+            public <T> Future<T> submit(final Workload workload, final Priority priority, final Callable<T> task) {
+                return TaskScheduler.this.submit(commandName, workload, priority, task);
+            }
+
+            @Override
+            public List<SchedulerStats> stats() {
+                return TaskScheduler.this.stats();
+            }
+        };
+    }
+
+    /**
+     * Limits the number of tasks a command may run at the same time in the given pool.
+     *
+     * @param commandName name of the command
+     * @param workload    pool the quota applies to
+     * @param limit       maximum number of running tasks, at least 1
+     */
+    public void setQuota(final String commandName, final Workload workload, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("A quota must allow at least one task!");
+        }
+        quota(commandName, workload).setLimit(limit);
+    }
+
+    private Quota quota(final String commandName, final Workload workload) {
+        return quotas.computeIfAbsent(commandName + "/" + workload, key -> {
+            final Pool pool = pools.get(workload);
+            return new Quota(pool, Math.max(1, pool.threads * DEFAULT_QUOTA_PERCENT / 100));
+        });
+    }
+
+    private <T> Future<T> submit(final String commandName,
+                                 final Workload workload,
+                                 final Priority priority,
+                                 final Callable<T> task) {
+        final Quota quota = quota(commandName, workload);
+        final ScheduledTask<T> scheduled = new ScheduledTask<>(task, priority, sequence.getAndIncrement(), quota);
+        quota.offer(scheduled);
+        return scheduled;
+    }
+
+    public List<SchedulerStats> stats() {
+        final List<SchedulerStats> stats = new ArrayList<>();
+        for (Pool pool : pools.values()) {
+            final int held = quotas.values().stream().filter(quota -> quota.pool == pool).mapToInt(Quota::held).sum();
+            stats.add(pool.stats(held));
+        }
+        return stats;
+    }
+
+    /**
+     * Interrupts the running tasks and cancels all others, so no one waits for their futures forever.
+     */
+    @Override
+    public void close() {
+        for (Pool pool : pools.values()) {
+            for (Runnable queued : pool.executor.shutdownNow()) {
+                ((Future<?>) queued).cancel(false);
+            }
+        }
+        quotas.values().forEach(Quota::cancelWaiting);
+    }
+
+    private static class Pool {
+        private final Workload workload;
+        private final int threads;
+        private final ThreadPoolExecutor executor;
+        // guarded by the pool, running tasks are accounted up to the last sample, so long tasks show up too
+        private final Set<ScheduledTask<?>> running = new HashSet<>();
+        private long busyNanos = 0;
+        private long lastSample = System.nanoTime();
+        private long lastBusy = 0;
+
+        private Pool(final Workload workload, final int threads, final ThreadFactory factory) {
+            this.workload = workload;
+            this.threads = threads;
+            // the queue is unbounded, so the pool never grows beyond its core threads
+            this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<>(), factory);
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        private synchronized void started(final ScheduledTask<?> task) {
+            task.accountedUntil = System.nanoTime();
+            running.add(task);
+        }
+
+        private synchronized void finished(final ScheduledTask<?> task) {
+            busyNanos += System.nanoTime() - task.accountedUntil;
+            running.remove(task);
+        }
+
+        private synchronized SchedulerStats stats(final int held) {
+            final long now = System.nanoTime();
+            for (ScheduledTask<?> task : running) {
+                busyNanos += now - task.accountedUntil;
+                task.accountedUntil = now;
+            }
+            final long busy = busyNanos;
+            final long elapsed = Math.max(1, now - lastSample) * threads;
+            final double utilisation = Math.min(1.0, (double) (busy - lastBusy) / elapsed);
+            lastSample = now;
+            lastBusy = busy;
+            return new SchedulerStats(workload, threads, executor.getActiveCount(),
+                    executor.getQueue().size(), held, executor.getCompletedTaskCount(), utilisation);
+        }
+    }
+
+    /**
+     * Running tasks of one command in one pool. Tasks beyond the limit wait here, ordered like the
+     * pool's queue, until a running task of the command finished.
+     */
+    private static class Quota {
+        private final Pool pool;
+        private final PriorityQueue<ScheduledTask<?>> waiting = new PriorityQueue<>();
+        private int limit;
+        private int running = 0;
+
+        private Quota(final Pool pool, final int limit) {
+            this.pool = pool;
+            this.limit = limit;
+        }
+
+        private synchronized void setLimit(final int limit) {
+            this.limit = limit;
+            dispatchWaiting();
+        }
+
+        private synchronized void offer(final ScheduledTask<?> task) {
+            if (pool.executor.isShutdown()) {
+                task.cancel(false);
+                return;
+            }
+            waiting.add(task);
+            dispatchWaiting();
+        }
+
+        // runs under the same lock as the dispatch, so a task cancelled while being dispatched is counted once
+        private synchronized void done(final ScheduledTask<?> task) {
+            if (task.dispatched) {
+                --running;
+                dispatchWaiting();
+            }
+        }
+
+        private void dispatchWaiting() {
+            while (running < limit && !waiting.isEmpty()) {
+                final ScheduledTask<?> next = waiting.poll();
+                if (!next.isCancelled()) {
+                    ++running;
+                    next.dispatched = true;
+                    try {
+                        pool.executor.execute(next);
+                    } catch (RejectedExecutionException e) {
+                        // the scheduler was closed, none of the waiting tasks will ever run
+                        --running;
+                        next.dispatched = false;
+                        next.cancel(false);
+                        cancelWaiting();
+                    }
+                }
+            }
+        }
+
+        private synchronized void cancelWaiting() {
+            while (!waiting.isEmpty()) {
+                waiting.poll().cancel(false);
+            }
+        }
+
+        private synchronized int held() {
+            return (int) waiting.stream().filter(task -> !task.isCancelled()).count();
+        }
+    }
+
+    private static class ScheduledTask<T> extends FutureTask<T> implements Comparable<ScheduledTask<?>> {
+        private final Priority priority;
+        private final long sequence;
+        private final Quota quota;
+        // guarded by the quota
+        private boolean dispatched = false;
+        // guarded by the pool
+        private long accountedUntil;
+
+        private ScheduledTask(final Callable<T> task, final Priority priority, final long sequence, final Quota quota) {
+            super(task);
+            this.priority = priority;
+            this.sequence = sequence;
+            this.quota = quota;
+        }
+
+        @Override
+        public void run() {
+            quota.pool.started(this);
+            try {
+                super.run();
+            } finally {
+                quota.pool.finished(this);
+            }
+        }
+
+        // called once the task completed or was cancelled; only dispatched tasks hold a slot of the quota
+        @Override
+        protected void done() {
+            quota.done(this);
+        }
+
+        @Override
+        public int compareTo(final ScheduledTask<?> other) {
+            final int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
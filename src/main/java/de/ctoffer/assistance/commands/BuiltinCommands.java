@@ -0,0 +1,30 @@
+package de.ctoffer.assistance.commands;
+
+import java.util.List;
+
+import static de.ctoffer.assistance.commands.CommandDescriptor.of;
+
+/**
+ * Commands shipped with the assistant.
+ */
+public class BuiltinCommands implements CommandProvider {
+    @Override
+    public List<CommandDescriptor> commands() {
+        return List.of(
+                of("empty", () -> new EmptyCommand(), ""),
+                of("exit", () -> new ExitCommand(), "stop"),
+                of("moodle", () -> new MoodleCommand()),
+                of("unzip", () -> new UnzipCommand(), "uz"),
+                of("testat", () -> new TestatCommand(), "tt"),
+                of("jobs", () -> new JobsCommand()),
+                of("fg", () -> new ForegroundCommand()),
+                of("kill", () -> new KillCommand()),
+                of("scheduler", () -> new SchedulerCommand(), "sched"),
+                of("pipeline", () -> new PipelineCommand()),
+                of("clean", () -> new CleanCommand()),
+                of("similarity", () -> new SimilarityCommand(), "sim"),
+                of("compile", () -> new CompileCommand()),
+                of("test", () -> new TestCommand())
+        );
+    }
+}
@@ -0,0 +1,137 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.assistance.context.SchedulerContext.Priority;
+import de.ctoffer.assistance.context.SchedulerContext.Workload;
+import de.ctoffer.compile.SubmissionCompiler;
+import de.ctoffer.meta.FolderManager;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.meta.SubmissionRecord;
+import de.ctoffer.util.Config;
+import de.ctoffer.util.TreeDeleter;
+import de.ctoffer.util.ZipUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Require({Context.CONSOLE, Context.CONFIG, Context.SCHEDULER})
+public class CleanCommand extends Command {
+    private static final String SHEET = "sheet";
+    private static final String DRY_RUN = "-n";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SHEET)
+            .flag(DRY_RUN)
+            .build();
+    private static final int PARALLELISM = 16;
+    private static final String PART_SUFFIX = ".part";
+    private static final String LEGACY_METADATA_PREFIX = "submissionPaths_";
+
+    @Override
+    public String name() {
+        return "clean";
+    }
+
+    @Override
+    public String help() {
+        return "clean sheet=<sheet number> [-n] - deletes the extracted folders, compiled classes, cached compile " +
+                "and test results, unfinished downloads and legacy metadata of the sheet, the downloaded archives " +
+                "are kept. -n only lists what would be deleted.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        if (!parsedArguments.has(SHEET)) {
+            return;
+        }
+        Config config = contexts.getContext(Context.CONFIG);
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        FolderManager.ExerciseManager exerciseManager = new FolderManager(config).getExerciseManager();
+        int sheetNr = parsedArguments.getInt(SHEET);
+
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog()) {
+            List<SubmissionRecord> extracted = catalog.bySheet(sheetNr)
+                    .stream()
+                    .filter(record -> record.getState() == SubmissionRecord.State.EXTRACTED)
+                    .filter(record -> record.getExtractedPath() != null)
+                    .collect(Collectors.toList());
+            Set<Path> targets = new LinkedHashSet<>();
+            extracted.forEach(record -> targets.add(record.getExtractedPath()));
+            targets.addAll(findUnrecorded(exerciseManager.getSheetFolder(sheetNr)));
+            // the cached results are keyed by the sources, stale ones would never be looked up again
+            Path resultCache = exerciseManager.getResultCacheFolder(sheetNr);
+            if (Files.isDirectory(resultCache)) {
+                targets.add(resultCache);
+            }
+
+            if (parsedArguments.has(DRY_RUN)) {
+                targets.forEach(target -> console.output("would delete " + target));
+                return;
+            }
+
+            final long start = System.nanoTime();
+            TreeDeleter.Result result = new TreeDeleter(ioExecutor(), PARALLELISM, cancellation).deleteAll(targets);
+            for (SubmissionRecord record : extracted) {
+                if (Files.notExists(record.getExtractedPath())) {
+                    catalog.put(record.withoutExtraction());
+                }
+            }
+            result.getFailures().forEach(failure -> console.error("Couldn't delete " + failure));
+            console.output("%s of %s paths in %s ms.", result, targets.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException ioe) {
+            console.error(ioe.getMessage());
+        }
+    }
+
+    private Executor ioExecutor() {
+        SchedulerContext scheduler = contexts.getContext(Context.SCHEDULER);
+        return task -> scheduler.submit(Workload.IO, Priority.LOW, Executors.callable(task));
+    }
+
+    /**
+     * Extracted folders and compiled classes next to their archive, also those of submissions unzipped before
+     * the catalog existed, unfinished downloads and the legacy path lists.
+     */
+    private static List<Path> findUnrecorded(final Path sheetFolder) throws IOException {
+        final List<Path> found = new ArrayList<>();
+        if (Files.notExists(sheetFolder)) {
+            return found;
+        }
+        // sheet folder, group folders and their files; the extracted trees themselves are not walked
+        try (Stream<Path> paths = Files.walk(sheetFolder, 2)) {
+            paths.filter(Files::isRegularFile).forEach(path -> {
+                final String name = path.getFileName().toString();
+                if (name.endsWith(PART_SUFFIX) || name.startsWith(LEGACY_METADATA_PREFIX)) {
+                    found.add(path);
+                } else if (ZipUtils.isZip(path)) {
+                    final Path destination = path.resolveSibling(name.replace(".zip", ""));
+                    if (Files.isDirectory(destination)) {
+                        found.add(destination);
+                    }
+                    final Path classes = SubmissionCompiler.classesFolder(destination);
+                    if (Files.isDirectory(classes)) {
+                        found.add(classes);
+                    }
+                }
+            });
+        }
+        return found;
+    }
+}
@@ -1,23 +1,24 @@
 package de.ctoffer.assistance.commands;
 
+import de.ctoffer.assistance.ArgumentSpec;
 import de.ctoffer.assistance.Arguments;
+import de.ctoffer.assistance.ParsedArguments;
 import de.ctoffer.assistance.context.AvailableContexts;
 import de.ctoffer.assistance.context.ConsoleContext;
 import de.ctoffer.assistance.context.Context;
-import de.ctoffer.assistance.context.Require;
+import de.ctoffer.util.CancellationToken;
 import de.ctoffer.util.ObjectUtils;
 
-import java.util.Collections;
-import java.util.List;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import static java.lang.String.format;
-
 public abstract class Command {
     private final AtomicInteger counter = new AtomicInteger(0);
     protected Arguments arguments;
+    protected ParsedArguments parsedArguments;
     protected AvailableContexts contexts;
+    protected CancellationToken cancellation = CancellationToken.NONE;
 
     public boolean isKnown() {
         return true;
@@ -37,9 +38,26 @@ public abstract class Command {
         this.arguments = Objects.requireNonNull(arguments);
     }
 
+    /**
+     * Executes the command with a token of its own, so a deadline given by the arguments still applies.
+     */
     public void execute() {
-        ObjectUtils.requireAllNonNull(arguments, contexts);
+        execute(CancellationToken.create());
+    }
+
+    /**
+     * Executes the command. Implementations check the token between their steps via {@link #cancellation}.
+     *
+     * @param cancellation token to cancel the command, gets the deadline given by the arguments
+     * @throws java.util.concurrent.CancellationException if the command was cancelled
+     */
+    public void execute(CancellationToken cancellation) {
+        ObjectUtils.requireAllNonNull(arguments, contexts, cancellation);
         checkArguments();
+        this.cancellation = cancellation;
+        if (parsedArguments.has(ArgumentSpec.DEADLINE)) {
+            cancellation.setDeadline(Duration.ofSeconds(parsedArguments.getInt(ArgumentSpec.DEADLINE)));
+        }
         if(arguments.containsHelp()) {
            ConsoleContext context = contexts.getContext(Context.CONSOLE);
            context.output(help());
@@ -56,17 +74,17 @@ public abstract class Command {
     }
 
     public void checkArguments() {
-        List<String> args = arguments.getNonHelpFlags();
-
-        for(String argument :  args) {
-            if(getValidNonHelpArguments().stream().noneMatch(argument::matches)) {
-                throw new IllegalStateException(format("Unknown argument '%s' for command '%s'", argument, name()));
-            }
-        }
+        parsedArguments = argumentSpec().parse(arguments.getNonHelpFlags(), name());
     }
 
-    protected List<String> getValidNonHelpArguments() {
-        return Collections.emptyList();
+    /**
+     * Spec of the arguments this command accepts. Implementations should return a constant,
+     * so the spec is only built once per command class.
+     *
+     * @return spec of the accepted arguments
+     */
+    protected ArgumentSpec argumentSpec() {
+        return ArgumentSpec.NONE;
     }
 
     public void runPreCore() {
@@ -0,0 +1,52 @@
+package de.ctoffer.assistance.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Name, aliases and factory of a command. Describing a command doesn't load its class,
+ * so commands with heavy dependencies are only loaded when they are used for the first time.
+ */
+public final class CommandDescriptor {
+    private final String name;
+    private final List<String> aliases;
+    private final Supplier<Command> factory;
+
+    private CommandDescriptor(final String name, final List<String> aliases, final Supplier<Command> factory) {
+        this.name = Objects.requireNonNull(name);
+        this.aliases = aliases;
+        this.factory = Objects.requireNonNull(factory);
+    }
+
+    /**
+     * @param name    name of the command, must match {@link Command#name()}
+     * @param factory creates a new command; use a lambda instead of a constructor reference,
+     *                otherwise the command class is resolved while the descriptor is created
+     * @param aliases alternative names of the command
+     * @return descriptor of the command
+     */
+    public static CommandDescriptor of(final String name, final Supplier<Command> factory, final String... aliases) {
+        return new CommandDescriptor(name, Collections.unmodifiableList(Arrays.asList(aliases)), factory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    Command create() {
+        final Command command = factory.get();
+        if (!name.equals(command.name())) {
+            throw new IllegalStateException(String.format(
+                    "Command '%s' was registered as '%s'!", command.name(), name
+            ));
+        }
+        return command;
+    }
+}
@@ -9,6 +9,35 @@ import java.util.List;
 public enum CommandParser {
     ;
 
+    private static final String BACKGROUND_SUFFIX = "&";
+    private static final String BACKGROUND_PREFIX = "bg ";
+
+    /**
+     * @param input line entered by the user
+     * @return <i>true</i> if the line ends with '&amp;' or starts with 'bg'
+     */
+    public static boolean isBackground(final String input) {
+        final String trimmed = input.trim();
+        return trimmed.endsWith(BACKGROUND_SUFFIX) || trimmed.startsWith(BACKGROUND_PREFIX);
+    }
+
+    /**
+     * Removes the markers checked by {@link #isBackground(String)}.
+     *
+     * @param input line entered by the user
+     * @return command line without background markers
+     */
+    public static String stripBackground(final String input) {
+        String result = input.trim();
+        if (result.endsWith(BACKGROUND_SUFFIX)) {
+            result = result.substring(0, result.length() - BACKGROUND_SUFFIX.length()).trim();
+        }
+        if (result.startsWith(BACKGROUND_PREFIX)) {
+            result = result.substring(BACKGROUND_PREFIX.length()).trim();
+        }
+        return result;
+    }
+
     public static Pair<Command, Arguments> parse(final String input) {
         List<String> parts = Arrays.asList(input.split(" "));
         Command command = CommandRegister.INSTANCE.getCommand(parts.get(0));
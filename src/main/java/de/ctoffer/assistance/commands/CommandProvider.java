@@ -0,0 +1,12 @@
+package de.ctoffer.assistance.commands;
+
+import java.util.List;
+
+/**
+ * Service that contributes commands to the {@link CommandRegister}. Besides the {@link BuiltinCommands},
+ * implementations are found with {@link java.util.ServiceLoader} and have to be listed in
+ * <code>META-INF/services/de.ctoffer.assistance.commands.CommandProvider</code>.
+ */
+public interface CommandProvider {
+    List<CommandDescriptor> commands();
+}
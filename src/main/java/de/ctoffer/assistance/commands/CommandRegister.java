@@ -2,30 +2,54 @@ package de.ctoffer.assistance.commands;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 
 public enum CommandRegister {
     INSTANCE;
 
     private Map<String, String> aliases = new HashMap<>();
-    private Map<String, Command> commands = new HashMap<>();
+    private Map<String, CommandDescriptor> commands = new HashMap<>();
+    private boolean providersLoaded = false;
 
     CommandRegister() {
-        register(new EmptyCommand(), "");
-        register(new ExitCommand(), "stop");
-        register(new MoodleCommand());
-        register(new UnzipCommand(), "uz");
+        new BuiltinCommands().commands().forEach(this::register);
     }
 
-    private void register(Command command, String... aliases) {
-        String name = command.name();
+    // scanning the class path for providers opens every jar, so it's only done for names the built-ins don't know
+    private void loadProviders() {
+        providersLoaded = true;
+        for (CommandProvider provider : ServiceLoader.load(CommandProvider.class)) {
+            if (!(provider instanceof BuiltinCommands)) {
+                provider.commands().forEach(this::register);
+            }
+        }
+    }
+
+    private void register(CommandDescriptor descriptor) {
+        String name = descriptor.getName();
+        if (commands.putIfAbsent(name, descriptor) != null) {
+            throw new IllegalStateException(String.format("Command '%s' is registered twice!", name));
+        }
         this.aliases.put(name, name);
-        for(final String alias : aliases) {
+        for(final String alias : descriptor.getAliases()) {
             this.aliases.put(alias, name);
         }
-        commands.put(name, command);
     }
 
-    public Command getCommand(String name) {
-        return commands.getOrDefault(aliases.getOrDefault(name, name), new UnknownCommand(name));
+    /**
+     * Creates a new instance of the command with the given name or alias, so every
+     * execution works on its own arguments and contexts. A command is only created when it is
+     * requested, commands of other {@link CommandProvider}s are looked up on the first unknown name.
+     *
+     * @param name name or alias of the command
+     * @return new command instance or {@link UnknownCommand} if there is no such command
+     */
+    public synchronized Command getCommand(String name) {
+        CommandDescriptor descriptor = commands.get(aliases.getOrDefault(name, name));
+        if (descriptor == null && !providersLoaded) {
+            loadProviders();
+            descriptor = commands.get(aliases.getOrDefault(name, name));
+        }
+        return descriptor == null ? new UnknownCommand(name) : descriptor.create();
     }
 }
@@ -0,0 +1,149 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.compile.CachedCompilation;
+import de.ctoffer.compile.CompileResult;
+import de.ctoffer.compile.SubmissionCompiler;
+import de.ctoffer.meta.ExerciseCatalog;
+import de.ctoffer.meta.ExtractedSubmission;
+import de.ctoffer.meta.FolderManager;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.util.Config;
+import de.ctoffer.util.ResultCache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles the unzipped submissions of a sheet in parallel, inside the running JVM.
+ */
+@Require({Context.CONSOLE, Context.CONFIG, Context.SCHEDULER})
+public class CompileCommand extends Command {
+    private static final String SHEET = "sheet";
+    private static final String VERBOSE = "-v";
+    private static final String FORCE = "-f";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SHEET)
+            .flag(VERBOSE)
+            .flag(FORCE)
+            .build();
+    private static final String CLASS_PATH = "compile/classpath";
+    private static final int SHOWN_DIAGNOSTICS = 5;
+
+    @Override
+    public String name() {
+        return "compile";
+    }
+
+    @Override
+    public String help() {
+        return "compile sheet=<sheet number> [-v] [-f] - compiles the unzipped submissions of the sheet and lists " +
+                "the result of each group. Sources compiled before are taken from the cache, -f compiles them " +
+                "again. -v shows all diagnostics instead of the first errors.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        if (!parsedArguments.has(SHEET)) {
+            return;
+        }
+        Config config = contexts.getContext(Context.CONFIG);
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        FolderManager.ExerciseManager exerciseManager = new FolderManager(config).getExerciseManager();
+        int sheetNr = parsedArguments.getInt(SHEET);
+
+        final List<ExtractedSubmission> submissions;
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog()) {
+            submissions = exerciseManager.findExtractedSubmissions(catalog, sheetNr,
+                    ExerciseCatalog.of(config).getTestatExercises(sheetNr));
+        } catch (IOException ioe) {
+            console.error(ioe.getMessage());
+            return;
+        }
+        if (submissions.isEmpty()) {
+            console.error("No unzipped submissions found for sheet " + sheetNr + "!");
+            return;
+        }
+
+        final String classPath = config.has(CLASS_PATH) ? config.getString(CLASS_PATH) : "";
+        final int workers = Runtime.getRuntime().availableProcessors();
+        try (SubmissionCompiler compiler = new SubmissionCompiler(workers, classPath)) {
+            final ResultCache<CachedCompilation> cache = compiler.openCache(
+                    exerciseManager.getResultCacheFolder(sheetNr));
+            compileAll(compiler, cache, submissions);
+            if (!parsedArguments.has(FORCE)) {
+                console.output(cache.toString() + ".");
+            }
+        } catch (IOException ioe) {
+            console.error(ioe.getMessage());
+        }
+    }
+
+    private void compileAll(final SubmissionCompiler compiler,
+                            final ResultCache<CachedCompilation> cache,
+                            final List<ExtractedSubmission> submissions) {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        SchedulerContext scheduler = contexts.getContext(Context.SCHEDULER);
+
+        final boolean force = parsedArguments.has(FORCE);
+        final long start = System.nanoTime();
+        final List<Future<CompileResult>> pending = new ArrayList<>();
+        for (ExtractedSubmission submission : submissions) {
+            pending.add(scheduler.cpu(() -> force
+                    ? compiler.compile(submission.getRoot())
+                    : compiler.compile(submission.getRoot(), cache)));
+        }
+
+        int failed = 0;
+        long compileMillis = 0;
+        try (Progress progress = console.startTask("Compile", submissions.size())) {
+            for (int i = 0; i < submissions.size(); ++i) {
+                cancellation.throwIfCancelled();
+                final ExtractedSubmission submission = submissions.get(i);
+                try {
+                    final CompileResult result = pending.get(i).get();
+                    compileMillis += result.isCached() ? 0 : result.getMillis();
+                    if (!result.isSuccess()) {
+                        ++failed;
+                    }
+                    print(console, submission, result);
+                } catch (ExecutionException e) {
+                    ++failed;
+                    console.error(submission + ": " + e.getCause().getMessage());
+                }
+                progress.advance();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        console.output("%s of %s submissions compiled, %s failed in %s ms (%s ms in the compiler).",
+                submissions.size() - failed, submissions.size(), failed, (System.nanoTime() - start) / 1_000_000,
+                compileMillis);
+    }
+
+    private void print(final ConsoleContext console, final ExtractedSubmission submission, final CompileResult result) {
+        console.output("%s: %s", submission, result);
+        final boolean verbose = parsedArguments.has(VERBOSE);
+        result.getDiagnostics()
+                .stream()
+                .filter(diagnostic -> verbose || diagnostic.isError())
+                .limit(verbose ? Long.MAX_VALUE : SHOWN_DIAGNOSTICS)
+                .forEach(diagnostic -> console.output("      " + diagnostic));
+    }
+}
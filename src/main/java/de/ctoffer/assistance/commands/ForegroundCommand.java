@@ -0,0 +1,50 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.JobContext;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.jobs.Job;
+
+@Require({Context.CONSOLE, Context.JOBS})
+public class ForegroundCommand extends Command {
+    private static final String JOB_ID = "jobId";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .positionalInts(JOB_ID)
+            .build();
+
+    @Override
+    public String name() {
+        return "fg";
+    }
+
+    @Override
+    public String help() {
+        return "fg <job id> - waits until the background job is finished.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        JobContext jobs = contexts.getContext(Context.JOBS);
+
+        for (int id : parsedArguments.getInts(JOB_ID)) {
+            try {
+                Job job = jobs.await(id);
+                console.output(job.toString());
+                if (job.getFailure() != null) {
+                    console.error(job.getFailure());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
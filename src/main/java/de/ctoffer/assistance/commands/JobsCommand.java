@@ -0,0 +1,39 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.JobContext;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.jobs.Job;
+
+import java.util.List;
+
+@Require({Context.CONSOLE, Context.JOBS})
+public class JobsCommand extends Command {
+    @Override
+    public String name() {
+        return "jobs";
+    }
+
+    @Override
+    public String help() {
+        return "Lists all background jobs. Start a job by appending '&' to a command or prefixing it with 'bg'.";
+    }
+
+    @Override
+    public void runCore() {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        JobContext jobs = contexts.getContext(Context.JOBS);
+
+        List<Job> all = jobs.jobs();
+        if (all.isEmpty()) {
+            console.output("No jobs.");
+        }
+        for (Job job : all) {
+            console.output(job.toString());
+            if (job.getFailure() != null) {
+                console.error("    " + job.getFailure());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.JobContext;
+import de.ctoffer.assistance.context.Require;
+
+@Require({Context.CONSOLE, Context.JOBS})
+public class KillCommand extends Command {
+    private static final String JOB_ID = "jobId";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .positionalInts(JOB_ID)
+            .build();
+
+    @Override
+    public String name() {
+        return "kill";
+    }
+
+    @Override
+    public String help() {
+        return "kill <job id> - cancels the background job, it stops and cleans up at its next step.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        JobContext jobs = contexts.getContext(Context.JOBS);
+
+        for (int id : parsedArguments.getInts(JOB_ID)) {
+            if (jobs.kill(id)) {
+                console.output("Killed job %s.", id);
+            } else {
+                console.error("No running job with id " + id + ".");
+            }
+        }
+    }
+}
@@ -1,35 +1,37 @@
 package de.ctoffer.assistance.commands;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.ParsedArguments;
 import de.ctoffer.assistance.context.*;
 import de.ctoffer.login.DriverCore;
 import de.ctoffer.meta.Exercise;
+import de.ctoffer.meta.ExerciseCatalog;
 import de.ctoffer.meta.FolderManager;
-import de.ctoffer.meta.MetaManager;
+import de.ctoffer.meta.Roster;
+import de.ctoffer.meta.RosterCache;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.meta.SubmissionRecord;
 import de.ctoffer.moodle.Moodle;
 import de.ctoffer.moodle.SubmissionRow;
 import de.ctoffer.util.Config;
+import de.ctoffer.util.funtional.ThrowingFunction;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 @Require({Context.CONSOLE, Context.SUB_SPACE, Context.CONFIG})
 public class MoodleCommand extends Command {
-    private static final int DOWNLOAD_SUBMISSIONS_INDEX = 1;
-    private List<String> validArguments = Arrays.asList(
-            "open",
-            "downloadSubmissions=(\\d+)",
-            "close"
-    );
-    private Moodle moodle;
-    private DriverCore driverCore;
+    private static final String OPEN = "open";
+    private static final String DOWNLOAD_SUBMISSIONS = "downloadSubmissions";
+    private static final String CLOSE = "close";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .flag(OPEN)
+            .intOption(DOWNLOAD_SUBMISSIONS)
+            .flag(CLOSE)
+            .build();
 
     @Override
     public String name() {
@@ -37,113 +39,169 @@ public class MoodleCommand extends Command {
     }
 
     @Override
-    protected List<String> getValidNonHelpArguments() {
-        return Collections.unmodifiableList(validArguments);
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
     }
 
     @Override
     public void runCore() {
         SubSpaceContext context = contexts.getContext(Context.SUB_SPACE);
 
-        for (String argument : arguments.getNonHelpFlags()) {
-            String validArg = validArguments.stream()
-                    .filter(argument::matches)
-                    .findFirst()
-                    .orElse("");
-            int index = validArguments.indexOf(validArg);
-            if (index != -1) {
-                selectActionByIndex(context, argument, index);
-            }
+        for (ParsedArguments.Value argument : parsedArguments.inOrder()) {
+            runAction(context, argument);
         }
     }
 
-    private void selectActionByIndex(SubSpaceContext context, String input, int index) {
+    private void runAction(SubSpaceContext context, ParsedArguments.Value argument) {
         Config config = contexts.getContext(Context.CONFIG);
 
-        switch (index) {
-            case 0:
-                driverCore = new DriverCore(config.sub("selenium"));
-                context.openSpace(SubSpace.MOODLE);
-                final JsonObject user = config.getObject("user/Moodle");
-                moodle = driverCore.getMoodleInstance().login(user);
+        switch (argument.getName()) {
+            case OPEN:
+                open(context, config);
                 break;
-            case 1:
-                if(moodle == null) {
-                    throw new IllegalStateException("Moodle must first be opened, before it can be used!");
-                }
+            case DOWNLOAD_SUBMISSIONS:
                 try {
-                    downloadSubmissionsOfSheet(input);
+                    withSession(context, moodle -> downloadSubmissions(moodle, config, argument.getNumber()));
+                } catch (RuntimeException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new IllegalStateException(e);
                 }
                 break;
-            case 2:
+            case CLOSE:
                 context.closeSpace(SubSpace.MOODLE);
-                moodle.close();
-                moodle = null;
-                driverCore.close();
                 break;
         }
 
     }
 
-    private void downloadSubmissionsOfSheet(String input) throws Exception {
-        Config config = contexts.getContext(Context.CONFIG);
-        Matcher regex = Pattern.compile(validArguments.get(DOWNLOAD_SUBMISSIONS_INDEX)).matcher(input);
-
-        if (regex.find()) {
-            int sheetNumber = Integer.parseInt(regex.group(1));
-            downloadSubmissions(config, sheetNumber);
+    // the sub space is opened first, so a session which already has one doesn't start a second browser
+    private static void open(SubSpaceContext context, Config config) {
+        final Browser browser = new Browser();
+        context.openSpace(SubSpace.MOODLE, browser);
+        try {
+            browser.open(config);
+        } catch (RuntimeException e) {
+            try {
+                context.closeSpace(SubSpace.MOODLE);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
         }
     }
 
-    private void downloadSubmissions(final Config config, final int sheetNr) throws Exception {
-        ConsoleContext console = contexts.getContext(Context.CONSOLE);
-        try (MetaManager manager = new MetaManager(Paths.get(config.getString("home"), config.getString("metafile")))) {
-            FolderManager folderManager = new FolderManager(config);
-
-            List<Exercise> exercises = getTestatExercises(config, "" + sheetNr);
-            final Map<Exercise, List<SubmissionRow>> rows = new HashMap<>();
-
-            moodle.selectISW();
-            final Function<String, List<SubmissionRow>> extractRow = name -> moodle.selectExerciseByName(
-                    name,
-                    manager.studentList(),
-                    console
-            );
-            exercises.forEach(exercise -> rows.put(exercise, extractRow.apply(exercise.getName())));
-
-            final Map<Integer, String> groupFolderNames = folderManager
-                    .getExerciseManager()
-                    .createGroupFolders(manager.getGroups(), sheetNr);
+    /**
+     * Runs the given action with the browser a previous <i>moodle open</i> opened in the same session.
+     * Other moodle commands of the session wait until the action finished.
+     *
+     * @throws IllegalStateException if the session has no open browser
+     */
+    static <T> T withSession(SubSpaceContext context,
+                             ThrowingFunction<Moodle, T, ? extends Exception> action) throws Exception {
+        final Browser browser = context.getResource(SubSpace.MOODLE, Browser.class)
+                .orElseThrow(MoodleCommand::notOpened);
+        synchronized (browser) {
+            if(browser.moodle == null) {
+                throw notOpened();
+            }
+            try {
+                return action.apply(browser.moodle);
+            } catch (CancellationException e) {
+                // a cancelled download logs out as well, so no logged-in browser is left behind
+                context.closeSpace(SubSpace.MOODLE);
+                throw e;
+            }
+        }
+    }
 
-            FolderManager.ExerciseManager exerciseManager = folderManager.getExerciseManager();
+    private static IllegalStateException notOpened() {
+        return new IllegalStateException("Moodle must first be opened, before it can be used!");
+    }
 
+    private Void downloadSubmissions(final Moodle moodle, final Config config, final int sheetNr) throws Exception {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        final Path home = Paths.get(config.getString("home"));
+        final Roster roster = new RosterCache(home).load(home.resolve(config.getString("metafile")));
+        FolderManager folderManager = new FolderManager(config);
+
+        List<Exercise> exercises = ExerciseCatalog.of(config).getTestatExercises(sheetNr);
+        final Map<Exercise, List<SubmissionRow>> rows = new HashMap<>();
+
+        moodle.selectISW();
+        final Function<String, List<SubmissionRow>> extractRow = name -> moodle.selectExerciseByName(
+                name,
+                roster.studentList(),
+                console,
+                cancellation
+        );
+        exercises.forEach(exercise -> rows.put(exercise, extractRow.apply(exercise.getName())));
+
+        final Map<Integer, String> groupFolderNames = folderManager
+                .getExerciseManager()
+                .createGroupFolders(roster.getGroups(), sheetNr);
+
+        FolderManager.ExerciseManager exerciseManager = folderManager.getExerciseManager();
+
+        int recorded = 0;
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog()) {
             for (Map.Entry<Exercise, List<SubmissionRow>> entry : rows.entrySet()) {
+                if (cancellation.isCancelled()) {
+                    break;
+                }
                 console.output(entry.getKey().getName());
                 for (SubmissionRow row : entry.getValue()) {
                     console.output("    " + row.getStudent() + ": " + row.getFileURL());
                 }
 
-                List<Path> downloadedPaths = exerciseManager.downloadAll(
+                List<SubmissionRecord> downloaded = exerciseManager.downloadAll(
                         moodle,
+                        catalog,
                         groupFolderNames,
                         entry.getValue(),
                         sheetNr,
-                        entry.getKey()
+                        entry.getKey(),
+                        console,
+                        cancellation
                 );
-                console.output("Update metadata.");
-                exerciseManager.savePathsForDownloadedSubmissions(sheetNr, entry.getKey().getAlias(), downloadedPaths);
+                console.output("Recorded %s submissions.", downloaded.size());
+                recorded += downloaded.size();
             }
         }
+        if (cancellation.isCancelled()) {
+            console.output("Recorded %s submissions before the download was cancelled.", recorded);
+            cancellation.throwIfCancelled();
+        }
+        return null;
     }
 
-    private static List<Exercise> getTestatExercises(Config config, String sheet) {
-        Iterator<JsonElement> iterator = config.getList("excel/exercise/" + sheet + "/Testat").iterator();
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
-                .map(JsonElement::getAsJsonObject)
-                .map(Exercise::fromJson)
-                .collect(Collectors.toList());
-    }
+    /**
+     * Browser of one session, kept as resource of its {@code [MOODLE]} sub space. Open, download and close
+     * are separate commands, so it outlives a single command; other sessions open browsers of their own.
+     */
+    private static final class Browser implements AutoCloseable {
+        private DriverCore driverCore;
+        private Moodle moodle;
+
+        private synchronized void open(Config config) {
+            driverCore = new DriverCore(config.sub("selenium"));
+            final Config user = config.sub("user/Moodle");
+            moodle = driverCore.getMoodleInstance().login(user);
+        }
 
+        @Override
+        public synchronized void close() {
+            try {
+                if(moodle != null) {
+                    moodle.close();
+                }
+            } finally {
+                moodle = null;
+                if(driverCore != null) {
+                    driverCore.close();
+                    driverCore = null;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,208 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.assistance.context.SchedulerContext.Workload;
+import de.ctoffer.assistance.context.SubSpaceContext;
+import de.ctoffer.assistance.pipeline.Pipeline;
+import de.ctoffer.assistance.pipeline.StageStats;
+import de.ctoffer.meta.Exercise;
+import de.ctoffer.meta.ExerciseCatalog;
+import de.ctoffer.meta.FolderManager;
+import de.ctoffer.meta.Roster;
+import de.ctoffer.meta.RosterCache;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.meta.SubmissionRecord;
+import de.ctoffer.moodle.Downloader;
+import de.ctoffer.moodle.Moodle;
+import de.ctoffer.moodle.SubmissionRow;
+import de.ctoffer.util.CancellationToken;
+import de.ctoffer.util.Config;
+import de.ctoffer.util.ZipUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Downloads, extracts and inventories the submissions of a sheet in one go. Each submission moves on to
+ * the next stage as soon as it's ready, so the first groups can be corrected while the others still download.
+ */
+@Require({Context.CONSOLE, Context.CONFIG, Context.SCHEDULER, Context.SUB_SPACE})
+public class PipelineCommand extends Command {
+    private static final String SUBMISSIONS = "submissions";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SUBMISSIONS)
+            .build();
+    private static final int DOWNLOAD_WORKERS = 4;
+    private static final int EXTRACT_WORKERS = 2;
+    private static final int ANALYSE_WORKERS = 1;
+
+    @Override
+    public String name() {
+        return "pipeline";
+    }
+
+    @Override
+    public String help() {
+        return "pipeline submissions=<sheet number> - downloads, extracts and inventories the submissions of " +
+                "the sheet, reporting each one as soon as it's ready. Requires moodle open.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        if (!parsedArguments.has(SUBMISSIONS)) {
+            return;
+        }
+        SubSpaceContext context = contexts.getContext(Context.SUB_SPACE);
+        try {
+            MoodleCommand.withSession(context, moodle -> run(moodle, parsedArguments.getInt(SUBMISSIONS)));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Void run(final Moodle moodle, final int sheetNr) throws IOException {
+        Config config = contexts.getContext(Context.CONFIG);
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        SchedulerContext scheduler = contexts.getContext(Context.SCHEDULER);
+
+        final Path home = Paths.get(config.getString("home"));
+        final Roster roster = new RosterCache(home).load(home.resolve(config.getString("metafile")));
+        final List<Exercise> exercises = ExerciseCatalog.of(config).getTestatExercises(sheetNr);
+        final FolderManager.ExerciseManager exerciseManager = new FolderManager(config).getExerciseManager();
+        final Map<Integer, String> groupFolderNames = exerciseManager.createGroupFolders(roster.getGroups(), sheetNr);
+
+        // produce navigates the browser while the download stage runs, so the downloads must not touch it
+        final Downloader downloader = moodle.downloader();
+        final AtomicInteger failed = new AtomicInteger();
+        final List<StageStats> stats;
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog();
+             Progress progress = console.startTask("Pipeline", 0)) {
+            stats = Pipeline.<Submission>create(scheduler, cancellation)
+                    .stage("download", Workload.IO, DOWNLOAD_WORKERS, submission -> submission.download(
+                            exerciseManager, downloader, catalog, groupFolderNames, sheetNr))
+                    .stage("extract", Workload.IO, EXTRACT_WORKERS, submission -> submission.extract(
+                            catalog, console, cancellation))
+                    .stage("analyse", Workload.CPU, ANALYSE_WORKERS, Submission::analyse)
+                    .run(emit -> produce(moodle, roster, exercises, console, emit),
+                            submission -> {
+                                console.output("ready: " + submission);
+                                progress.advance(1, submission.record.getSize());
+                            },
+                            (stage, error) -> {
+                                failed.incrementAndGet();
+                                console.error(stage + " failed: " + error.getMessage());
+                            });
+        }
+
+        stats.forEach(stage -> console.output(stage.toString()));
+        console.output("%s submissions ready, %s failed.", stats.get(stats.size() - 1).getProcessed(), failed.get());
+        return null;
+    }
+
+    // the rows of one exercise are scraped at once, the browser can only show one table at a time
+    private void produce(final Moodle moodle,
+                         final Roster roster,
+                         final List<Exercise> exercises,
+                         final ConsoleContext console,
+                         final Consumer<Object> emit) {
+        moodle.selectISW();
+        for (Exercise exercise : exercises) {
+            cancellation.throwIfCancelled();
+            moodle.selectExerciseByName(exercise.getName(), roster.studentList(), console, cancellation)
+                    .stream()
+                    .filter(row -> row.getFileURL() != null)
+                    .sorted(Comparator.comparing(row -> row.getStudent().getGroupId()))
+                    .forEach(row -> emit.accept(new Submission(exercise, row)));
+        }
+    }
+
+    /**
+     * A submission on its way through the pipeline, each stage fills in its part.
+     */
+    private static class Submission {
+        private final Exercise exercise;
+        private final SubmissionRow row;
+        private SubmissionRecord record;
+        private long files;
+        private long sources;
+        private long bytes;
+
+        private Submission(final Exercise exercise, final SubmissionRow row) {
+            this.exercise = exercise;
+            this.row = row;
+        }
+
+        private Submission download(final FolderManager.ExerciseManager exerciseManager,
+                                    final Downloader downloader,
+                                    final SubmissionCatalog catalog,
+                                    final Map<Integer, String> groupFolderNames,
+                                    final int sheetNr) throws IOException {
+            final Optional<SubmissionRecord> downloaded = exerciseManager.download(downloader, catalog, groupFolderNames,
+                    row, sheetNr, exercise);
+            if (downloaded.isEmpty()) {
+                return null;
+            }
+            record = downloaded.get();
+            return this;
+        }
+
+        private Submission extract(final SubmissionCatalog catalog,
+                                   final ConsoleContext console,
+                                   final CancellationToken cancellation) throws IOException {
+            final Path archive = record.getLocalPath();
+            if (!ZipUtils.isZip(archive)) {
+                return this;
+            }
+            final Optional<Path> extracted = ZipUtils.unzip(archive, console, cancellation);
+            record = extracted.map(record::extracted).orElseGet(record::failed);
+            catalog.put(record);
+            if (extracted.isEmpty()) {
+                throw new IOException("Could not extract " + archive.getFileName());
+            }
+            return this;
+        }
+
+        private Submission analyse() throws IOException {
+            final Path root = record.getState() == SubmissionRecord.State.EXTRACTED
+                    ? record.getExtractedPath()
+                    : record.getLocalPath();
+            try (Stream<Path> paths = Files.walk(root)) {
+                final List<Path> regular = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+                files = regular.size();
+                sources = regular.stream().filter(path -> path.toString().endsWith(".java")).count();
+                for (Path path : regular) {
+                    bytes += Files.size(path);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %02d %s: %d files, %d java sources, %d bytes", exercise.getAlias(),
+                    record.getGroupId(), record.getStudentName(), files, sources, bytes);
+        }
+    }
+}
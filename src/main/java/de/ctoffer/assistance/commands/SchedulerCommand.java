@@ -0,0 +1,26 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.context.SchedulerContext;
+
+@Require({Context.CONSOLE, Context.SCHEDULER})
+public class SchedulerCommand extends Command {
+    @Override
+    public String name() {
+        return "scheduler";
+    }
+
+    @Override
+    public String help() {
+        return "Shows threads, queue depth and utilisation of the shared I/O and CPU pools since the last call.";
+    }
+
+    @Override
+    public void runCore() {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        SchedulerContext scheduler = contexts.getContext(Context.SCHEDULER);
+        scheduler.stats().forEach(stats -> console.output(stats.toString()));
+    }
+}
@@ -0,0 +1,142 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.meta.ExerciseCatalog;
+import de.ctoffer.meta.ExtractedSubmission;
+import de.ctoffer.meta.FolderManager;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.similarity.Fingerprint;
+import de.ctoffer.similarity.FingerprintStore;
+import de.ctoffer.similarity.SimilarityDetector;
+import de.ctoffer.util.Config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Lists the pairs of groups whose submissions of the same exercise share much of their code.
+ */
+@Require({Context.CONSOLE, Context.CONFIG, Context.SCHEDULER})
+public class SimilarityCommand extends Command {
+    private static final String SHEET = "sheet";
+    private static final String TOP = "top";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SHEET)
+            .intOption(TOP)
+            .build();
+    private static final String FINGERPRINT_FOLDER = "fingerprints";
+    private static final double THRESHOLD = 0.3;
+    private static final int DEFAULT_TOP = 20;
+    private static final int SHOWN_REGIONS = 3;
+
+    private int fingerprinted = 0;
+
+    @Override
+    public String name() {
+        return "similarity";
+    }
+
+    @Override
+    public String help() {
+        return "similarity sheet=<sheet number> [top=<count>] - ranks the pairs of groups with similar submissions " +
+                "of the same exercise and shows the matching regions. Requires the submissions to be unzipped.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        if (!parsedArguments.has(SHEET)) {
+            return;
+        }
+        Config config = contexts.getContext(Context.CONFIG);
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        FolderManager.ExerciseManager exerciseManager = new FolderManager(config).getExerciseManager();
+        int sheetNr = parsedArguments.getInt(SHEET);
+        int top = parsedArguments.has(TOP) ? parsedArguments.getInt(TOP) : DEFAULT_TOP;
+
+        final List<ExtractedSubmission> sources;
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog()) {
+            sources = exerciseManager.findExtractedSubmissions(catalog, sheetNr,
+                    ExerciseCatalog.of(config).getTestatExercises(sheetNr));
+        } catch (IOException ioe) {
+            console.error(ioe.getMessage());
+            return;
+        }
+        if (sources.isEmpty()) {
+            console.error("No unzipped submissions found for sheet " + sheetNr + "!");
+            return;
+        }
+
+        final Path folder = Paths.get(config.getString("home"), FolderManager.CACHE_FOLDER, FINGERPRINT_FOLDER);
+        final FingerprintStore store = FingerprintStore.open(folder, sheetNr);
+        final long start = System.nanoTime();
+        final List<Fingerprint> prints = fingerprint(sources, store);
+        store.save(prints);
+
+        final List<SimilarityDetector.Match> matches = new SimilarityDetector(THRESHOLD).detect(prints);
+        console.output("%s submissions, %s fingerprinted, %s similar pairs in %s ms.", prints.size(),
+                fingerprinted, matches.size(), (System.nanoTime() - start) / 1_000_000);
+        matches.stream().limit(top).forEach(match -> print(console, match));
+    }
+
+    private List<Fingerprint> fingerprint(final List<ExtractedSubmission> sources, final FingerprintStore store) {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        SchedulerContext scheduler = contexts.getContext(Context.SCHEDULER);
+
+        final List<Fingerprint> prints = new ArrayList<>();
+        final List<Future<Fingerprint>> pending = new ArrayList<>();
+        for (ExtractedSubmission source : sources) {
+            final Optional<Fingerprint> stored = store.get(source.getKey(), source.getSourceHash());
+            if (stored.isPresent()) {
+                prints.add(stored.get());
+            } else {
+                pending.add(scheduler.cpu(() -> Fingerprint.of(source.getKey(), source.getExerciseAlias(),
+                        source.getGroupId(), source.getLabel(), source.getSourceHash(), source.getRoot())));
+            }
+        }
+
+        try (Progress progress = console.startTask("Fingerprint", pending.size())) {
+            for (Future<Fingerprint> future : pending) {
+                cancellation.throwIfCancelled();
+                try {
+                    prints.add(future.get());
+                    ++fingerprinted;
+                } catch (ExecutionException e) {
+                    console.error("Couldn't fingerprint: " + e.getCause().getMessage());
+                }
+                progress.advance();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        return prints;
+    }
+
+    private static void print(final ConsoleContext console, final SimilarityDetector.Match match) {
+        console.output("%3.0f%% (jaccard %3.0f%%)  %s: %s <-> %s", 100 * match.getContainment(),
+                100 * match.getJaccard(), match.getFirst().getExercise(), match.getFirst().getLabel(),
+                match.getSecond().getLabel());
+        match.getRegions()
+                .stream()
+                .limit(SHOWN_REGIONS)
+                .forEach(region -> console.output("      " + region));
+    }
+}
@@ -0,0 +1,286 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.compile.CachedCompilation;
+import de.ctoffer.compile.CompileResult;
+import de.ctoffer.compile.SubmissionCompiler;
+import de.ctoffer.meta.ExerciseCatalog;
+import de.ctoffer.meta.ExtractedSubmission;
+import de.ctoffer.meta.FolderManager;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.testing.TestReport;
+import de.ctoffer.testing.TestWorkerPool;
+import de.ctoffer.util.Config;
+import de.ctoffer.util.ResultCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles the unzipped submissions of a sheet and runs the reference tests of their exercises against them,
+ * in a pool of worker JVMs.
+ */
+@Require({Context.CONSOLE, Context.CONFIG, Context.SCHEDULER})
+public class TestCommand extends Command {
+    private static final String SHEET = "sheet";
+    private static final String FORCE = "-f";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SHEET)
+            .flag(FORCE)
+            .build();
+    private static final String CLASS_PATH = "test/classpath";
+    private static final String EXERCISES = "test/exercises";
+    private static final String TIME_LIMIT = "test/timeLimitSeconds";
+    private static final String MEMORY = "test/memoryMb";
+    private static final String RUNS_PER_WORKER = "test/runsPerWorker";
+    private static final long DEFAULT_TIME_LIMIT_SECONDS = 10;
+    private static final long DEFAULT_MEMORY_MB = 256;
+    private static final int DEFAULT_RUNS_PER_WORKER = 50;
+    private static final int SHOWN_FAILURES = 5;
+
+    @Override
+    public String name() {
+        return "test";
+    }
+
+    @Override
+    public String help() {
+        return "test sheet=<sheet number> [-f] - compiles the unzipped submissions of the sheet, runs the reference " +
+                "tests of their exercises against them and lists the result of each group. Submissions tested " +
+                "before with the same tests are taken from the cache, -f runs them again.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        if (!parsedArguments.has(SHEET)) {
+            return;
+        }
+        Config config = contexts.getContext(Context.CONFIG);
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        FolderManager.ExerciseManager exerciseManager = new FolderManager(config).getExerciseManager();
+        int sheetNr = parsedArguments.getInt(SHEET);
+
+        final Map<String, List<String>> testsByExercise = testsByExercise(config, sheetNr);
+        if (testsByExercise.isEmpty()) {
+            console.error("No reference tests configured for sheet " + sheetNr + " in '" + EXERCISES + "'!");
+            return;
+        }
+        final String classPath = config.has(CLASS_PATH) ? config.getString(CLASS_PATH) : "";
+        final List<String> testClassPath = Arrays.stream(classPath.split(File.pathSeparator))
+                .filter(entry -> !entry.isBlank())
+                .collect(Collectors.toList());
+        final long timeLimit = 1000 * (config.has(TIME_LIMIT)
+                ? Long.parseLong(config.getString(TIME_LIMIT)) : DEFAULT_TIME_LIMIT_SECONDS);
+        final long memoryMb = config.has(MEMORY) ? Long.parseLong(config.getString(MEMORY)) : DEFAULT_MEMORY_MB;
+        final int runsPerWorker = config.has(RUNS_PER_WORKER)
+                ? Integer.parseInt(config.getString(RUNS_PER_WORKER)) : DEFAULT_RUNS_PER_WORKER;
+
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog()) {
+            final List<ExtractedSubmission> submissions = exerciseManager.findExtractedSubmissions(catalog, sheetNr,
+                    ExerciseCatalog.of(config).getTestatExercises(sheetNr))
+                    .stream()
+                    .filter(submission -> testsByExercise.containsKey(submission.getExerciseAlias()))
+                    .collect(Collectors.toList());
+            if (submissions.isEmpty()) {
+                console.error("No unzipped submissions with reference tests found for sheet " + sheetNr + "!");
+                return;
+            }
+
+            final int workers = Runtime.getRuntime().availableProcessors();
+            final Path cacheFolder = exerciseManager.getResultCacheFolder(sheetNr);
+            try (SubmissionCompiler compiler = new SubmissionCompiler(workers, classPath);
+                 TestWorkerPool pool = new TestWorkerPool(workers, runsPerWorker, memoryMb, timeLimit)) {
+                final Map<String, ResultCache<TestReport>> caches = new HashMap<>();
+                for (Map.Entry<String, List<String>> tests : testsByExercise.entrySet()) {
+                    caches.put(tests.getKey(), pool.openCache(cacheFolder, tests.getValue(), testClassPath));
+                }
+                final Session session = new Session(compiler, compiler.openCache(cacheFolder), pool, caches,
+                        testsByExercise, testClassPath);
+                testAll(session, catalog, submissions);
+                if (!parsedArguments.has(FORCE)) {
+                    final long hits = caches.values().stream().mapToLong(ResultCache::getHits).sum();
+                    final long misses = caches.values().stream().mapToLong(ResultCache::getMisses).sum();
+                    console.output("%s cache hits, %s misses, %s.", hits, misses, pool);
+                } else {
+                    console.output("%s.", pool);
+                }
+            }
+        } catch (IOException ioe) {
+            console.error(ioe.getMessage());
+        }
+    }
+
+    // test classes of each exercise alias of the sheet, exercises without tests are left out
+    private static Map<String, List<String>> testsByExercise(final Config config, final int sheetNr) {
+        final Map<String, List<String>> tests = new LinkedHashMap<>();
+        final String path = EXERCISES + "/" + sheetNr;
+        if (!config.has(path)) {
+            return tests;
+        }
+        final Config exercises = config.sub(path);
+        for (String exercise : exercises.keys()) {
+            final List<String> classes = exercises.getList(exercise);
+            if (!classes.isEmpty()) {
+                tests.put(exercise, classes);
+            }
+        }
+        return tests;
+    }
+
+    private void testAll(final Session session,
+                         final SubmissionCatalog catalog,
+                         final List<ExtractedSubmission> submissions) {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        SchedulerContext scheduler = contexts.getContext(Context.SCHEDULER);
+
+        final long start = System.nanoTime();
+        final List<Future<Result>> pending = new ArrayList<>();
+        for (ExtractedSubmission submission : submissions) {
+            // mostly waits for the workers, the compiler limits its own parallelism
+            pending.add(scheduler.io(() -> test(session, submission)));
+        }
+
+        int passed = 0;
+        int notCompiled = 0;
+        try (Progress progress = console.startTask("Test", submissions.size())) {
+            for (int i = 0; i < submissions.size(); ++i) {
+                cancellation.throwIfCancelled();
+                final ExtractedSubmission submission = submissions.get(i);
+                try {
+                    final Result result = pending.get(i).get();
+                    final Optional<TestReport> report = result.getReport();
+                    if (report.isEmpty()) {
+                        ++notCompiled;
+                    } else if (report.get().getStatus() == TestReport.Status.COMPLETED
+                            && report.get().getPassed() == report.get().getRun()) {
+                        ++passed;
+                    }
+                    print(console, submission, result);
+                    final int run = report.map(TestReport::getRun).orElse(0);
+                    final int passedTests = report.map(TestReport::getPassed).orElse(0);
+                    catalog.get(submission.getKey())
+                            .ifPresent(record -> catalog.put(record.tested(run, passedTests)));
+                } catch (ExecutionException e) {
+                    console.error(submission + ": " + e.getCause().getMessage());
+                }
+                progress.advance();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        console.output("%s of %s submissions passed all tests, %s didn't compile, in %s ms.",
+                passed, submissions.size(), notCompiled, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Result test(final Session session, final ExtractedSubmission submission)
+            throws IOException, InterruptedException {
+        final boolean force = parsedArguments.has(FORCE);
+        final Path root = submission.getRoot();
+        final CompileResult compiled = force
+                ? session.compiler.compile(root)
+                : session.compiler.compile(root, session.compileCache);
+        if (!compiled.isSuccess()) {
+            return new Result(compiled, null);
+        }
+
+        final ResultCache<TestReport> cache = session.testCaches.get(submission.getExerciseAlias());
+        final String key = cache.key(root);
+        if (!force) {
+            final Optional<TestReport> cached = cache.get(key);
+            if (cached.isPresent()) {
+                return new Result(compiled, cached.get());
+            }
+        }
+        final List<String> classPath = new ArrayList<>();
+        classPath.add(SubmissionCompiler.classesFolder(root).toString());
+        classPath.addAll(session.testClassPath);
+        final TestReport report = session.pool.run(classPath, session.tests.get(submission.getExerciseAlias()));
+        // only a completed run is repeatable, a timeout or crash may depend on the load of the machine
+        if (report.getStatus() == TestReport.Status.COMPLETED) {
+            cache.put(key, report);
+        }
+        return new Result(compiled, report);
+    }
+
+    private void print(final ConsoleContext console, final ExtractedSubmission submission, final Result result) {
+        final Optional<TestReport> report = result.getReport();
+        if (report.isEmpty()) {
+            console.output("%s: not tested, %s", submission, result.compiled);
+            return;
+        }
+        console.output("%s: %s", submission, report.get());
+        report.get().getOutcomes()
+                .stream()
+                .filter(outcome -> !outcome.isPassed())
+                .limit(SHOWN_FAILURES)
+                .forEach(outcome -> console.output("      " + outcome));
+        if (report.get().getStatus() != TestReport.Status.COMPLETED && !report.get().getOutput().isEmpty()) {
+            console.output("      " + report.get().getOutput());
+        }
+    }
+
+    /**
+     * Everything the tasks of one run share.
+     */
+    private static class Session {
+        private final SubmissionCompiler compiler;
+        private final ResultCache<CachedCompilation> compileCache;
+        private final TestWorkerPool pool;
+        private final Map<String, ResultCache<TestReport>> testCaches;
+        private final Map<String, List<String>> tests;
+        private final List<String> testClassPath;
+
+        private Session(final SubmissionCompiler compiler,
+                        final ResultCache<CachedCompilation> compileCache,
+                        final TestWorkerPool pool,
+                        final Map<String, ResultCache<TestReport>> testCaches,
+                        final Map<String, List<String>> tests,
+                        final List<String> testClassPath) {
+            this.compiler = compiler;
+            this.compileCache = compileCache;
+            this.pool = pool;
+            this.testCaches = testCaches;
+            this.tests = tests;
+            this.testClassPath = testClassPath;
+        }
+    }
+
+    private static class Result {
+        private final CompileResult compiled;
+        // null if the submission didn't compile
+        private final TestReport report;
+
+        private Result(final CompileResult compiled, final TestReport report) {
+            this.compiled = compiled;
+            this.report = report;
+        }
+
+        private Optional<TestReport> getReport() {
+            return Optional.ofNullable(report);
+        }
+    }
+}
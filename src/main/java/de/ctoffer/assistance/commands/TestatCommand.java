@@ -0,0 +1,137 @@
+package de.ctoffer.assistance.commands;
+
+import de.ctoffer.assistance.ArgumentSpec;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.meta.FolderManager;
+import de.ctoffer.meta.GradingResult;
+import de.ctoffer.meta.Roster;
+import de.ctoffer.meta.RosterCache;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.meta.TestatScheduler;
+import de.ctoffer.meta.TestatWorkbookWriter;
+import de.ctoffer.meta.TimeWindow;
+import de.ctoffer.meta.TutorAvailability;
+import de.ctoffer.util.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Require({Context.CONSOLE, Context.CONFIG})
+public class TestatCommand extends Command {
+    private static final Logger logger = LogManager.getLogger(TestatCommand.class);
+    private static final String SCHEDULE = "schedule";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SCHEDULE)
+            .build();
+
+    @Override
+    public String name() {
+        return "testat";
+    }
+
+    @Override
+    public String help() {
+        return "testat schedule=<sheet number> - assigns all groups to the Testat slots of the tutors " +
+                "configured in excel/testat and writes them into the Testat sheet, together with the results of " +
+                "the reference tests into the sheet '" + TestatWorkbookWriter.RESULT_SHEET + "'.";
+    }
+
+    @Override
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
+    }
+
+    @Override
+    public void runCore() {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        if (parsedArguments.has(SCHEDULE)) {
+            try {
+                schedule(Integer.toString(parsedArguments.getInt(SCHEDULE)));
+            } catch (IOException ioe) {
+                console.error(ioe.getMessage());
+            }
+        }
+    }
+
+    private void schedule(final String sheet) throws IOException {
+        Config config = contexts.getContext(Context.CONFIG);
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        final Path home = Paths.get(config.getString("home"));
+        final Path workbook = home.resolve(config.getString("metafile"));
+        final Roster roster = new RosterCache(home).load(workbook);
+
+        final Config testat = config.sub("excel/testat");
+        final Duration slotLength = Duration.ofMinutes(Long.parseLong(testat.getString("slotMinutes")));
+        final long start = System.nanoTime();
+        final TestatScheduler.Result result = new TestatScheduler(slotLength).schedule(
+                roster.getGroups(),
+                readTutors(testat),
+                readGroupAvailability(testat, console)
+        );
+        console.output("Scheduled %s groups in %s ms.",
+                result.getSlots().size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        logger.debug("Hashes of the time windows: {}", TimeWindow.hashStats());
+
+        for (int groupId : result.getUnassignedGroups()) {
+            console.error(String.format("No slot left for group %02d!", groupId));
+        }
+
+        final List<GradingResult> grading;
+        try (SubmissionCatalog catalog = new FolderManager(config).getExerciseManager().openCatalog()) {
+            grading = GradingResult.fromTestRuns(catalog.all());
+        }
+        try (TestatWorkbookWriter writer = new TestatWorkbookWriter(workbook, config)) {
+            writer.writeSchedule(sheet, result.getSlots());
+            writer.writeResults(grading);
+            writer.commit();
+        }
+        console.output("Saved schedule to sheet '%s' and %s grading results to sheet '%s'.",
+                String.format(config.getString("excel/sheetFormat"), sheet),
+                grading.size(),
+                TestatWorkbookWriter.RESULT_SHEET);
+    }
+
+    private static List<TutorAvailability> readTutors(final Config testat) {
+        final List<TutorAvailability> tutors = new ArrayList<>();
+        for (Config tutor : testat.getConfigs("tutors")) {
+            tutors.add(TutorAvailability.fromConfig(tutor));
+        }
+        return tutors;
+    }
+
+    private static Map<Integer, List<TimeWindow>> readGroupAvailability(final Config testat,
+                                                                       final ConsoleContext console) {
+        final Map<Integer, List<TimeWindow>> availability = new HashMap<>();
+        // equal windows of several groups become one instance, so their hash is computed once
+        final Map<TimeWindow, TimeWindow> known = new HashMap<>();
+        if (testat.has("groups")) {
+            final Config groups = testat.sub("groups");
+            for (String group : groups.keys()) {
+                final int groupId;
+                try {
+                    groupId = Integer.parseInt(group.strip());
+                } catch (NumberFormatException e) {
+                    console.error("Ignoring availability of '" + group + "', the key has to be a group id!");
+                    continue;
+                }
+                final List<TimeWindow> windows = new ArrayList<>();
+                for (Config window : groups.getConfigs(group)) {
+                    windows.add(known.computeIfAbsent(TimeWindow.fromConfig(window), w -> w));
+                }
+                availability.put(groupId, windows);
+            }
+        }
+        return availability;
+    }
+}
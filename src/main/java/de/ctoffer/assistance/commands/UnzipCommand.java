@@ -1,29 +1,35 @@
 package de.ctoffer.assistance.commands;
 
-import com.google.gson.JsonElement;
+import de.ctoffer.assistance.ArgumentSpec;
 import de.ctoffer.assistance.context.ConsoleContext;
 import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Progress;
 import de.ctoffer.assistance.context.Require;
 import de.ctoffer.meta.Exercise;
+import de.ctoffer.meta.ExerciseCatalog;
 import de.ctoffer.meta.FolderManager;
-import de.ctoffer.meta.MetaManager;
+import de.ctoffer.meta.SubmissionCatalog;
+import de.ctoffer.meta.SubmissionRecord;
 import de.ctoffer.util.Config;
 import de.ctoffer.util.ZipUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 @Require({Context.CONSOLE, Context.CONFIG})
 public class UnzipCommand extends Command{
-    private static final int UNZIP_SUBMISSIONS_INDEX = 0;
-    private List<String> validArguments = Arrays.asList("submissions=(\\d+)", "-d");
+    private static final String SUBMISSIONS = "submissions";
+    private static final String DELETE = "-d";
+    private static final ArgumentSpec SPEC = ArgumentSpec.builder()
+            .intOption(SUBMISSIONS)
+            .flag(DELETE)
+            .build();
+
+    private int unzipped = 0;
 
     @Override
     public String name() {
@@ -31,77 +37,110 @@ public class UnzipCommand extends Command{
     }
 
     @Override
-    public List<String> getValidNonHelpArguments() {
-        return Collections.unmodifiableList(validArguments);
+    protected ArgumentSpec argumentSpec() {
+        return SPEC;
     }
 
     @Override
     public void runCore() {
+        Config config = contexts.getContext(Context.CONFIG);
+        FolderManager folderManager = new FolderManager(config);
+        if (parsedArguments.has(SUBMISSIONS)) {
+            unzipSubmissions(folderManager.getExerciseManager(), parsedArguments.getInt(SUBMISSIONS));
+        }
+    }
+
+    private void unzipSubmissions(FolderManager.ExerciseManager exerciseManager, int sheetNumber) {
         Config config = contexts.getContext(Context.CONFIG);
         ConsoleContext console = contexts.getContext(Context.CONSOLE);
 
-        try (MetaManager manager = new MetaManager(Paths.get(config.getString("home"), config.getString("metafile")))) {
-            FolderManager folderManager = new FolderManager(config);
-            Optional<String> unzipSubmissions = arguments.hasFlagMatching(validArguments.get(UNZIP_SUBMISSIONS_INDEX));
-            unzipSubmissions.ifPresent(input -> unzipSubmissions(folderManager.getExerciseManager(), input));
+        try (SubmissionCatalog catalog = exerciseManager.openCatalog()) {
+            for(Exercise exercise : ExerciseCatalog.of(config).getTestatExercises(sheetNumber)) {
+                cancellation.throwIfCancelled();
+                List<SubmissionRecord> records = catalog.bySheetAndExercise(sheetNumber, exercise.getAlias());
+                if(records.isEmpty()) {
+                    unzipLegacySubmissions(exerciseManager, sheetNumber, exercise);
+                } else {
+                    unzipRecords(catalog, records);
+                }
+            }
         } catch (IOException ioe) {
             console.error(ioe.getMessage());
+        } catch (CancellationException e) {
+            console.output("Unzipped %s archives before the command was cancelled.", unzipped);
+            throw e;
         }
     }
 
-    private void unzipSubmissions(FolderManager.ExerciseManager exerciseManager, String input) {
-        Config config = contexts.getContext(Context.CONFIG);
+    private void unzipRecords(final SubmissionCatalog catalog, final List<SubmissionRecord> records) {
         ConsoleContext console = contexts.getContext(Context.CONSOLE);
-        Matcher regex = Pattern.compile(validArguments.get(UNZIP_SUBMISSIONS_INDEX)).matcher(input);
-        boolean deleteAfter = arguments.isFlagPresent("-d");
-
-        if (regex.find()) {
-            int sheetNumber = Integer.parseInt(regex.group(1));
-            for(Exercise exercise : getTestatExercises(config, "" + sheetNumber)) {
-                final Optional<List<Path>> savedPaths = exerciseManager.loadPathsForDownloadedSubmissions(
-                        sheetNumber,
-                        exercise.getAlias()
-                );
-                if(savedPaths.isPresent()) {
-                    unzipAll(savedPaths.get());
-                } else {
-                    console.error("No paths saved for sheet " + sheetNumber + " and exercise " + exercise.getAlias() + "!");
-                    console.error("Call moodle downloadSubmissions=<sheet number> first!");
+        boolean deleteAfter = parsedArguments.has(DELETE);
+        try (Progress progress = console.startTask("Unzip", records.size())) {
+            for (SubmissionRecord record : records) {
+                Path path = record.getLocalPath();
+                if (record.getState() != SubmissionRecord.State.DOWNLOADED || !ZipUtils.isZip(path)) {
+                    progress.advance();
+                    continue;
                 }
-                if(deleteAfter) {
-                    try {
-                        exerciseManager.deleteSavedPathsMetadata(sheetNumber, exercise.getAlias());
-                    } catch (IOException e) {
-                        console.error(e.getMessage());
-                    }
+
+                Optional<Path> resultPath = ZipUtils.unzip(path, console, cancellation);
+                catalog.put(resultPath.map(record::extracted).orElseGet(record::failed));
+                resultPath.ifPresent(extracted -> ++unzipped);
+                if(resultPath.isPresent() && deleteAfter) {
+                    deleteArchive(path);
                 }
+                progress.advance(1, record.getSize());
             }
         }
     }
 
-    private static List<Exercise> getTestatExercises(Config config, String sheet) {
-        Iterator<JsonElement> iterator = config.getList("excel/exercise/" + sheet + "/Testat").iterator();
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
-                .map(JsonElement::getAsJsonObject)
-                .map(Exercise::fromJson)
-                .collect(Collectors.toList());
+    private void unzipLegacySubmissions(final FolderManager.ExerciseManager exerciseManager,
+                                        final int sheetNumber,
+                                        final Exercise exercise) {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        final Optional<List<Path>> savedPaths = exerciseManager.loadPathsForDownloadedSubmissions(
+                sheetNumber,
+                exercise.getAlias()
+        );
+        if(savedPaths.isPresent()) {
+            unzipAll(savedPaths.get());
+        } else {
+            console.error("No submissions recorded for sheet " + sheetNumber + " and exercise " + exercise.getAlias() + "!");
+            console.error("Call moodle downloadSubmissions=<sheet number> first!");
+        }
+        if(savedPaths.isPresent() && parsedArguments.has(DELETE)) {
+            try {
+                exerciseManager.deleteSavedPathsMetadata(sheetNumber, exercise.getAlias());
+            } catch (IOException e) {
+                console.error(e.getMessage());
+            }
+        }
     }
 
     private void unzipAll(final List<Path> paths) {
         ConsoleContext console = contexts.getContext(Context.CONSOLE);
-        boolean deleteAfter = arguments.isFlagPresent("-d");
-        for (Path path : paths) {
-            if (ZipUtils.isZip(path)) {
-                Optional<Path> resultPath = ZipUtils.unzip(path, console);
-                if(resultPath.isPresent() && deleteAfter) {
-                    console.output("Deleting: " + path.getFileName());
-                    try {
-                        Files.delete(path);
-                    } catch (IOException e) {
-                        console.error("Failure deleting: " + e.getMessage());
+        boolean deleteAfter = parsedArguments.has(DELETE);
+        try (Progress progress = console.startTask("Unzip", paths.size())) {
+            for (Path path : paths) {
+                if (ZipUtils.isZip(path)) {
+                    Optional<Path> resultPath = ZipUtils.unzip(path, console, cancellation);
+                    resultPath.ifPresent(extracted -> ++unzipped);
+                    if(resultPath.isPresent() && deleteAfter) {
+                        deleteArchive(path);
                     }
                 }
+                progress.advance();
             }
         }
     }
+
+    private void deleteArchive(final Path path) {
+        ConsoleContext console = contexts.getContext(Context.CONSOLE);
+        console.output("Deleting: " + path.getFileName());
+        try {
+            Files.delete(path);
+        } catch (IOException e) {
+            console.error("Failure deleting: " + e.getMessage());
+        }
+    }
 }
@@ -21,6 +21,14 @@ public class AvailableContexts {
         contexts.put(Context.SUB_SPACE, context);
     }
 
+    public void setJobContext(JobContext context) {
+        contexts.put(Context.JOBS, context);
+    }
+
+    public void setSchedulerContext(SchedulerContext context) {
+        contexts.put(Context.SCHEDULER, context);
+    }
+
     public void setConfig(Config config) {
         contexts.put(Context.CONFIG, config);
     }
@@ -5,6 +5,7 @@ import de.ctoffer.util.ObjectUtils;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
@@ -20,8 +21,26 @@ public interface ConsoleContext {
     void error(final String message);
     String input(final String message);
 
+    /**
+     * Starts a task whose progress is reported to the user.
+     *
+     * @param name       name of the task
+     * @param totalUnits number of units of the task or a value &lt;= 0 if unknown
+     * @return progress of the task, must be closed when the task ends
+     */
+    default Progress startTask(final String name, final long totalUnits) {
+        return Progress.NONE;
+    }
+
     public static ConsoleContext build(Consumer<String> output, Consumer<String> error, UnaryOperator<String> input) {
-        ObjectUtils.requireAllNonNull(output, error, input);
+        return build(output, error, input, (name, total) -> Progress.NONE);
+    }
+
+    public static ConsoleContext build(Consumer<String> output,
+                                       Consumer<String> error,
+                                       UnaryOperator<String> input,
+                                       BiFunction<String, Long, Progress> tasks) {
+        ObjectUtils.requireAllNonNull(output, error, input, tasks);
         return new ConsoleContext() {
             @Override
             public void output(String message) {
@@ -37,6 +56,11 @@ public interface ConsoleContext {
             public String input(String message) {
                 return input.apply(message);
             }
+
+            @Override
+            public Progress startTask(String name, long totalUnits) {
+                return tasks.apply(name, totalUnits);
+            }
         };
     }
 }
@@ -1,5 +1,5 @@
 package de.ctoffer.assistance.context;
 
 public enum Context {
-    APPLICATION, CONFIG, CONSOLE, SUB_SPACE
+    APPLICATION, CONFIG, CONSOLE, JOBS, SCHEDULER, SUB_SPACE
 }
@@ -0,0 +1,27 @@
+package de.ctoffer.assistance.context;
+
+import de.ctoffer.assistance.jobs.Job;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface JobContext {
+    /**
+     * @return all running jobs and all finished jobs which weren't collected by {@link #await(int)} yet
+     */
+    List<Job> jobs();
+
+    Optional<Job> find(int id);
+
+    /**
+     * Blocks until the job with the given id is finished and forgets it afterwards.
+     *
+     * @param id id of the job
+     * @return the finished job
+     * @throws InterruptedException     if the waiting thread was interrupted
+     * @throws IllegalArgumentException if there is no such job
+     */
+    Job await(int id) throws InterruptedException;
+
+    boolean kill(int id);
+}
@@ -0,0 +1,30 @@
+package de.ctoffer.assistance.context;
+
+/**
+ * Progress of a single task of a command, obtained by {@link ConsoleContext#startTask(String, long)}.
+ * Closing the progress ends the task.
+ */
+public interface Progress extends AutoCloseable {
+    Progress NONE = new Progress() {
+        @Override
+        public void advance(long units, long bytes) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * @param units number of units done since the last call
+     * @param bytes number of bytes processed since the last call
+     */
+    void advance(long units, long bytes);
+
+    default void advance() {
+        advance(1, 0);
+    }
+
+    @Override
+    void close();
+}
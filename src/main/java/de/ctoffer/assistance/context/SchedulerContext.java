@@ -0,0 +1,43 @@
+package de.ctoffer.assistance.context;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Runs tasks of a command on the shared pools of the assistant instead of pools of its own.
+ * Each command may only occupy a share of a pool at a time, further tasks wait for it.
+ */
+public interface SchedulerContext {
+    enum Workload {
+        /** Tasks which mostly wait, like downloads and file I/O. */
+        IO,
+        /** Tasks which keep a core busy, like hashing and analysis. */
+        CPU
+    }
+
+    enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    /**
+     * @param workload pool the task runs on
+     * @param priority tasks with a higher priority are started first, equal priorities in submission order
+     * @param task     work to do
+     * @return future of the task's result
+     */
+    <T> Future<T> submit(Workload workload, Priority priority, Callable<T> task);
+
+    default <T> Future<T> io(Callable<T> task) {
+        return submit(Workload.IO, Priority.NORMAL, task);
+    }
+
+    default <T> Future<T> cpu(Callable<T> task) {
+        return submit(Workload.CPU, Priority.NORMAL, task);
+    }
+
+    /**
+     * @return current state of every pool
+     */
+    List<SchedulerStats> stats();
+}
@@ -0,0 +1,73 @@
+package de.ctoffer.assistance.context;
+
+/**
+ * State of one pool of the scheduler.
+ */
+public final class SchedulerStats {
+    private final SchedulerContext.Workload workload;
+    private final int threads;
+    private final int active;
+    private final int queued;
+    private final int heldByQuota;
+    private final long completed;
+    private final double utilisation;
+
+    public SchedulerStats(final SchedulerContext.Workload workload,
+                          final int threads,
+                          final int active,
+                          final int queued,
+                          final int heldByQuota,
+                          final long completed,
+                          final double utilisation) {
+        this.workload = workload;
+        this.threads = threads;
+        this.active = active;
+        this.queued = queued;
+        this.heldByQuota = heldByQuota;
+        this.completed = completed;
+        this.utilisation = utilisation;
+    }
+
+    public SchedulerContext.Workload getWorkload() {
+        return workload;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return tasks waiting for a thread of the pool
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * @return tasks waiting because their command used up its quota
+     */
+    public int getHeldByQuota() {
+        return heldByQuota;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return share of the pool's thread time spent running tasks since the previous report, between 0 and 1
+     */
+    public double getUtilisation() {
+        return utilisation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-4s %4d threads  active %d  queued %d  held by quota %d  completed %d  utilisation %.0f%%",
+                workload, threads, active, queued, heldByQuota, completed, utilisation * 100);
+    }
+}
@@ -1,33 +1,101 @@
 package de.ctoffer.assistance.context;
 
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 public interface SubSpaceContext {
     void openSpace(SubSpace subSpace);
+
+    /**
+     * Opens the sub space with a resource which lives as long as the sub space, like the browser of
+     * {@link SubSpace#MOODLE}. The resource is closed together with the sub space.
+     */
+    void openSpace(SubSpace subSpace, AutoCloseable resource);
+
+    /**
+     * @return the resource of the given sub space, if it is open and has a resource of the given type
+     */
+    <T> Optional<T> getResource(SubSpace subSpace, Class<T> type);
+
     void closeSpace(SubSpace subSpace);
 
+    /**
+     * Closes the opened sub space, if there is one. Called when the owner of the context goes away.
+     */
+    void closeOpenSpace();
+
     public static SubSpaceContext build(final Consumer<SubSpace> openSpace,
                                         final Consumer<SubSpace> closeSpace) {
         return new SubSpaceContext() {
-            private boolean open;
+            private SubSpace open;
+            private AutoCloseable resource;
 
             @Override
             public void openSpace(SubSpace subSpace) {
-                if(open) {
+                openSpace(subSpace, null);
+            }
+
+            @Override
+            public synchronized void openSpace(SubSpace subSpace, AutoCloseable resource) {
+                if(open != null) {
                     throw new IllegalStateException("A subspace is already opened!");
                 }
-                open = true;
+                open = subSpace;
+                this.resource = resource;
                 openSpace.accept(subSpace);
             }
 
+            @Override
+            public synchronized <T> Optional<T> getResource(SubSpace subSpace, Class<T> type) {
+                return open == subSpace && type.isInstance(resource)
+                        ? Optional.of(type.cast(resource))
+                        : Optional.empty();
+            }
+
+            // the resource is closed outside the lock, it may wait for a command which still uses it
             @Override
             public void closeSpace(SubSpace subSpace) {
-                if(!open) {
+                close(subSpace, detach(subSpace));
+            }
+
+            @Override
+            public void closeOpenSpace() {
+                final SubSpace subSpace;
+                final AutoCloseable closing;
+                synchronized (this) {
+                    if(open == null) {
+                        return;
+                    }
+                    subSpace = open;
+                    closing = detach(subSpace);
+                }
+                close(subSpace, closing);
+            }
+
+            private synchronized AutoCloseable detach(SubSpace subSpace) {
+                if(open == null) {
                     throw new IllegalStateException("No subspace is opened - so it can't be closed!");
                 }
-                open = false;
+                if(open != subSpace) {
+                    throw new IllegalStateException("Subspace " + open + " is opened, not " + subSpace + "!");
+                }
+                final AutoCloseable closing = resource;
+                open = null;
+                resource = null;
                 closeSpace.accept(subSpace);
+                return closing;
+            }
+
+            private void close(SubSpace subSpace, AutoCloseable closing) {
+                if(closing == null) {
+                    return;
+                }
+                try {
+                    closing.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Couldn't close " + subSpace + ": " + e.getMessage(), e);
+                }
             }
         };
     }
@@ -0,0 +1,88 @@
+package de.ctoffer.assistance.jobs;
+
+import de.ctoffer.util.CancellationToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * A command line which is executed in the background.
+ *
+ * @see JobManager
+ */
+public class Job {
+    public enum State {
+        RUNNING, DONE, FAILED, KILLED
+    }
+
+    private final int id;
+    private final String commandLine;
+    private final Instant startedAt;
+    private final CancellationToken cancellation = CancellationToken.create();
+    private volatile State state;
+    private volatile String failure;
+    private volatile Instant finishedAt;
+    private volatile Future<?> future;
+
+    Job(final int id, final String commandLine) {
+        this.id = id;
+        this.commandLine = commandLine;
+        this.startedAt = Instant.now();
+        this.state = State.RUNNING;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return token the job's command has to check, cancelled when the job is killed
+     */
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    public Duration getRunningTime() {
+        final Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        return Duration.between(startedAt, end);
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    void setFuture(final Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized void finish(final State state, final String failure) {
+        if (isFinished()) {
+            return;
+        }
+        this.failure = failure;
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %-7s %4ss  %s", id, state, getRunningTime().getSeconds(), commandLine);
+    }
+}
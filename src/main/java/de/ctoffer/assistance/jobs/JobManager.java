@@ -0,0 +1,126 @@
+package de.ctoffer.assistance.jobs;
+
+import de.ctoffer.assistance.context.JobContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs command lines on background threads and keeps track of them until their
+ * result was collected by {@link #await(int)}.
+ */
+public class JobManager implements JobContext, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(JobManager.class);
+    private static final long CLEANUP_SECONDS = 5;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, Job> jobs = new ConcurrentSkipListMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(new JobThreadFactory());
+
+    /**
+     * Starts a new job.
+     *
+     * @param commandLine command line of the job, used for display only
+     * @param body        work of the job, receives the job itself; thrown exceptions mark the job as failed
+     * @return the started job
+     */
+    public Job start(final String commandLine, final Consumer<Job> body) {
+        final Job job = new Job(nextId.getAndIncrement(), commandLine);
+        final FutureTask<Void> task = new FutureTask<>(() -> run(job, body), null);
+        // kill and fg may find the job as soon as it is in the map, so it needs its future before that
+        job.setFuture(task);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    private void run(final Job job, final Consumer<Job> body) {
+        try {
+            body.accept(job);
+            job.finish(Job.State.DONE, null);
+        } catch (Exception e) {
+            logger.debug("Job {} failed: {}", job.getId(), e.getMessage());
+            job.finish(Job.State.FAILED, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Job> jobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Override
+    public Optional<Job> find(final int id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Override
+    public Job await(final int id) throws InterruptedException {
+        final Job job = find(id).orElseThrow(() -> new IllegalArgumentException("No job with id " + id));
+        try {
+            job.getFuture().get();
+        } catch (CancellationException | ExecutionException e) {
+            // state and failure are recorded in the job itself
+        }
+        jobs.remove(id);
+        return job;
+    }
+
+    @Override
+    public boolean kill(final int id) {
+        final Optional<Job> job = find(id);
+        if (job.isEmpty() || job.get().isFinished()) {
+            return false;
+        }
+        job.get().finish(Job.State.KILLED, null);
+        job.get().getCancellation().cancel("Killed");
+        return job.get().getFuture().cancel(true);
+    }
+
+    /**
+     * Cancels all running jobs and waits a while for them to clean up.
+     */
+    @Override
+    public void close() {
+        jobs.values().forEach(job -> job.getCancellation().cancel("Shutting down"));
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(CLEANUP_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Jobs didn't stop within {}s", CLEANUP_SECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class JobThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "job-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package de.ctoffer.assistance.pipeline;
+
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.assistance.context.SchedulerContext.Priority;
+import de.ctoffer.assistance.context.SchedulerContext.Workload;
+import de.ctoffer.util.CancellationToken;
+import de.ctoffer.util.funtional.ThrowingConsumer;
+import de.ctoffer.util.funtional.ThrowingFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Stages connected by bounded queues. Every item flows through all stages on its own, so the first
+ * items reach the end while later ones are still produced. A full queue blocks the stage in front of it.
+ *
+ * <pre><code>
+ * Pipeline.&lt;Order&gt;create(scheduler, cancellation)
+ *         .stage("download", Workload.IO, 4, this::download)
+ *         .stage("extract", Workload.IO, 2, this::extract)
+ *         .run(this::produceOrders, this::report, this::reportError);
+ * </code></pre>
+ * Stage workers run on the shared scheduler, the source as well; the sink runs on the calling thread.
+ * A stage returning <i>null</i> drops the item, a stage throwing reports the item as failed and continues.
+ *
+ * @param <T> type of the items the last stage produces
+ */
+public class Pipeline<T> {
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    private static final long POLL_MILLIS = 100;
+    private static final Object END = new Object();
+
+    private final SchedulerContext scheduler;
+    private final CancellationToken cancellation;
+    private final List<Stage> stages;
+
+    private Pipeline(final SchedulerContext scheduler, final CancellationToken cancellation, final List<Stage> stages) {
+        this.scheduler = scheduler;
+        this.cancellation = cancellation;
+        this.stages = stages;
+    }
+
+    public static <T> Pipeline<T> create(final SchedulerContext scheduler, final CancellationToken cancellation) {
+        return new Pipeline<>(scheduler, cancellation, new ArrayList<>());
+    }
+
+    /**
+     * @param name     name of the stage in reports
+     * @param workload pool the workers of the stage run on
+     * @param workers  number of items processed at the same time
+     * @param function work of the stage
+     * @return pipeline ending with the new stage
+     */
+    public <R> Pipeline<R> stage(final String name,
+                                 final Workload workload,
+                                 final int workers,
+                                 final ThrowingFunction<T, R, ? extends Exception> function) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("A stage needs at least one worker!");
+        }
+        final List<Stage> extended = new ArrayList<>(stages);
+        @SuppressWarnings("unchecked")
+        final ThrowingFunction<Object, Object, ? extends Exception> untyped = (ThrowingFunction<Object, Object, ? extends Exception>) function;
+        extended.add(new Stage(name, workload, workers, untyped));
+        return new Pipeline<>(scheduler, cancellation, extended);
+    }
+
+    /**
+     * Runs the pipeline until the source is exhausted and every item passed all stages.
+     *
+     * @param source  emits the items of the first stage, runs on the I/O pool
+     * @param sink    receives every item which passed all stages, runs on the calling thread
+     * @param onError receives the name of the stage and the error for every failed item
+     * @return statistics of every stage
+     * @throws CancellationException if the token was cancelled
+     */
+    public List<StageStats> run(final ThrowingConsumer<Consumer<Object>, ? extends Exception> source,
+                                final Consumer<T> sink,
+                                final BiConsumer<String, Exception> onError) {
+        final List<BlockingQueue<Object>> queues = new ArrayList<>();
+        for (int i = 0; i <= stages.size(); ++i) {
+            queues.add(new ArrayBlockingQueue<>(DEFAULT_QUEUE_CAPACITY));
+        }
+
+        final List<Future<?>> tasks = new ArrayList<>();
+        try {
+            tasks.add(scheduler.submit(Workload.IO, Priority.NORMAL, () -> {
+                try {
+                    source.accept(item -> put(queues.get(0), item, cancellation));
+                } finally {
+                    put(queues.get(0), END, cancellation);
+                }
+                return null;
+            }));
+            for (int i = 0; i < stages.size(); ++i) {
+                tasks.addAll(stages.get(i).start(scheduler, cancellation, queues.get(i), queues.get(i + 1), onError));
+            }
+            drain(queues.get(stages.size()), sink);
+            rethrowSourceFailure(tasks.get(0));
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+
+        final List<StageStats> stats = new ArrayList<>();
+        stages.forEach(stage -> stats.add(stage.stats()));
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain(final BlockingQueue<Object> queue, final Consumer<T> sink) {
+        Object item;
+        while ((item = take(queue, cancellation)) != END) {
+            sink.accept((T) item);
+        }
+    }
+
+    private static void rethrowSourceFailure(final Future<?> source) {
+        try {
+            source.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                throw (CancellationException) e.getCause();
+            }
+            throw new IllegalStateException("Source of the pipeline failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+    }
+
+    // checked before every item and while blocked in short steps, so a cancelled token ends busy and idle stages
+    private static void put(final BlockingQueue<Object> queue, final Object item, final CancellationToken cancellation) {
+        cancellation.throwIfCancelled();
+        try {
+            while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                cancellation.throwIfCancelled();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+    }
+
+    private static Object take(final BlockingQueue<Object> queue, final CancellationToken cancellation) {
+        cancellation.throwIfCancelled();
+        try {
+            Object item;
+            while ((item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                cancellation.throwIfCancelled();
+            }
+            return item;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+    }
+
+    private static class Stage {
+        private final String name;
+        private final Workload workload;
+        private final int workers;
+        private final ThrowingFunction<Object, Object, ? extends Exception> function;
+        private final AtomicInteger running = new AtomicInteger();
+        private final StageStats.Recorder recorder = new StageStats.Recorder();
+
+        private Stage(final String name,
+                      final Workload workload,
+                      final int workers,
+                      final ThrowingFunction<Object, Object, ? extends Exception> function) {
+            this.name = name;
+            this.workload = workload;
+            this.workers = workers;
+            this.function = function;
+        }
+
+        private List<Future<?>> start(final SchedulerContext scheduler,
+                                      final CancellationToken cancellation,
+                                      final BlockingQueue<Object> in,
+                                      final BlockingQueue<Object> out,
+                                      final BiConsumer<String, Exception> onError) {
+            running.set(workers);
+            recorder.start();
+            final List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < workers; ++i) {
+                tasks.add(scheduler.submit(workload, Priority.NORMAL, () -> {
+                    work(cancellation, in, out, onError);
+                    return null;
+                }));
+            }
+            return tasks;
+        }
+
+        private void work(final CancellationToken cancellation,
+                          final BlockingQueue<Object> in,
+                          final BlockingQueue<Object> out,
+                          final BiConsumer<String, Exception> onError) {
+            Object item;
+            while ((item = take(in, cancellation)) != END) {
+                recorder.sampleQueue(in.size());
+                final long start = System.nanoTime();
+                try {
+                    final Object result = function.apply(item);
+                    recorder.processed(System.nanoTime() - start);
+                    if (result != null) {
+                        put(out, result, cancellation);
+                    }
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    recorder.failed();
+                    onError.accept(name, e);
+                }
+            }
+            // the end marker is passed on to the other workers, the last one hands it to the next stage
+            put(in, END, cancellation);
+            if (running.decrementAndGet() == 0) {
+                recorder.stop();
+                put(out, END, cancellation);
+            }
+        }
+
+        private StageStats stats() {
+            return recorder.toStats(name, workload, workers, DEFAULT_QUEUE_CAPACITY);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package de.ctoffer.assistance.pipeline;
+
+import de.ctoffer.assistance.context.SchedulerContext.Workload;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and queue occupancy of one stage of a {@link Pipeline}.
+ */
+public class StageStats {
+    private final String name;
+    private final Workload workload;
+    private final int workers;
+    private final long processed;
+    private final long failed;
+    private final long elapsedNanos;
+    private final long busyNanos;
+    private final double averageQueue;
+    private final int maxQueue;
+    private final int queueCapacity;
+
+    private StageStats(final String name,
+                       final Workload workload,
+                       final int workers,
+                       final long processed,
+                       final long failed,
+                       final long elapsedNanos,
+                       final long busyNanos,
+                       final double averageQueue,
+                       final int maxQueue,
+                       final int queueCapacity) {
+        this.name = name;
+        this.workload = workload;
+        this.workers = workers;
+        this.processed = processed;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.busyNanos = busyNanos;
+        this.averageQueue = averageQueue;
+        this.maxQueue = maxQueue;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public double getItemsPerSecond() {
+        return elapsedNanos == 0 ? 0 : processed * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return share of the stage's running time its workers were busy, 1 for a stage which never waited
+     */
+    public double getUtilisation() {
+        return elapsedNanos == 0 ? 0 : Math.min(1.0, (double) busyNanos / ((double) elapsedNanos * workers));
+    }
+
+    public double getAverageQueue() {
+        return averageQueue;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-10s %-3s x%-2d %5d done %3d failed %8.1f items/s  busy %3.0f%%  queue avg %4.1f max %2d/%d",
+                name, workload, workers, processed, failed, getItemsPerSecond(), getUtilisation() * 100,
+                averageQueue, maxQueue, queueCapacity);
+    }
+
+    /**
+     * Collects the numbers while the stage runs, shared by all workers of the stage.
+     */
+    static class Recorder {
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder queueSamples = new LongAdder();
+        private final LongAdder queueSum = new LongAdder();
+        private final AtomicLong maxQueue = new AtomicLong();
+        private volatile long start;
+        private volatile long end;
+
+        void start() {
+            start = System.nanoTime();
+        }
+
+        void stop() {
+            end = System.nanoTime();
+        }
+
+        void sampleQueue(final int size) {
+            queueSamples.increment();
+            queueSum.add(size);
+            maxQueue.accumulateAndGet(size, Math::max);
+        }
+
+        void processed(final long nanos) {
+            processed.increment();
+            busyNanos.add(nanos);
+        }
+
+        void failed() {
+            failed.increment();
+        }
+
+        StageStats toStats(final String name, final Workload workload, final int workers, final int queueCapacity) {
+            final long elapsed = (end == 0 ? System.nanoTime() : end) - start;
+            final long samples = queueSamples.sum();
+            return new StageStats(name, workload, workers, processed.sum(), failed.sum(), elapsed, busyNanos.sum(),
+                    samples == 0 ? 0 : (double) queueSum.sum() / samples, (int) maxQueue.get(), queueCapacity);
+        }
+    }
+}
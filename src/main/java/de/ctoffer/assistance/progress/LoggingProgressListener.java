@@ -0,0 +1,30 @@
+package de.ctoffer.assistance.progress;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writes the start and end of every task to the log, updates only on debug level.
+ */
+public class LoggingProgressListener implements ProgressListener {
+    private static final Logger logger = LogManager.getLogger(LoggingProgressListener.class);
+
+    @Override
+    public void onEvent(final ProgressEvent event) {
+        switch (event.getKind()) {
+            case STARTED:
+                logger.info("Task {} '{}' started with {} units", event.getTaskId(), event.getName(),
+                        event.hasTotal() ? event.getTotalUnits() : "unknown");
+                break;
+            case UPDATED:
+                logger.debug("Task {} '{}': {} units, {} bytes, {} units/s", event.getTaskId(), event.getName(),
+                        event.getUnits(), event.getBytes(), String.format("%.1f", event.getUnitsPerSecond()));
+                break;
+            case FINISHED:
+                logger.info("Task {} '{}' finished after {} ms: {} units, {} bytes, {} units/s", event.getTaskId(),
+                        event.getName(), event.getElapsedMillis(), event.getUnits(), event.getBytes(),
+                        String.format("%.1f", event.getUnitsPerSecond()));
+                break;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package de.ctoffer.assistance.progress;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of a task's progress.
+ */
+public final class ProgressEvent {
+    public enum Kind {
+        STARTED, UPDATED, FINISHED
+    }
+
+    private final Kind kind;
+    private final int taskId;
+    private final String name;
+    private final boolean live;
+    private final long totalUnits;
+    private final long units;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    ProgressEvent(final Kind kind,
+                  final int taskId,
+                  final String name,
+                  final boolean live,
+                  final long totalUnits,
+                  final long units,
+                  final long bytes,
+                  final long elapsedNanos) {
+        this.kind = kind;
+        this.taskId = taskId;
+        this.name = name;
+        this.live = live;
+        this.totalUnits = totalUnits;
+        this.units = units;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return <i>true</i> if the task runs in the foreground and may be displayed live
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    public boolean hasTotal() {
+        return totalUnits > 0;
+    }
+
+    public long getTotalUnits() {
+        return totalUnits;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return units done per second since the task started
+     */
+    public double getUnitsPerSecond() {
+        return perSecond(units);
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(bytes);
+    }
+
+    private double perSecond(final long amount) {
+        return elapsedNanos <= 0 ? 0 : amount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return fraction of the units done, between 0 and 1, or -1 if the total is unknown
+     */
+    public double getFraction() {
+        return hasTotal() ? Math.min(1.0, (double) units / totalUnits) : -1;
+    }
+
+    /**
+     * Estimates the remaining time from the average rate since the task started.
+     *
+     * @return remaining seconds or -1 if there is no total or no unit was done yet
+     */
+    public long getEtaSeconds() {
+        if (!hasTotal() || units == 0) {
+            return -1;
+        }
+        return (long) Math.ceil(Math.max(0, totalUnits - units) / getUnitsPerSecond());
+    }
+}
@@ -0,0 +1,138 @@
+package de.ctoffer.assistance.progress;
+
+import de.ctoffer.assistance.context.Progress;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the running tasks of all commands and reports their progress to the registered listeners.
+ *
+ * <p>
+ * Advancing a task only increments counters. A single ticker thread samples all tasks at a fixed rate
+ * and reports an update for every task that advanced since the last tick. The ticker is started with
+ * the first task.
+ * </p>
+ */
+public class ProgressHub implements AutoCloseable {
+    public static final long DEFAULT_REFRESH_MILLIS = 200;
+
+    private final long refreshMillis;
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private ScheduledExecutorService ticker;
+
+    public ProgressHub() {
+        this(DEFAULT_REFRESH_MILLIS);
+    }
+
+    public ProgressHub(final long refreshMillis) {
+        this.refreshMillis = refreshMillis;
+    }
+
+    public void addListener(final ProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param name       name of the task
+     * @param totalUnits number of units or a value &lt;= 0 if unknown
+     * @param live       <i>true</i> if the task runs in the foreground and may be displayed live
+     * @return progress of the new task
+     */
+    public Progress start(final String name, final long totalUnits, final boolean live) {
+        ensureTicker();
+        final Task task = new Task(nextId.getAndIncrement(), name, totalUnits, live);
+        tasks.put(task.id, task);
+        publish(task.snapshot(ProgressEvent.Kind.STARTED));
+        return task;
+    }
+
+    private synchronized void ensureTicker() {
+        if (ticker == null) {
+            ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "progress-ticker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::tick, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void tick() {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        tasks.values().forEach(Task::publishUpdate);
+        listeners.forEach(ProgressListener::onTick);
+    }
+
+    private void publish(final ProgressEvent event) {
+        listeners.forEach(listener -> listener.onEvent(event));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    private class Task implements Progress {
+        private final int id;
+        private final String name;
+        private final long totalUnits;
+        private final boolean live;
+        private final long start = System.nanoTime();
+        private final AtomicLong units = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private long reportedUnits = -1;
+        private long reportedBytes = -1;
+        private boolean finished = false;
+
+        private Task(final int id, final String name, final long totalUnits, final boolean live) {
+            this.id = id;
+            this.name = name;
+            this.totalUnits = totalUnits;
+            this.live = live;
+        }
+
+        @Override
+        public void advance(final long units, final long bytes) {
+            this.units.addAndGet(units);
+            this.bytes.addAndGet(bytes);
+        }
+
+        // synchronized with close, so no update is reported after the task finished
+        private synchronized void publishUpdate() {
+            final long currentUnits = units.get();
+            final long currentBytes = bytes.get();
+            if (!finished && (currentUnits != reportedUnits || currentBytes != reportedBytes)) {
+                reportedUnits = currentUnits;
+                reportedBytes = currentBytes;
+                publish(snapshot(ProgressEvent.Kind.UPDATED));
+            }
+        }
+
+        private ProgressEvent snapshot(final ProgressEvent.Kind kind) {
+            return new ProgressEvent(kind, id, name, live, totalUnits, units.get(), bytes.get(), System.nanoTime() - start);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!finished) {
+                finished = true;
+                tasks.remove(id);
+                publish(snapshot(ProgressEvent.Kind.FINISHED));
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package de.ctoffer.assistance.progress;
+
+/**
+ * Receives the events of a {@link ProgressHub}. Start and end of a task are reported on the thread
+ * running the task, updates on the hub's ticker thread, so implementations have to be thread safe.
+ */
+public interface ProgressListener {
+    void onEvent(ProgressEvent event);
+
+    /**
+     * Called on the ticker thread after the updates of one tick were reported.
+     */
+    default void onTick() {
+    }
+}
@@ -0,0 +1,83 @@
+package de.ctoffer.assistance.progress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Draws the live tasks as progress bars into a single status line. The line is redrawn on every tick
+ * of the hub and cleared when the last task finished.
+ */
+public class ProgressRenderer implements ProgressListener {
+    private static final int BAR_WIDTH = 20;
+    private static final String SEPARATOR = " | ";
+    private static final String[] BYTE_UNITS = {"B", "KB", "MB", "GB"};
+
+    private final Consumer<String> status;
+    private final Map<Integer, ProgressEvent> latest = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param status replaces the status line, an empty text clears it
+     */
+    public ProgressRenderer(final Consumer<String> status) {
+        this.status = status;
+    }
+
+    @Override
+    public void onEvent(final ProgressEvent event) {
+        if (!event.isLive()) {
+            return;
+        }
+        if (event.getKind() == ProgressEvent.Kind.FINISHED) {
+            latest.remove(event.getTaskId());
+            if (latest.isEmpty()) {
+                draw();
+            }
+        } else {
+            latest.put(event.getTaskId(), event);
+        }
+    }
+
+    @Override
+    public void onTick() {
+        if (!latest.isEmpty()) {
+            draw();
+        }
+    }
+
+    private synchronized void draw() {
+        status.accept(latest.values().stream().map(ProgressRenderer::format).collect(Collectors.joining(SEPARATOR)));
+    }
+
+    static String format(final ProgressEvent event) {
+        final StringBuilder line = new StringBuilder(event.getName()).append(' ');
+        if (event.hasTotal()) {
+            final int filled = (int) Math.round(event.getFraction() * BAR_WIDTH);
+            line.append('[').append("#".repeat(filled)).append(".".repeat(BAR_WIDTH - filled)).append("] ")
+                    .append(Math.round(event.getFraction() * 100)).append("% ")
+                    .append(event.getUnits()).append('/').append(event.getTotalUnits());
+        } else {
+            line.append(event.getUnits());
+        }
+        line.append(String.format(" %.1f/s", event.getUnitsPerSecond()));
+        if (event.getBytes() > 0) {
+            line.append(' ').append(formatBytes(event.getBytesPerSecond())).append("/s");
+        }
+        final long eta = event.getEtaSeconds();
+        if (eta >= 0) {
+            line.append(String.format(" ETA %d:%02d", eta / 60, eta % 60));
+        }
+        return line.toString();
+    }
+
+    private static String formatBytes(final double bytes) {
+        double value = bytes;
+        int unit = 0;
+        while (value >= 1024 && unit < BYTE_UNITS.length - 1) {
+            value /= 1024;
+            ++unit;
+        }
+        return String.format("%.1f %s", value, BYTE_UNITS[unit]);
+    }
+}
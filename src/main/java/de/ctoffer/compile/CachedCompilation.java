@@ -0,0 +1,96 @@
+package de.ctoffer.compile;
+
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import de.ctoffer.util.codec.Codec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Result of a compilation together with the class files it produced, so a cache hit leaves the same
+ * classes folder behind as compiling.
+ */
+public class CachedCompilation {
+    private final CompileResult result;
+    // path relative to the classes folder, with '/' as separator, and content of each class file
+    private final Map<String, byte[]> classes;
+
+    private CachedCompilation(final CompileResult result, final Map<String, byte[]> classes) {
+        this.result = result;
+        this.classes = classes;
+    }
+
+    static CachedCompilation of(final CompileResult result, final Path classesFolder) throws IOException {
+        final Map<String, byte[]> classes = new LinkedHashMap<>();
+        if (Files.isDirectory(classesFolder)) {
+            final List<Path> files;
+            try (Stream<Path> paths = Files.walk(classesFolder)) {
+                files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                classes.put(classesFolder.relativize(file).toString().replace('\\', '/'), Files.readAllBytes(file));
+            }
+        }
+        return new CachedCompilation(result, classes);
+    }
+
+    CompileResult getResult() {
+        return result;
+    }
+
+    void restore(final Path classesFolder) throws IOException {
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            final Path file = classesFolder.resolve(entry.getKey()).normalize();
+            if (!file.startsWith(classesFolder)) {
+                throw new IOException("Cached class file outside of the classes folder: " + entry.getKey());
+            }
+            Files.createDirectories(file.getParent());
+            Files.write(file, entry.getValue());
+        }
+    }
+
+    static final Codec<CachedCompilation> CODEC = new Codec<CachedCompilation>() {
+        @Override
+        public String id() {
+            return "cached-compilation";
+        }
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public void write(final CachedCompilation value, final BinaryWriter out) throws IOException {
+            CompileResult.write(value.result, out);
+            out.writeVarInt(value.classes.size());
+            for (Map.Entry<String, byte[]> entry : value.classes.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeBytes(entry.getValue());
+            }
+        }
+
+        @Override
+        public CachedCompilation read(final BinaryReader in, final int version) throws IOException {
+            // version 1 kept the messages as text with the paths of the submission which filled the cache
+            if (version != 2) {
+                throw new IOException("Unsupported version " + version + " of codec '" + id() + "'");
+            }
+            final CompileResult result = CompileResult.read(in);
+            final int count = in.readCount();
+            final Map<String, byte[]> classes = new LinkedHashMap<>();
+            for (int i = 0; i < count; ++i) {
+                final String name = in.readString();
+                classes.put(name, in.readBytes());
+            }
+            return new CachedCompilation(result, classes);
+        }
+    };
+}
@@ -0,0 +1,161 @@
+package de.ctoffer.compile;
+
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Outcome of compiling one submission.
+ */
+public class CompileResult {
+    private final boolean success;
+    private final long millis;
+    private final int errors;
+    private final int warnings;
+    private final List<Message> diagnostics;
+    private final boolean cached;
+
+    CompileResult(final boolean success,
+                  final long millis,
+                  final int errors,
+                  final int warnings,
+                  final List<Message> diagnostics) {
+        this(success, millis, errors, warnings, diagnostics, false);
+    }
+
+    private CompileResult(final boolean success,
+                          final long millis,
+                          final int errors,
+                          final int warnings,
+                          final List<Message> diagnostics,
+                          final boolean cached) {
+        this.success = success;
+        this.millis = millis;
+        this.errors = errors;
+        this.warnings = warnings;
+        this.diagnostics = diagnostics;
+        this.cached = cached;
+    }
+
+    CompileResult asCached() {
+        return new CompileResult(success, millis, errors, warnings, diagnostics, true);
+    }
+
+    /**
+     * @param mapping new name of the file of each message, the file of a message which has none stays empty
+     * @return this result with the files of its messages replaced
+     */
+    CompileResult withFiles(final UnaryOperator<String> mapping) {
+        final List<Message> mapped = new ArrayList<>(diagnostics.size());
+        for (Message message : diagnostics) {
+            mapped.add(message.file == null
+                    ? message
+                    : new Message(message.error, mapping.apply(message.file), message.line, message.text));
+        }
+        return new CompileResult(success, millis, errors, warnings, mapped, cached);
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return time spent in the compiler, by the run which computed a cached result
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return true if the result was taken from the {@link de.ctoffer.util.ResultCache}
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public int getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * @return the messages of the compiler as 'file:line: kind: message', in the order they were reported
+     */
+    public List<Message> getDiagnostics() {
+        return diagnostics;
+    }
+
+    static void write(final CompileResult value, final BinaryWriter out) throws IOException {
+        out.writeByte(value.success ? 1 : 0);
+        out.writeLong(value.millis);
+        out.writeVarInt(value.errors);
+        out.writeVarInt(value.warnings);
+        out.writeVarInt(value.diagnostics.size());
+        for (Message message : value.diagnostics) {
+            out.writeByte(message.error ? 1 : 0);
+            out.writeString(message.file == null ? "" : message.file);
+            out.writeLong(message.line);
+            out.writeString(message.text);
+        }
+    }
+
+    static CompileResult read(final BinaryReader in) throws IOException {
+        final boolean success = in.readByte() == 1;
+        final long millis = in.readLong();
+        final int errors = in.readVarInt();
+        final int warnings = in.readVarInt();
+        final int count = in.readCount();
+        final List<Message> diagnostics = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final boolean error = in.readByte() == 1;
+            final String file = in.readString();
+            final long line = in.readLong();
+            diagnostics.add(new Message(error, file.isEmpty() ? null : file, line, in.readString()));
+        }
+        return new CompileResult(success, millis, errors, warnings, diagnostics);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, %d errors, %d warnings %s", success ? "ok" : "FAILED", errors, warnings,
+                cached ? "(cached)" : "in " + millis + " ms");
+    }
+
+    public static class Message {
+        private final boolean error;
+        // relative to the root of the submission, null if the message isn't about a source file
+        private final String file;
+        private final long line;
+        private final String text;
+
+        Message(final boolean error, final String text) {
+            this(error, null, 0, text);
+        }
+
+        Message(final boolean error, final String file, final long line, final String text) {
+            this.error = error;
+            this.file = file;
+            this.line = line;
+            this.text = text;
+        }
+
+        public boolean isError() {
+            return error;
+        }
+
+        /**
+         * @return the message as 'file:line: kind: message', or 'kind: message' if it isn't about a file
+         */
+        @Override
+        public String toString() {
+            return file == null ? text : String.format("%s:%d: %s", file, line, text);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package de.ctoffer.compile;
+
+import de.ctoffer.util.FileUtils;
+import de.ctoffer.util.ResultCache;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles submissions with the compiler of the running JDK, without starting a javac process per submission.
+ *
+ * <p>
+ * Each of the 'workers' file managers is used by one compilation at a time, so the archives on the class
+ * path are opened once per worker instead of once per submission. {@link #compile(Path)} may be called from
+ * as many threads as wanted; a call waits while all file managers are in use.
+ * </p>
+ */
+public class SubmissionCompiler implements AutoCloseable {
+    private static final String SOURCE_SUFFIX = ".java";
+    private static final String CLASSES_SUFFIX = "_classes";
+    private static final String CACHE_NAME = "compile";
+    private static final List<String> DEFAULT_OPTIONS = List.of("-proc:none", "-implicit:none", "-encoding", "UTF-8");
+
+    private final JavaCompiler compiler;
+    private final String classPath;
+    private final List<String> options;
+    private final List<StandardJavaFileManager> fileManagers = new ArrayList<>();
+    private final BlockingQueue<StandardJavaFileManager> idle;
+
+    /**
+     * @param workers   maximum number of compilations running at the same time
+     * @param classPath class path of the submissions, may be empty; the classes of this tool are never visible
+     *                  to a submission
+     * @throws IllegalStateException if the tool doesn't run on a JDK
+     */
+    public SubmissionCompiler(final int workers, final String classPath) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required!");
+        }
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No java compiler available, the tool has to run on a JDK!");
+        }
+        this.classPath = classPath;
+        // without them javac would look up classes and sources on the class path of the tool itself
+        final List<String> options = new ArrayList<>(DEFAULT_OPTIONS);
+        options.add("-classpath");
+        options.add(classPath);
+        options.add("-sourcepath");
+        options.add("");
+        this.options = Collections.unmodifiableList(options);
+        idle = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; ++i) {
+            final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.ROOT,
+                    StandardCharsets.UTF_8);
+            fileManagers.add(fileManager);
+            idle.add(fileManager);
+        }
+    }
+
+    /**
+     * @return cache of the results of this compiler in a sub folder of 'cacheFolder', which misses as soon as
+     *         an entry of the class path changes
+     */
+    public ResultCache<CachedCompilation> openCache(final Path cacheFolder) throws IOException {
+        return new ResultCache<>(cacheFolder.resolve(CACHE_NAME), version(), CachedCompilation.CODEC);
+    }
+
+    // another JDK, other options or changed libraries may compile the same sources differently
+    private String version() throws IOException {
+        final StringBuilder version = new StringBuilder("javac ").append(Runtime.version())
+                .append(' ').append(String.join(" ", options));
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                version.append(' ').append(entry).append('@').append(FileUtils.stamp(Path.of(entry)));
+            }
+        }
+        return version.toString();
+    }
+
+    /**
+     * @return folder the classes of the submission extracted to 'root' are written to, next to it
+     */
+    public static Path classesFolder(final Path root) {
+        return root.resolveSibling(root.getFileName() + CLASSES_SUFFIX);
+    }
+
+    /**
+     * Compiles all Java files below 'root' together into {@link #classesFolder(Path)}, classes of an earlier
+     * compilation are deleted first.
+     *
+     * @throws InterruptedException if interrupted while waiting for a free file manager
+     */
+    public CompileResult compile(final Path root) throws IOException, InterruptedException {
+        final List<File> sources;
+        try (Stream<Path> paths = Files.walk(root)) {
+            sources = paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(SOURCE_SUFFIX))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+        if (sources.isEmpty()) {
+            final String message = "error: no " + SOURCE_SUFFIX + " files found";
+            return new CompileResult(false, 0, 1, 0, List.of(new CompileResult.Message(true, message)));
+        }
+
+        final Path classes = classesFolder(root);
+        FileUtils.deletePath(classes);
+        Files.createDirectories(classes);
+
+        final StandardJavaFileManager fileManager = idle.take();
+        try {
+            final long start = System.nanoTime();
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, List.of(classes.toFile()));
+            final DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+            final boolean success = compiler.getTask(null, fileManager, collector, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(sources)).call();
+            final long millis = (System.nanoTime() - start) / 1_000_000;
+            return toResult(success, millis, collector.getDiagnostics(), root);
+        } finally {
+            idle.add(fileManager);
+        }
+    }
+
+    /**
+     * Like {@link #compile(Path)}, but sources compiled before, by this or another submission, aren't compiled
+     * again; their result and classes are taken from the cache.
+     */
+    public CompileResult compile(final Path root, final ResultCache<CachedCompilation> cache)
+            throws IOException, InterruptedException {
+        final Map<Path, String> sources = ResultCache.sourceKeys(root);
+        final String key = cache.key(sources);
+        final Optional<CachedCompilation> cached = cache.get(key);
+        // the files are cached by their key, the submission which filled the cache may have them in other folders
+        if (cached.isEmpty()) {
+            final CompileResult result = compile(root);
+            final Map<String, String> toKey = new HashMap<>();
+            sources.forEach((file, fileKey) -> toKey.put(file.toString(), fileKey));
+            cache.put(key, CachedCompilation.of(result.withFiles(file -> toKey.getOrDefault(file, file)),
+                    classesFolder(root)));
+            return result;
+        }
+        final Map<String, String> toFile = new HashMap<>();
+        sources.forEach((file, fileKey) -> toFile.putIfAbsent(fileKey, file.toString()));
+        final Path classes = classesFolder(root);
+        FileUtils.deletePath(classes);
+        Files.createDirectories(classes);
+        cached.get().restore(classes);
+        return cached.get().getResult().withFiles(fileKey -> toFile.getOrDefault(fileKey, fileKey)).asCached();
+    }
+
+    private static CompileResult toResult(final boolean success,
+                                          final long millis,
+                                          final List<Diagnostic<? extends JavaFileObject>> diagnostics,
+                                          final Path root) {
+        int errors = 0;
+        int warnings = 0;
+        final List<CompileResult.Message> messages = new ArrayList<>(diagnostics.size());
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            final boolean error = diagnostic.getKind() == Diagnostic.Kind.ERROR;
+            if (error) {
+                ++errors;
+            } else if (diagnostic.getKind() == Diagnostic.Kind.WARNING
+                    || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
+                ++warnings;
+            }
+            messages.add(toMessage(error, diagnostic, root));
+        }
+        return new CompileResult(success, millis, errors, warnings, messages);
+    }
+
+    private static CompileResult.Message toMessage(final boolean error,
+                                                   final Diagnostic<? extends JavaFileObject> diagnostic,
+                                                   final Path root) {
+        final String kind = diagnostic.getKind().toString().toLowerCase(Locale.ROOT).replace('_', ' ');
+        final String text = kind + ": " + diagnostic.getMessage(Locale.ROOT);
+        if (diagnostic.getSource() == null) {
+            return new CompileResult.Message(error, text);
+        }
+        final Path file = Path.of(diagnostic.getSource().toUri());
+        final String name = file.startsWith(root) ? root.relativize(file).toString() : file.toString();
+        return new CompileResult.Message(error, name, diagnostic.getLineNumber(), text);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (StandardJavaFileManager fileManager : fileManagers) {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package de.ctoffer.login;
 
-import com.google.gson.JsonObject;
+import de.ctoffer.util.Config;
 import de.ctoffer.util.ThreadUtils;
 import org.openqa.selenium.WebDriver;
 
@@ -13,12 +13,12 @@ public abstract class CredentialsAccess <T extends CredentialsAccess<T>> impleme
         this.loggedIn = false;
     }
 
-    public T login(JsonObject object) {
+    public T login(Config credentials) {
         if(loggedIn) {
             throw new IllegalStateException("Already logged in!");
         }
 
-        login(object.get("name").getAsString(), object.get("password").getAsString());
+        login(credentials.getString("name"), credentials.getString("password"));
 
         loggedIn = true;
         return (T) this;
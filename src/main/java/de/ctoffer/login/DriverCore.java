@@ -8,6 +8,7 @@ import org.openqa.selenium.chrome.ChromeDriver;
 
 public class DriverCore implements AutoCloseable {
     private final WebDriver driver;
+    private Moodle moodle;
 
     public DriverCore(Config seleniumConfig) {
         final String driverName = seleniumConfig.getString("driver");
@@ -27,8 +28,11 @@ public class DriverCore implements AutoCloseable {
         return Muesli.getInstance(driver);
     }
 
-    public Moodle getMoodleInstance() {
-        return Moodle.getInstance(driver);
+    public synchronized Moodle getMoodleInstance() {
+        if (moodle == null) {
+            moodle = Moodle.create(driver);
+        }
+        return moodle;
     }
 
     @Override
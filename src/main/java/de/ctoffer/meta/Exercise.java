@@ -1,6 +1,6 @@
 package de.ctoffer.meta;
 
-import com.google.gson.JsonObject;
+import de.ctoffer.util.Config;
 
 public class Exercise {
     private final String name;
@@ -19,9 +19,9 @@ public class Exercise {
         return alias;
     }
 
-    public static Exercise fromJson(final JsonObject object) {
-        final String name = object.get("name").getAsString();
-        final String alias = object.get("alias").getAsString();
+    public static Exercise fromConfig(final Config config) {
+        final String name = config.getString("name");
+        final String alias = config.getString("alias");
         return new Exercise(name, alias);
     }
 }
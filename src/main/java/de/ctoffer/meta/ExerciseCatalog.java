@@ -0,0 +1,72 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Testat and Non-Testat exercises of all sheets, as configured in "excel/exercise".
+ *
+ * <p>
+ * The catalog is built once per {@link Config} snapshot: {@link #of(Config)} returns the
+ * cached catalog as long as it is called with the same snapshot and only rebuilds it after
+ * the configuration was reloaded.
+ * </p>
+ */
+public class ExerciseCatalog {
+    private static final String EXERCISE_PATH = "excel/exercise";
+    private static final String TESTAT = "Testat";
+    private static final String NON_TESTAT = "Non-Testat";
+
+    private static volatile ExerciseCatalog cached;
+
+    private final Config source;
+    private final Map<String, List<Exercise>> testat;
+    private final Map<String, List<Exercise>> nonTestat;
+
+    private ExerciseCatalog(final Config source) {
+        this.source = source;
+        this.testat = new HashMap<>();
+        this.nonTestat = new HashMap<>();
+
+        if (source.has(EXERCISE_PATH)) {
+            final Config sheets = source.sub(EXERCISE_PATH);
+            for (String sheet : sheets.keys()) {
+                final Config kinds = sheets.sub(sheet);
+                testat.put(sheet, readExercises(kinds, TESTAT));
+                nonTestat.put(sheet, readExercises(kinds, NON_TESTAT));
+            }
+        }
+    }
+
+    private static List<Exercise> readExercises(final Config kinds, final String kind) {
+        final List<Exercise> exercises = new ArrayList<>();
+        if (kinds.has(kind)) {
+            for (Config exercise : kinds.getConfigs(kind)) {
+                exercises.add(Exercise.fromConfig(exercise));
+            }
+        }
+        return Collections.unmodifiableList(exercises);
+    }
+
+    public static ExerciseCatalog of(final Config config) {
+        ExerciseCatalog result = cached;
+        if (result == null || result.source != config) {
+            result = new ExerciseCatalog(config);
+            cached = result;
+        }
+        return result;
+    }
+
+    public List<Exercise> getTestatExercises(final int sheetNr) {
+        return testat.getOrDefault(Integer.toString(sheetNr), Collections.emptyList());
+    }
+
+    public List<Exercise> getNonTestatExercises(final int sheetNr) {
+        return nonTestat.getOrDefault(Integer.toString(sheetNr), Collections.emptyList());
+    }
+}
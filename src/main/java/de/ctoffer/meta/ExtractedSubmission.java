@@ -0,0 +1,77 @@
+package de.ctoffer.meta;
+
+import java.nio.file.Path;
+
+/**
+ * Unzipped submission of a group, either recorded in the {@link SubmissionCatalog} or found through the
+ * path lists saved before the catalog existed.
+ */
+public class ExtractedSubmission {
+    private final String key;
+    private final String exerciseAlias;
+    private final int groupId;
+    private final String label;
+    private final String sourceHash;
+    private final Path root;
+
+    ExtractedSubmission(final String key,
+                        final String exerciseAlias,
+                        final int groupId,
+                        final String label,
+                        final String sourceHash,
+                        final Path root) {
+        this.key = key;
+        this.exerciseAlias = exerciseAlias;
+        this.groupId = groupId;
+        this.label = label;
+        this.sourceHash = sourceHash;
+        this.root = root;
+    }
+
+    static ExtractedSubmission of(final SubmissionRecord record) {
+        return new ExtractedSubmission(record.key(), record.getExerciseAlias(), record.getGroupId(),
+                String.format("group %02d (%s)", record.getGroupId(), record.getStudentName()),
+                record.getHash(), record.getExtractedPath());
+    }
+
+    /**
+     * @return identity of the submission, {@link SubmissionRecord#key()} or the archive path for legacy ones
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getExerciseAlias() {
+        return exerciseAlias;
+    }
+
+    public int getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return name of the submission for the console
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return changes whenever the archive changes: its hash, or size and modification time for legacy ones
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    /**
+     * @return folder the archive was extracted to
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return exerciseAlias + " " + label;
+    }
+}
@@ -1,9 +1,14 @@
 package de.ctoffer.meta;
 
-import de.ctoffer.moodle.Moodle;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.moodle.Downloader;
 import de.ctoffer.moodle.SubmissionRow;
+import de.ctoffer.util.CancellationToken;
 import de.ctoffer.util.Config;
 import de.ctoffer.util.Serial;
+import de.ctoffer.util.ZipUtils;
+import de.ctoffer.util.codec.Codecs;
 
 import java.io.*;
 import java.net.URI;
@@ -21,6 +26,8 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.util.stream.Collectors.*;
 
 public class FolderManager {
+    public static final String CACHE_FOLDER = ".sea";
+
     private ExerciseManager exerciseManager;
 
     public FolderManager(Config config) {
@@ -55,6 +62,13 @@ public class FolderManager {
             return Paths.get(home, mainFolder, String.format(sheetFolderFormat, sheetNr), submissionFolder);
         }
 
+        /**
+         * @return folder of the cached compile, test and analysis results of the sheet
+         */
+        public Path getResultCacheFolder(int sheetNr) {
+            return getSheetFolder(sheetNr).resolve(CACHE_FOLDER);
+        }
+
         public Map<Integer, String> createGroupFolders(Map<Integer, List<Student>> groups, int sheetNr) {
             Path submissions = Paths.get(home, mainFolder, String.format(sheetFolderFormat, sheetNr), submissionFolder);
             createDirectories(submissions);
@@ -68,34 +82,95 @@ public class FolderManager {
             return groupFolderNames;
         }
 
-        public List<Path> downloadAll(Moodle moodle,
-                                Map<Integer, String> groupFolderNames,
-                                List<SubmissionRow> rows,
-                                int sheetNr,
-                                Exercise exercise) throws IOException {
-            Path submissions = Paths.get(home, mainFolder, String.format(sheetFolderFormat, sheetNr), submissionFolder);
+        public SubmissionCatalog openCatalog() throws IOException {
+            return SubmissionCatalog.open(Paths.get(home, CACHE_FOLDER, SubmissionCatalog.CATALOG_NAME));
+        }
+
+        /**
+         * Downloads the submissions of the given rows and records them in the catalog. A failed download is
+         * reported as error and the remaining rows are still downloaded. Once the token is cancelled, no
+         * further download is started.
+         *
+         * @return records of the downloaded submissions, only the completed ones if cancelled
+         */
+        public List<SubmissionRecord> downloadAll(Downloader downloader,
+                                                  SubmissionCatalog catalog,
+                                                  Map<Integer, String> groupFolderNames,
+                                                  List<SubmissionRow> rows,
+                                                  int sheetNr,
+                                                  Exercise exercise,
+                                                  ConsoleContext console,
+                                                  CancellationToken cancellation) throws IOException {
+            Path submissions = getSheetFolder(sheetNr);
             Files.createDirectories(submissions);
 
             Comparator<SubmissionRow> comp = Comparator.comparing(row -> row.getStudent().getGroupId());
-            List<Path> downloadedPaths = new ArrayList<>();
-            for (SubmissionRow row : rows.stream().sorted(comp).collect(toList())) {
-                Student student = row.getStudent();
-                int groupId = student.getGroupId();
-                String groupName = groupFolderNames.get(groupId);
-                Path groupFolder = submissions.resolve(groupName);
-                String fileName = String.format(fileNameFormat,
-                        exercise.getAlias(),
-                        student.getName().replace(" ", "-"),
-                        row.getFileName());
-                Path saveFile = groupFolder.resolve(fileName);
-                String fileUrl = row.getFileURL();
-                if (fileUrl != null) {
-                    moodle.download(fileUrl, saveFile);
-                    downloadedPaths.add(saveFile);
+            List<SubmissionRecord> downloaded = new ArrayList<>();
+            try (Progress progress = console.startTask("Download " + exercise.getAlias(), rows.size())) {
+                for (SubmissionRow row : rows.stream().sorted(comp).collect(toList())) {
+                    if (cancellation.isCancelled()) {
+                        break;
+                    }
+                    Optional<SubmissionRecord> record;
+                    try {
+                        record = downloadRow(downloader, catalog, groupFolderNames, row, sheetNr, exercise,
+                                submissions);
+                    } catch (IOException ioe) {
+                        console.error(ioe.getMessage());
+                        record = Optional.empty();
+                    }
+                    record.ifPresent(downloaded::add);
+                    progress.advance(1, record.map(SubmissionRecord::getSize).orElse(0L));
                 }
             }
 
-            return downloadedPaths;
+            return downloaded;
+        }
+
+        /**
+         * Downloads the submission of a single row and records it in the catalog. Safe to call from
+         * several threads at once.
+         *
+         * @return record of the downloaded submission or nothing if the row has no file
+         * @throws IOException if the download failed, nothing is recorded then
+         */
+        public Optional<SubmissionRecord> download(Downloader downloader,
+                                                   SubmissionCatalog catalog,
+                                                   Map<Integer, String> groupFolderNames,
+                                                   SubmissionRow row,
+                                                   int sheetNr,
+                                                   Exercise exercise) throws IOException {
+            Path submissions = getSheetFolder(sheetNr);
+            Files.createDirectories(submissions);
+            return downloadRow(downloader, catalog, groupFolderNames, row, sheetNr, exercise, submissions);
+        }
+
+        private Optional<SubmissionRecord> downloadRow(Downloader downloader,
+                                                       SubmissionCatalog catalog,
+                                                       Map<Integer, String> groupFolderNames,
+                                                       SubmissionRow row,
+                                                       int sheetNr,
+                                                       Exercise exercise,
+                                                       Path submissions) throws IOException {
+            Student student = row.getStudent();
+            int groupId = student.getGroupId();
+            String groupName = groupFolderNames.get(groupId);
+            Path groupFolder = submissions.resolve(groupName);
+            String fileName = String.format(fileNameFormat,
+                    exercise.getAlias(),
+                    student.getName().replace(" ", "-"),
+                    row.getFileName());
+            Path saveFile = groupFolder.resolve(fileName).toAbsolutePath();
+            String fileUrl = row.getFileURL();
+            if (fileUrl == null) {
+                return Optional.empty();
+            }
+            // throws if the download failed, a file left at saveFile by an earlier download is never recorded
+            downloader.download(fileUrl, saveFile);
+            SubmissionRecord record = SubmissionRecord.downloaded(sheetNr, exercise, student, fileUrl,
+                    saveFile, SubmissionCatalog.hash(saveFile), Files.size(saveFile), row.getDate());
+            catalog.put(record);
+            return Optional.of(record);
         }
 
         private static void createDirectories(Path p) {
@@ -119,32 +194,75 @@ public class FolderManager {
         }
 
 
-        public void savePathsForDownloadedSubmissions(final int sheetNr,
-                                                      final String name,
-                                                      final List<Path> downloadedPaths) throws IOException {
-            final String fileName = String.format("submissionPaths_%s.ser", name);
-            final Path folder = getSheetFolder(sheetNr);
-            Files.createDirectories(folder);
-            final Path submissionPaths = folder.resolve(fileName);
-            final ArrayList<URI> paths = downloadedPaths.stream()
-                    .map(Path::toAbsolutePath)
-                    .map(Path::toUri)
-                    .collect(toCollection(ArrayList::new));
-            Serial.write(submissionPaths.toFile(), paths);
+        /**
+         * Finds the unzipped submissions of the sheet. Exercises without records in the catalog fall back to
+         * the paths saved before the catalog existed, their archives were unzipped next to them.
+         */
+        public List<ExtractedSubmission> findExtractedSubmissions(final SubmissionCatalog catalog,
+                                                                  final int sheetNr,
+                                                                  final List<Exercise> exercises) throws IOException {
+            final List<ExtractedSubmission> submissions = new ArrayList<>();
+            for (Exercise exercise : exercises) {
+                final List<SubmissionRecord> records = catalog.bySheetAndExercise(sheetNr, exercise.getAlias());
+                if (records.isEmpty()) {
+                    final Optional<List<Path>> savedPaths = loadPathsForDownloadedSubmissions(sheetNr, exercise.getAlias());
+                    if (savedPaths.isPresent()) {
+                        submissions.addAll(legacySubmissions(exercise.getAlias(), savedPaths.get()));
+                    }
+                } else {
+                    records.stream()
+                            .filter(record -> record.getState() == SubmissionRecord.State.EXTRACTED)
+                            .filter(record -> record.getExtractedPath() != null)
+                            .filter(record -> Files.isDirectory(record.getExtractedPath()))
+                            .map(ExtractedSubmission::of)
+                            .forEach(submissions::add);
+                }
+            }
+            return submissions;
         }
 
+        // the group folders start with the group id, see createGroupFolderName
+        private static List<ExtractedSubmission> legacySubmissions(final String exerciseAlias,
+                                                                   final List<Path> archives) throws IOException {
+            final List<ExtractedSubmission> submissions = new ArrayList<>();
+            for (Path archive : archives) {
+                final Path root = archive.resolveSibling(archive.getFileName().toString().replace(".zip", ""));
+                final String groupFolder = archive.getParent().getFileName().toString();
+                if (!ZipUtils.isZip(archive) || !Files.isDirectory(root) || !groupFolder.matches("\\d+_.*")) {
+                    continue;
+                }
+                final int groupId = Integer.parseInt(groupFolder.substring(0, groupFolder.indexOf('_')));
+                final String hash = Files.size(archive) + "@" + Files.getLastModifiedTime(archive).toMillis();
+                submissions.add(new ExtractedSubmission(archive.toString(), exerciseAlias, groupId, groupFolder,
+                        hash, root));
+            }
+            return submissions;
+        }
+
+        /**
+         * Loads the paths of submissions which were downloaded before the {@link SubmissionCatalog}
+         * existed.
+         *
+         * @param sheetNr number of the sheet
+         * @param name    alias of the exercise
+         * @return saved paths or empty if there is no manifest
+         */
         public Optional<List<Path>> loadPathsForDownloadedSubmissions(final int sheetNr, final String name) {
             try {
                 final String fileName = String.format("submissionPaths_%s.ser", name);
                 final Path folder = getSheetFolder(sheetNr);
                 final Path submissionPaths = folder.resolve(fileName);
-                List<URI> absolutePaths = Serial.read(submissionPaths.toFile());
-                return Optional.of(absolutePaths.stream().map(Paths::get).collect(Collectors.toList()));
+                return Optional.of(Serial.read(submissionPaths.toFile(), Codecs.PATH_LIST, ExerciseManager::fromUris));
             } catch(Exception e) {
                 return Optional.empty();
             }
         }
 
+        @SuppressWarnings("unchecked")
+        private static List<Path> fromUris(Object legacy) {
+            return ((List<URI>) legacy).stream().map(Paths::get).collect(Collectors.toList());
+        }
+
         public void deleteSavedPathsMetadata(final int sheetNr, final String name) throws IOException {
             final String fileName = String.format("submissionPaths_%s.ser", name);
             final Path folder = getSheetFolder(sheetNr);
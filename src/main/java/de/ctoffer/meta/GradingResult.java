@@ -0,0 +1,81 @@
+package de.ctoffer.meta;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Points a group achieved for one exercise of a sheet.
+ */
+public class GradingResult {
+    private final int groupId;
+    private final int sheetNr;
+    private final String exerciseAlias;
+    private final double points;
+    private final String note;
+
+    public GradingResult(final int groupId,
+                         final int sheetNr,
+                         final String exerciseAlias,
+                         final double points,
+                         final String note) {
+        this.groupId = groupId;
+        this.sheetNr = sheetNr;
+        this.exerciseAlias = Objects.requireNonNull(exerciseAlias);
+        this.points = points;
+        this.note = note == null ? "" : note;
+    }
+
+    /**
+     * Creates the results of the reference tests recorded in the catalog, one point per passed test. If
+     * several students of a group submitted an exercise, the submission tested last counts.
+     *
+     * @param records records of the submissions, the ones never tested are skipped
+     * @return results ordered by sheet, group and exercise
+     */
+    public static List<GradingResult> fromTestRuns(final Collection<SubmissionRecord> records) {
+        final Map<String, SubmissionRecord> latest = new LinkedHashMap<>();
+        for (SubmissionRecord record : records) {
+            if (record.getTestedAt() == 0) {
+                continue;
+            }
+            latest.merge(record.getSheetNr() + "/" + record.getGroupId() + "/" + record.getExerciseAlias(), record,
+                    (known, other) -> other.getTestedAt() > known.getTestedAt() ? other : known);
+        }
+
+        final List<GradingResult> results = new ArrayList<>();
+        for (SubmissionRecord record : latest.values()) {
+            results.add(new GradingResult(record.getGroupId(), record.getSheetNr(), record.getExerciseAlias(),
+                    record.getTestsPassed(),
+                    String.format("%d von %d Tests bestanden", record.getTestsPassed(), record.getTestsRun())));
+        }
+        results.sort(Comparator.comparingInt(GradingResult::getSheetNr)
+                .thenComparingInt(GradingResult::getGroupId)
+                .thenComparing(GradingResult::getExerciseAlias));
+        return results;
+    }
+
+    public int getGroupId() {
+        return groupId;
+    }
+
+    public int getSheetNr() {
+        return sheetNr;
+    }
+
+    public String getExerciseAlias() {
+        return exerciseAlias;
+    }
+
+    public double getPoints() {
+        return points;
+    }
+
+    public String getNote() {
+        return note;
+    }
+}
@@ -10,6 +10,7 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,10 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class MetaManager implements AutoCloseable{
+    public static final List<String> TESTAT_HEADERS = Collections.unmodifiableList(Arrays.asList(
+            "Start", "Ende", "Person 1", "Person 2", "Person 3", "Anmerkung"
+    ));
+
     private final XSSFWorkbook workbook;
     private final List<Student> studentList;
 
@@ -35,6 +40,10 @@ public class MetaManager implements AutoCloseable{
         }
     }
 
+    public Roster getRoster() {
+        return new Roster(studentList);
+    }
+
     public Map<Integer, List<Student>> getGroups() {
         return studentList.stream().collect(Collectors.groupingBy(Student::getGroupId));
     }
@@ -53,19 +62,15 @@ public class MetaManager implements AutoCloseable{
         XSSFSheet sheet = workbook.getSheet(sheetName);
         if(sheet == null) {
             sheet = workbook.createSheet(sheetName);
-
+            createHeaders(sheet);
         }
     }
 
     private void createHeaders(XSSFSheet sheet) {
-        Row headerRow = sheet.getRow(0);
-        int i = 0;
-        headerRow.getCell(i++).setCellValue("Start");
-        headerRow.getCell(i++).setCellValue("Ende");
-        headerRow.getCell(i++).setCellValue("Person 1");
-        headerRow.getCell(i++).setCellValue("Person 2");
-        headerRow.getCell(i++).setCellValue("Person 3");
-        headerRow.getCell(i++).setCellValue("Anmerkung");
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < TESTAT_HEADERS.size(); ++i) {
+            headerRow.createCell(i).setCellValue(TESTAT_HEADERS.get(i));
+        }
     }
 
     @Override
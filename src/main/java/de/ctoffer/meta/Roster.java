@@ -0,0 +1,39 @@
+package de.ctoffer.meta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable list of all students of the course, as read from the "Metadaten"
+ * sheet of the organisation workbook.
+ *
+ * @see MetaManager
+ * @see RosterCache
+ */
+public class Roster {
+    private final List<Student> studentList;
+
+    public Roster(final List<Student> students) {
+        this.studentList = Collections.unmodifiableList(new ArrayList<>(students));
+    }
+
+    public Map<Integer, List<Student>> getGroups() {
+        return studentList.stream().collect(Collectors.groupingBy(Student::getGroupId));
+    }
+
+    public Stream<Student> students() {
+        return studentList.stream();
+    }
+
+    public List<Student> studentList() {
+        return studentList;
+    }
+
+    public int size() {
+        return studentList.size();
+    }
+}
@@ -0,0 +1,188 @@
+package de.ctoffer.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Keeps a compact binary snapshot of the {@link Roster} next to the course data, so the
+ * organisation workbook only has to be parsed by POI when it was actually modified.
+ *
+ * <p>
+ * The snapshot is keyed by the absolute path, the size and the last modification time of
+ * the workbook. If any of them differ from the values stored in the snapshot, the workbook
+ * is parsed again and the snapshot is replaced.
+ * </p>
+ * Layout of the snapshot file:
+ * <pre><code>
+ *     int    MAGIC
+ *     int    VERSION
+ *     UTF    absolute path of the workbook
+ *     long   size of the workbook
+ *     long   last modified time of the workbook in millis
+ *     int    number of students
+ *     (int muesliId, int moodleId, int groupId, UTF name, UTF mail)*
+ * </code></pre>
+ */
+public class RosterCache {
+    private static final Logger logger = LogManager.getLogger(RosterCache.class);
+    private static final int MAGIC = 0x53454152;
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_NAME = "roster.bin";
+
+    private final Path snapshot;
+
+    public RosterCache(final Path home) {
+        this.snapshot = home.resolve(FolderManager.CACHE_FOLDER).resolve(SNAPSHOT_NAME);
+    }
+
+    /**
+     * Loads the roster of the given workbook. Uses the snapshot if it is still valid for the
+     * workbook, otherwise parses the workbook and refreshes the snapshot.
+     *
+     * @param workbook path to the organisation workbook
+     * @return roster of the workbook
+     * @throws IOException if the workbook could not be read
+     */
+    public Roster load(final Path workbook) throws IOException {
+        final WorkbookKey key = WorkbookKey.of(workbook);
+        final Optional<Roster> cached = readSnapshot(key);
+        if (cached.isPresent()) {
+            logger.debug("Roster snapshot hit for {}", workbook);
+            return cached.get();
+        }
+
+        logger.debug("Roster snapshot miss for {}, parsing workbook", workbook);
+        final Roster roster;
+        try (MetaManager manager = new MetaManager(workbook)) {
+            roster = manager.getRoster();
+        }
+        writeSnapshot(key, roster);
+        return roster;
+    }
+
+    public void invalidate() throws IOException {
+        Files.deleteIfExists(snapshot);
+    }
+
+    private Optional<Roster> readSnapshot(final WorkbookKey key) {
+        if (!Files.isRegularFile(snapshot)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return Optional.empty();
+            }
+            if (!key.equals(WorkbookKey.read(in))) {
+                return Optional.empty();
+            }
+
+            final int count = in.readInt();
+            final List<Student> students = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                students.add(new Student(in.readInt(), in.readInt(), in.readInt(), in.readUTF(), in.readUTF()));
+            }
+            return Optional.of(new Roster(students));
+        } catch (IOException ioe) {
+            logger.warn("Discarding unreadable roster snapshot {}: {}", snapshot, ioe.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // the roster is parsed already, a snapshot which can't be written only costs the next start some time
+    private void writeSnapshot(final WorkbookKey key, final Roster roster) {
+        Path temp = null;
+        try {
+            Files.createDirectories(snapshot.getParent());
+            temp = Files.createTempFile(snapshot.getParent(), SNAPSHOT_NAME, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                key.write(out);
+                out.writeInt(roster.size());
+                for (Student student : roster.studentList()) {
+                    out.writeInt(student.getMuesliId());
+                    out.writeInt(student.getMoodleId());
+                    out.writeInt(student.getGroupId());
+                    out.writeUTF(student.getName());
+                    out.writeUTF(student.getMail());
+                }
+            }
+            Files.move(temp, snapshot, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            logger.error("Could not write roster snapshot {}: {}", snapshot, ioe.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    private static void deleteQuietly(final Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ioe) {
+            logger.warn("Could not delete {}: {}", temp, ioe.getMessage());
+        }
+    }
+
+    private static class WorkbookKey {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        private WorkbookKey(final String path, final long size, final long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        static WorkbookKey of(final Path workbook) throws IOException {
+            final BasicFileAttributes attributes = Files.readAttributes(workbook, BasicFileAttributes.class);
+            return new WorkbookKey(
+                    workbook.toAbsolutePath().normalize().toString(),
+                    attributes.size(),
+                    attributes.lastModifiedTime().toMillis()
+            );
+        }
+
+        static WorkbookKey read(final DataInputStream in) throws IOException {
+            return new WorkbookKey(in.readUTF(), in.readLong(), in.readLong());
+        }
+
+        void write(final DataOutputStream out) throws IOException {
+            out.writeUTF(path);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof WorkbookKey)) {
+                return false;
+            }
+            final WorkbookKey other = (WorkbookKey) obj;
+            return path.equals(other.path) && size == other.size && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode() * 31 + Long.hashCode(size) * 11 + Long.hashCode(lastModified);
+        }
+    }
+}
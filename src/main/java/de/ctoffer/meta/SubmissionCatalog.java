@@ -0,0 +1,392 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.StorageException;
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only store of all {@link SubmissionRecord}s of a course with an in-memory index.
+ *
+ * <p>
+ * Every {@link #put(SubmissionRecord)} appends one frame {@code (varint length, record, crc32)}
+ * to the catalog file; a record with an already known {@link SubmissionRecord#key()} replaces
+ * the previous one. On {@link #open(Path)} the whole log is replayed into the index. A torn
+ * frame at the end of the file (e.g. after a crash) is cut off, and the log is compacted if
+ * most of its frames were replaced by newer ones or if it was written by an older version.
+ * A frame with a wrong checksum is skipped and the log compacted without it; before any data
+ * is cut off or skipped the file is copied to a '.damaged' backup next to it.
+ * </p>
+ * <p>
+ * All commands of a JVM share one instance per file, {@link #open(Path)} hands out the open
+ * instance and only the last {@link #close()} closes it. Other processes are kept out by a
+ * lock on a '.lock' file next to the catalog, which is held while the catalog is open.
+ * </p>
+ * Lookups by sheet, group and student are answered from the index without touching the file.
+ */
+public class SubmissionCatalog implements AutoCloseable {
+    public static final String CATALOG_NAME = "submissions.catalog";
+    private static final Logger logger = LogManager.getLogger(SubmissionCatalog.class);
+    private static final int MAGIC = 0x53454153;
+    // written into the header, the records of a catalog are read with the codec version of the same number
+    private static final int VERSION = 2;
+    private static final int COMPACTION_THRESHOLD = 1000;
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final Map<Path, SubmissionCatalog> OPEN = new HashMap<>();
+
+    private final Path location;
+    private int users = 0;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private final Map<String, SubmissionRecord> latest = new LinkedHashMap<>();
+    private final Map<Integer, Set<String>> bySheet = new HashMap<>();
+    private final Map<Integer, Set<String>> byGroup = new HashMap<>();
+    private final Map<Integer, Set<String>> byStudent = new HashMap<>();
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream();
+    private final BinaryWriter encoder = new BinaryWriter(Channels.newChannel(scratch));
+    private FileChannel channel;
+
+    private SubmissionCatalog(final Path location) {
+        this.location = location;
+    }
+
+    /**
+     * @throws IOException if the catalog can't be read or is used by another process
+     */
+    public static SubmissionCatalog open(final Path location) throws IOException {
+        final Path key = location.toAbsolutePath().normalize();
+        synchronized (OPEN) {
+            SubmissionCatalog catalog = OPEN.get(key);
+            if (catalog == null) {
+                catalog = new SubmissionCatalog(key);
+                catalog.lock();
+                try {
+                    catalog.load();
+                } catch (IOException | RuntimeException e) {
+                    catalog.release();
+                    throw e;
+                }
+                OPEN.put(key, catalog);
+            }
+            ++catalog.users;
+            return catalog;
+        }
+    }
+
+    private void lock() throws IOException {
+        Files.createDirectories(location.getParent());
+        lockChannel = FileChannel.open(location.resolveSibling(location.getFileName() + LOCK_SUFFIX), CREATE, WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by this JVM under another path of the same file
+            lock = null;
+        } catch (IOException e) {
+            lockChannel.close();
+            throw e;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("'" + location + "' is used by another process");
+        }
+    }
+
+    private void load() throws IOException {
+        channel = FileChannel.open(location, CREATE, READ, WRITE);
+        final long size = channel.size();
+        if (size < Integer.BYTES + 1) {
+            // empty, or a crash while the header was written
+            channel.truncate(0);
+            writeHeader(channel);
+            return;
+        }
+
+        final BinaryReader in = new BinaryReader(channel);
+        if (in.readInt() != MAGIC) {
+            throw new StorageException("'" + location + "' is no submission catalog");
+        }
+        final int version = in.readVarInt();
+        if (version < 1 || version > VERSION) {
+            throw new StorageException("Unsupported version " + version + " of submission catalog '" + location + "'");
+        }
+
+        long validUntil = Integer.BYTES + varIntSize(version);
+        int frames = 0;
+        int skipped = 0;
+        while (validUntil < size) {
+            final int length;
+            try {
+                length = in.readVarInt();
+            } catch (EOFException eof) {
+                break;
+            }
+            if (length < 0) {
+                throw new StorageException("Damaged frame in '" + location + "' at offset " + validUntil);
+            }
+            final long frameSize = varIntSize(length) + (long) length + Integer.BYTES;
+            if (validUntil + frameSize > size) {
+                break;
+            }
+            final byte[] payload = in.readFully(length);
+            final int crc = in.readInt();
+            if (crc == crcOf(payload)) {
+                index(SubmissionRecord.CODEC.read(new BinaryReader(payload), version));
+            } else {
+                logger.warn("Skipping frame with checksum mismatch in '{}' at offset {}", location, validUntil);
+                ++skipped;
+            }
+            validUntil += frameSize;
+            ++frames;
+        }
+
+        if (validUntil < size) {
+            logger.warn("Torn record at the end of '{}', cutting off {} bytes at offset {}", location,
+                    size - validUntil, validUntil);
+            backUp();
+            channel.truncate(validUntil);
+        }
+        channel.position(channel.size());
+
+        if (skipped > 0) {
+            backUp();
+        }
+        // an older catalog is rewritten once, appending records of the current version would mix both
+        if (skipped > 0 || version < VERSION || frames > COMPACTION_THRESHOLD && frames > 2 * latest.size()) {
+            compact();
+        }
+    }
+
+    private void backUp() throws IOException {
+        final Path backup = location.resolveSibling(location.getFileName() + "." + System.currentTimeMillis()
+                + ".damaged");
+        if (Files.notExists(backup)) {
+            Files.copy(location, backup);
+            logger.warn("Saved a copy of the damaged catalog as '{}'", backup);
+        }
+    }
+
+    private static void writeHeader(final FileChannel target) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + varIntSize(VERSION));
+        header.putInt(MAGIC);
+        header.put((byte) VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            target.write(header);
+        }
+    }
+
+    private void compact() throws IOException {
+        logger.info("Compacting '{}' to {} records", location, latest.size());
+        final Path temp = Files.createTempFile(location.toAbsolutePath().getParent(), CATALOG_NAME, ".tmp");
+        try (FileChannel target = FileChannel.open(temp, WRITE)) {
+            writeHeader(target);
+            for (SubmissionRecord record : latest.values()) {
+                writeFrame(target, record);
+            }
+            target.force(true);
+        }
+        channel.close();
+        Files.move(temp, location, REPLACE_EXISTING, ATOMIC_MOVE);
+        channel = FileChannel.open(location, READ, WRITE);
+        channel.position(channel.size());
+    }
+
+    /**
+     * Appends the record to the catalog. It replaces any record with the same key.
+     *
+     * @param record record to store
+     */
+    public synchronized void put(final SubmissionRecord record) {
+        try {
+            writeFrame(channel, record);
+        } catch (IOException ioe) {
+            throw new StorageException(ioe);
+        }
+        index(record);
+    }
+
+    private void writeFrame(final FileChannel target, final SubmissionRecord record) throws IOException {
+        scratch.reset();
+        SubmissionRecord.CODEC.write(record, encoder);
+        encoder.flush();
+        final byte[] payload = scratch.toByteArray();
+
+        final ByteBuffer frame = ByteBuffer.allocate(varIntSize(payload.length) + payload.length + Integer.BYTES);
+        int length = payload.length;
+        while ((length & ~0x7F) != 0) {
+            frame.put((byte) ((length & 0x7F) | 0x80));
+            length >>>= 7;
+        }
+        frame.put((byte) length);
+        frame.put(payload);
+        frame.putInt(crcOf(payload));
+        frame.flip();
+        while (frame.hasRemaining()) {
+            target.write(frame);
+        }
+    }
+
+    private void index(final SubmissionRecord record) {
+        final String key = record.key();
+        final SubmissionRecord previous = latest.put(key, record);
+        if (previous != null && previous.getGroupId() != record.getGroupId()) {
+            byGroup.get(previous.getGroupId()).remove(key);
+        }
+        bySheet.computeIfAbsent(record.getSheetNr(), k -> new LinkedHashSet<>()).add(key);
+        byGroup.computeIfAbsent(record.getGroupId(), k -> new LinkedHashSet<>()).add(key);
+        byStudent.computeIfAbsent(record.getMoodleId(), k -> new LinkedHashSet<>()).add(key);
+    }
+
+    public synchronized Optional<SubmissionRecord> get(final int sheetNr, final String exerciseAlias, final int moodleId) {
+        return Optional.ofNullable(latest.get(sheetNr + "/" + exerciseAlias + "/" + moodleId));
+    }
+
+    /**
+     * @param key {@link SubmissionRecord#key()} of the record
+     */
+    public synchronized Optional<SubmissionRecord> get(final String key) {
+        return Optional.ofNullable(latest.get(key));
+    }
+
+    public synchronized List<SubmissionRecord> bySheet(final int sheetNr) {
+        return resolve(bySheet.get(sheetNr), record -> true);
+    }
+
+    public synchronized List<SubmissionRecord> bySheetAndExercise(final int sheetNr, final String exerciseAlias) {
+        return resolve(bySheet.get(sheetNr), record -> record.getExerciseAlias().equals(exerciseAlias));
+    }
+
+    public synchronized List<SubmissionRecord> byGroup(final int groupId) {
+        return resolve(byGroup.get(groupId), record -> true);
+    }
+
+    public synchronized List<SubmissionRecord> byStudent(final int moodleId) {
+        return resolve(byStudent.get(moodleId), record -> true);
+    }
+
+    public synchronized Collection<SubmissionRecord> all() {
+        return Collections.unmodifiableList(new ArrayList<>(latest.values()));
+    }
+
+    private List<SubmissionRecord> resolve(final Set<String> keys, final Predicate<SubmissionRecord> filter) {
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        return keys.stream()
+                .map(latest::get)
+                .filter(filter)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the SHA-256 of the given file as lower case hex string.
+     *
+     * @param file file to hash
+     * @return hex encoded hash
+     * @throws IOException if the file can't be read
+     */
+    public static String hash(final Path file) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            final StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int crcOf(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static int varIntSize(final int value) {
+        int size = 1;
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            remaining >>>= 7;
+            ++size;
+        }
+        return size;
+    }
+
+    /**
+     * Closes the catalog once every opener closed it.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (OPEN) {
+            if (users == 0) {
+                return;
+            }
+            if (--users > 0) {
+                return;
+            }
+            OPEN.remove(location);
+            synchronized (this) {
+                try {
+                    channel.force(false);
+                    channel.close();
+                } finally {
+                    release();
+                }
+            }
+        }
+    }
+
+    private void release() throws IOException {
+        try {
+            if (channel != null && channel.isOpen()) {
+                channel.close();
+            }
+            if (lock != null) {
+                lock.release();
+            }
+        } finally {
+            lockChannel.close();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import de.ctoffer.util.codec.Codec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * Everything known about one downloaded submission of a student for one exercise of a sheet.
+ * Records are immutable; a changed state is stored as a new record with the same {@link #key()}.
+ *
+ * @see SubmissionCatalog
+ */
+public class SubmissionRecord {
+    public enum State {
+        DOWNLOADED, EXTRACTED, FAILED
+    }
+
+    private final int sheetNr;
+    private final String exerciseAlias;
+    private final int moodleId;
+    private final String studentName;
+    private final int groupId;
+    private final String url;
+    private final Path localPath;
+    private final Path extractedPath;
+    private final String hash;
+    private final long size;
+    private final String submitted;
+    private final long downloadedAt;
+    private final long extractedAt;
+    private final State state;
+    private final int testsRun;
+    private final int testsPassed;
+    private final long testedAt;
+
+    public SubmissionRecord(final int sheetNr,
+                            final String exerciseAlias,
+                            final int moodleId,
+                            final String studentName,
+                            final int groupId,
+                            final String url,
+                            final Path localPath,
+                            final Path extractedPath,
+                            final String hash,
+                            final long size,
+                            final String submitted,
+                            final long downloadedAt,
+                            final long extractedAt,
+                            final State state) {
+        this(sheetNr, exerciseAlias, moodleId, studentName, groupId, url, localPath, extractedPath, hash, size,
+                submitted, downloadedAt, extractedAt, state, 0, 0, 0);
+    }
+
+    private SubmissionRecord(final int sheetNr,
+                             final String exerciseAlias,
+                             final int moodleId,
+                             final String studentName,
+                             final int groupId,
+                             final String url,
+                             final Path localPath,
+                             final Path extractedPath,
+                             final String hash,
+                             final long size,
+                             final String submitted,
+                             final long downloadedAt,
+                             final long extractedAt,
+                             final State state,
+                             final int testsRun,
+                             final int testsPassed,
+                             final long testedAt) {
+        this.sheetNr = sheetNr;
+        this.exerciseAlias = Objects.requireNonNull(exerciseAlias);
+        this.moodleId = moodleId;
+        this.studentName = Objects.requireNonNull(studentName);
+        this.groupId = groupId;
+        this.url = url == null ? "" : url;
+        this.localPath = Objects.requireNonNull(localPath);
+        this.extractedPath = extractedPath;
+        this.hash = hash == null ? "" : hash;
+        this.size = size;
+        this.submitted = submitted == null ? "" : submitted;
+        this.downloadedAt = downloadedAt;
+        this.extractedAt = extractedAt;
+        this.state = Objects.requireNonNull(state);
+        this.testsRun = testsRun;
+        this.testsPassed = testsPassed;
+        this.testedAt = testedAt;
+    }
+
+    public static SubmissionRecord downloaded(final int sheetNr,
+                                              final Exercise exercise,
+                                              final Student student,
+                                              final String url,
+                                              final Path localPath,
+                                              final String hash,
+                                              final long size,
+                                              final String submitted) {
+        return new SubmissionRecord(sheetNr, exercise.getAlias(), student.getMoodleId(), student.getName(),
+                student.getGroupId(), url, localPath, null, hash, size, submitted,
+                System.currentTimeMillis(), 0, State.DOWNLOADED);
+    }
+
+    public SubmissionRecord extracted(final Path destination) {
+        return new SubmissionRecord(sheetNr, exerciseAlias, moodleId, studentName, groupId, url, localPath,
+                destination, hash, size, submitted, downloadedAt, System.currentTimeMillis(), State.EXTRACTED);
+    }
+
+    /**
+     * @return this record as it was before the archive was extracted
+     */
+    public SubmissionRecord withoutExtraction() {
+        return new SubmissionRecord(sheetNr, exerciseAlias, moodleId, studentName, groupId, url, localPath,
+                null, hash, size, submitted, downloadedAt, 0, State.DOWNLOADED);
+    }
+
+    public SubmissionRecord failed() {
+        return new SubmissionRecord(sheetNr, exerciseAlias, moodleId, studentName, groupId, url, localPath,
+                extractedPath, hash, size, submitted, downloadedAt, System.currentTimeMillis(), State.FAILED);
+    }
+
+    /**
+     * @return this record with the result of the last run of the reference tests
+     */
+    public SubmissionRecord tested(final int run, final int passed) {
+        return new SubmissionRecord(sheetNr, exerciseAlias, moodleId, studentName, groupId, url, localPath,
+                extractedPath, hash, size, submitted, downloadedAt, extractedAt, state, run, passed,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * @return identity of the submission: sheet, exercise and student
+     */
+    public String key() {
+        return sheetNr + "/" + exerciseAlias + "/" + moodleId;
+    }
+
+    public int getSheetNr() {
+        return sheetNr;
+    }
+
+    public String getExerciseAlias() {
+        return exerciseAlias;
+    }
+
+    public int getMoodleId() {
+        return moodleId;
+    }
+
+    public String getStudentName() {
+        return studentName;
+    }
+
+    public int getGroupId() {
+        return groupId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Path getLocalPath() {
+        return localPath;
+    }
+
+    public Path getExtractedPath() {
+        return extractedPath;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getSubmitted() {
+        return submitted;
+    }
+
+    public long getDownloadedAt() {
+        return downloadedAt;
+    }
+
+    public long getExtractedAt() {
+        return extractedAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getTestsRun() {
+        return testsRun;
+    }
+
+    public int getTestsPassed() {
+        return testsPassed;
+    }
+
+    /**
+     * @return time of the last run of the reference tests, 0 if they never ran
+     */
+    public long getTestedAt() {
+        return testedAt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Submission(%s, group=%s, %s, %s)", key(), groupId, state, localPath.getFileName());
+    }
+
+    static final Codec<SubmissionRecord> CODEC = new Codec<SubmissionRecord>() {
+        @Override
+        public String id() {
+            return "submission-record";
+        }
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public void write(final SubmissionRecord value, final BinaryWriter out) throws IOException {
+            out.writeVarInt(value.sheetNr);
+            out.writeString(value.exerciseAlias);
+            out.writeVarInt(value.moodleId);
+            out.writeString(value.studentName);
+            out.writeVarInt(value.groupId);
+            out.writeString(value.url);
+            out.writeString(value.localPath.toString());
+            out.writeString(value.extractedPath == null ? "" : value.extractedPath.toString());
+            out.writeString(value.hash);
+            out.writeLong(value.size);
+            out.writeString(value.submitted);
+            out.writeLong(value.downloadedAt);
+            out.writeLong(value.extractedAt);
+            out.writeByte(value.state.ordinal());
+            out.writeVarInt(value.testsRun);
+            out.writeVarInt(value.testsPassed);
+            out.writeLong(value.testedAt);
+        }
+
+        @Override
+        public SubmissionRecord read(final BinaryReader in, final int version) throws IOException {
+            if (version < 1 || version > 2) {
+                throw new IOException("Unsupported version " + version + " of codec '" + id() + "'");
+            }
+            final int sheetNr = in.readVarInt();
+            final String exerciseAlias = in.readString();
+            final int moodleId = in.readVarInt();
+            final String studentName = in.readString();
+            final int groupId = in.readVarInt();
+            final String url = in.readString();
+            final Path localPath = Paths.get(in.readString());
+            final String extracted = in.readString();
+            final String hash = in.readString();
+            final long size = in.readLong();
+            final String submitted = in.readString();
+            final long downloadedAt = in.readLong();
+            final long extractedAt = in.readLong();
+            final State state = State.values()[in.readByte()];
+            // version 1 knew nothing about tests
+            final int testsRun = version >= 2 ? in.readVarInt() : 0;
+            final int testsPassed = version >= 2 ? in.readVarInt() : 0;
+            final long testedAt = version >= 2 ? in.readLong() : 0;
+            return new SubmissionRecord(sheetNr, exerciseAlias, moodleId, studentName, groupId, url, localPath,
+                    extracted.isEmpty() ? null : Paths.get(extracted), hash, size, submitted,
+                    downloadedAt, extractedAt, state, testsRun, testsPassed, testedAt);
+        }
+    };
+}
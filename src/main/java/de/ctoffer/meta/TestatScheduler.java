@@ -0,0 +1,179 @@
+package de.ctoffer.meta;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns every group to a Testat slot of a tutor, such that no slot is used twice and
+ * every group only gets a slot inside its own availability.
+ *
+ * <p>
+ * The availability of all tutors is cut into slots of the configured length. Groups are
+ * placed in order of their number of possible slots (most constrained first) and each
+ * group tries its possible slots in chronological order. If all of them are taken, the
+ * search tries to move the owning group to another of its slots (augmenting path). Slots
+ * which were already visited during the placement of a group are pruned, so placing one
+ * group follows every (group, slot) option at most once. The whole search is in
+ * O(groups * options), with options the number of (group, slot) pairs of all groups;
+ * 150 groups and 10 tutors take a few milliseconds, see TestatSchedulerTest.
+ * </p>
+ * Groups for which no slot is left are reported in {@link Result#getUnassignedGroups()}.
+ */
+public class TestatScheduler {
+    private final Duration slotLength;
+
+    public TestatScheduler(final Duration slotLength) {
+        if (slotLength.isNegative() || slotLength.isZero()) {
+            throw new IllegalArgumentException("Slot length must be positive!");
+        }
+        this.slotLength = slotLength;
+    }
+
+    /**
+     * Computes the schedule.
+     *
+     * @param groups            all groups with their members
+     * @param tutors            availability of all tutors
+     * @param groupAvailability availability of groups; groups without entry are always available
+     * @return assigned slots and groups without a slot
+     */
+    public Result schedule(final Map<Integer, List<Student>> groups,
+                           final List<TutorAvailability> tutors,
+                           final Map<Integer, List<TimeWindow>> groupAvailability) {
+        final List<Slot> slots = createSlots(tutors);
+        final List<Integer> groupIds = new ArrayList<>(groups.keySet());
+        final int[][] options = new int[groupIds.size()][];
+        // groups often share their availability, the options are only read, so they are shared as well
+        final Map<List<TimeWindow>, int[]> optionsByAvailability = new HashMap<>();
+        for (int group = 0; group < groupIds.size(); ++group) {
+            options[group] = optionsByAvailability.computeIfAbsent(
+                    groupAvailability.getOrDefault(groupIds.get(group), Collections.emptyList()),
+                    availability -> findOptions(slots, availability));
+        }
+
+        final int[] owner = new int[slots.size()];
+        Arrays.fill(owner, -1);
+        final List<Integer> order = new ArrayList<>();
+        for (int group = 0; group < groupIds.size(); ++group) {
+            order.add(group);
+        }
+        order.sort(Comparator.comparingInt((Integer group) -> options[group].length)
+                .thenComparing(groupIds::get));
+
+        final List<Integer> unassigned = new ArrayList<>();
+        final boolean[] visited = new boolean[slots.size()];
+        for (int group : order) {
+            Arrays.fill(visited, false);
+            if (!place(group, options, owner, visited)) {
+                unassigned.add(groupIds.get(group));
+            }
+        }
+
+        final List<TestatSlot> result = new ArrayList<>();
+        for (int slot = 0; slot < slots.size(); ++slot) {
+            if (owner[slot] != -1) {
+                final int groupId = groupIds.get(owner[slot]);
+                result.add(slots.get(slot).toTestatSlot(groupId, groups.get(groupId)));
+            }
+        }
+        Collections.sort(unassigned);
+        return new Result(result, unassigned);
+    }
+
+    private List<Slot> createSlots(final List<TutorAvailability> tutors) {
+        final List<Slot> slots = new ArrayList<>();
+        for (TutorAvailability tutor : tutors) {
+            for (TimeWindow window : tutor.getWindows()) {
+                LocalDateTime start = window.getStart();
+                LocalDateTime end = start.plus(slotLength);
+                while (!end.isAfter(window.getEnd())) {
+                    slots.add(new Slot(tutor.getName(), start, end));
+                    start = end;
+                    end = start.plus(slotLength);
+                }
+            }
+        }
+        slots.sort(Comparator.comparing((Slot slot) -> slot.start).thenComparing(slot -> slot.tutor));
+        return slots;
+    }
+
+    private static int[] findOptions(final List<Slot> slots, final List<TimeWindow> availability) {
+        final int[] candidates = new int[slots.size()];
+        int count = 0;
+        for (int slot = 0; slot < slots.size(); ++slot) {
+            if (availability.isEmpty() || slots.get(slot).isInside(availability)) {
+                candidates[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private static boolean place(final int group, final int[][] options, final int[] owner, final boolean[] visited) {
+        for (int slot : options[group]) {
+            if (visited[slot]) {
+                continue;
+            }
+            visited[slot] = true;
+            if (owner[slot] == -1 || place(owner[slot], options, owner, visited)) {
+                owner[slot] = group;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Slot {
+        private final String tutor;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Slot(final String tutor, final LocalDateTime start, final LocalDateTime end) {
+            this.tutor = tutor;
+            this.start = start;
+            this.end = end;
+        }
+
+        private boolean isInside(final List<TimeWindow> windows) {
+            return windows.stream().anyMatch(window -> window.contains(start, end));
+        }
+
+        private TestatSlot toTestatSlot(final int groupId, final List<Student> members) {
+            final List<String> persons = members.stream()
+                    .map(Student::getName)
+                    .limit(TestatSlot.MAX_PERSONS)
+                    .collect(Collectors.toList());
+            return new TestatSlot(start, end, persons, String.format("Gruppe %02d, Tutor: %s", groupId, tutor));
+        }
+    }
+
+    public static class Result {
+        private final List<TestatSlot> slots;
+        private final List<Integer> unassignedGroups;
+
+        private Result(final List<TestatSlot> slots, final List<Integer> unassignedGroups) {
+            this.slots = Collections.unmodifiableList(Objects.requireNonNull(slots));
+            this.unassignedGroups = Collections.unmodifiableList(Objects.requireNonNull(unassignedGroups));
+        }
+
+        public List<TestatSlot> getSlots() {
+            return slots;
+        }
+
+        public List<Integer> getUnassignedGroups() {
+            return unassignedGroups;
+        }
+
+        public boolean isComplete() {
+            return unassignedGroups.isEmpty();
+        }
+    }
+}
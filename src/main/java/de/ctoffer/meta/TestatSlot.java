@@ -0,0 +1,49 @@
+package de.ctoffer.meta;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One row of a Testat sheet: an appointment from start to end with up to
+ * {@link #MAX_PERSONS} attending persons and an optional note.
+ */
+public class TestatSlot {
+    public static final int MAX_PERSONS = 3;
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final List<String> persons;
+    private final String note;
+
+    public TestatSlot(final LocalDateTime start, final LocalDateTime end, final List<String> persons, final String note) {
+        this.start = Objects.requireNonNull(start);
+        this.end = Objects.requireNonNull(end);
+        if (persons.size() > MAX_PERSONS) {
+            throw new IllegalArgumentException("A Testat slot has room for at most " + MAX_PERSONS + " persons!");
+        }
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("A Testat slot must end after it started!");
+        }
+        this.persons = Collections.unmodifiableList(new ArrayList<>(persons));
+        this.note = note == null ? "" : note;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public List<String> getPersons() {
+        return persons;
+    }
+
+    public String getNote() {
+        return note;
+    }
+}
@@ -0,0 +1,181 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Bulk writer for the Testat sheets and the grading results of the organisation workbook.
+ *
+ * <p>
+ * The existing workbook is used as template, so sheets like "Metadaten" are kept as they are.
+ * All sheets written by this class are created through POI's streaming SXSSF API, which keeps
+ * only the last {@code rowWindow} rows of every sheet on the heap and flushes older rows to a
+ * compressed temp file. A sheet which is written again replaces the old one.
+ * </p>
+ *
+ * <p>
+ * Nothing is visible in the workbook until {@link #commit()} is called, which saves to a temp
+ * file next to the workbook and atomically renames it over the original.
+ * </p>
+ * <pre><code>
+ * try (TestatWorkbookWriter writer = new TestatWorkbookWriter(workbook, config)) {
+ *     writer.writeSchedule("3", slots);
+ *     writer.writeResults(results);
+ *     writer.commit();
+ * }
+ * </code></pre>
+ */
+public class TestatWorkbookWriter implements AutoCloseable {
+    public static final int DEFAULT_ROW_WINDOW = 100;
+    public static final String RESULT_SHEET = "Bewertung";
+    private static final List<String> RESULT_HEADERS = Arrays.asList("Gruppe", "Blatt", "Aufgabe", "Punkte", "Anmerkung");
+    private static final String DATE_FORMAT = "dd.MM.yyyy HH:mm";
+    private static final Logger logger = LogManager.getLogger(TestatWorkbookWriter.class);
+
+    private final Path location;
+    private final String sheetFormat;
+    private final XSSFWorkbook template;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle dateStyle;
+    private boolean committed;
+
+    public TestatWorkbookWriter(final Path location, final Config config) throws IOException {
+        this(location, config.getString("excel/sheetFormat"), DEFAULT_ROW_WINDOW);
+    }
+
+    public TestatWorkbookWriter(final Path location, final String sheetFormat, final int rowWindow) throws IOException {
+        this.location = location;
+        this.sheetFormat = sheetFormat;
+        try (InputStream in = Files.newInputStream(location)) {
+            this.template = new XSSFWorkbook(in);
+        }
+        this.workbook = new SXSSFWorkbook(template, rowWindow);
+        this.workbook.setCompressTempFiles(true);
+        this.dateStyle = workbook.createCellStyle();
+        this.dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(DATE_FORMAT));
+        this.committed = false;
+    }
+
+    /**
+     * Writes the sheet "Testat &lt;key&gt;" with one row per slot.
+     *
+     * @param key   key of the Testat, e.g. the sheet number
+     * @param slots slots in the order they should appear
+     */
+    public void writeSchedule(final String key, final Iterable<TestatSlot> slots) {
+        final SXSSFSheet sheet = replaceSheet(String.format(sheetFormat, key));
+        writeHeader(sheet, MetaManager.TESTAT_HEADERS);
+
+        int rowIndex = 1;
+        for (TestatSlot slot : slots) {
+            final Row row = sheet.createRow(rowIndex++);
+            int column = 0;
+            writeDate(row, column++, slot.getStart());
+            writeDate(row, column++, slot.getEnd());
+            for (int i = 0; i < TestatSlot.MAX_PERSONS; ++i, ++column) {
+                if (i < slot.getPersons().size()) {
+                    row.createCell(column).setCellValue(slot.getPersons().get(i));
+                }
+            }
+            row.createCell(column).setCellValue(slot.getNote());
+        }
+        logger.debug("Wrote {} Testat slots to '{}'", rowIndex - 1, sheet.getSheetName());
+    }
+
+    /**
+     * Writes the sheet {@value #RESULT_SHEET} with one row per grading result.
+     *
+     * @param results results of all groups for all sheets
+     */
+    public void writeResults(final Iterable<GradingResult> results) {
+        final SXSSFSheet sheet = replaceSheet(RESULT_SHEET);
+        writeHeader(sheet, RESULT_HEADERS);
+
+        int rowIndex = 1;
+        for (GradingResult result : results) {
+            final Row row = sheet.createRow(rowIndex++);
+            int column = 0;
+            row.createCell(column++).setCellValue(result.getGroupId());
+            row.createCell(column++).setCellValue(result.getSheetNr());
+            row.createCell(column++).setCellValue(result.getExerciseAlias());
+            row.createCell(column++).setCellValue(result.getPoints());
+            row.createCell(column).setCellValue(result.getNote());
+        }
+        logger.debug("Wrote {} grading results", rowIndex - 1);
+    }
+
+    private void writeDate(final Row row, final int column, final LocalDateTime date) {
+        final Cell cell = row.createCell(column);
+        cell.setCellValue(date);
+        cell.setCellStyle(dateStyle);
+    }
+
+    // a replaced sheet keeps its position, a new one is appended
+    private SXSSFSheet replaceSheet(final String name) {
+        final int index = workbook.getSheetIndex(name);
+        if (index != -1) {
+            workbook.removeSheetAt(index);
+        }
+        final SXSSFSheet sheet = workbook.createSheet(name);
+        if (index != -1) {
+            workbook.setSheetOrder(name, index);
+        }
+        return sheet;
+    }
+
+    private static void writeHeader(final SXSSFSheet sheet, final List<String> headers) {
+        final Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); ++i) {
+            headerRow.createCell(i).setCellValue(headers.get(i));
+        }
+    }
+
+    /**
+     * Saves all written sheets to a temp file in the folder of the workbook and
+     * renames it atomically over the workbook.
+     *
+     * @throws IOException if the workbook could not be saved
+     */
+    public void commit() throws IOException {
+        if (committed) {
+            throw new IllegalStateException("TestatWorkbookWriter was already committed!");
+        }
+
+        final Path folder = location.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(folder, location.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                workbook.write(out);
+            }
+            Files.move(temp, location, REPLACE_EXISTING, ATOMIC_MOVE);
+            committed = true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
@@ -0,0 +1,62 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.Config;
+import de.ctoffer.util.trait.Trait;
+import de.ctoffer.util.trait.Traits;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Closed-open interval [start, end) of time, e.g. when a tutor or group is available. Equal windows are
+ * equal by value; the hash of a window is only computed once, since many groups share the same windows.
+ */
+public class TimeWindow {
+    private static final Traits TRAITS = Traits.memoizing(TimeWindow.class);
+
+    @Trait private final LocalDateTime start;
+    @Trait private final LocalDateTime end;
+
+    public TimeWindow(final LocalDateTime start, final LocalDateTime end) {
+        this.start = Objects.requireNonNull(start);
+        this.end = Objects.requireNonNull(end);
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("A time window must end after it started!");
+        }
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public boolean contains(final LocalDateTime from, final LocalDateTime to) {
+        return !from.isBefore(start) && !to.isAfter(end);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return TRAITS.testEqualityBetween(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return TRAITS.createHashCodeFor(this);
+    }
+
+    /**
+     * @return hits, misses and memory of the remembered hashes of all windows
+     */
+    public static Traits.MemoStats hashStats() {
+        return TRAITS.memoStats().orElseThrow();
+    }
+
+    public static TimeWindow fromConfig(final Config config) {
+        final LocalDateTime start = LocalDateTime.parse(config.getString("start"));
+        final LocalDateTime end = LocalDateTime.parse(config.getString("end"));
+        return new TimeWindow(start, end);
+    }
+}
@@ -0,0 +1,38 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Time windows in which a tutor can hold Testat appointments.
+ */
+public class TutorAvailability {
+    private final String name;
+    private final List<TimeWindow> windows;
+
+    public TutorAvailability(final String name, final List<TimeWindow> windows) {
+        this.name = Objects.requireNonNull(name);
+        this.windows = Collections.unmodifiableList(new ArrayList<>(windows));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<TimeWindow> getWindows() {
+        return windows;
+    }
+
+    public static TutorAvailability fromConfig(final Config config) {
+        final String name = config.getString("name");
+        final List<TimeWindow> windows = new ArrayList<>();
+        for (Config window : config.getConfigs("available")) {
+            windows.add(TimeWindow.fromConfig(window));
+        }
+        return new TutorAvailability(name, windows);
+    }
+}
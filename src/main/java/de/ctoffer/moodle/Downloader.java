@@ -0,0 +1,21 @@
+package de.ctoffer.moodle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Downloads files of a logged-in Moodle session.
+ *
+ * @see Moodle#downloader()
+ */
+@FunctionalInterface
+public interface Downloader {
+    /**
+     * Downloads the file to a temporary file next to the destination and moves it into place once
+     * it is complete, so an aborted download never leaves a truncated file behind. A failed download
+     * leaves the destination as it was.
+     *
+     * @throws IOException if the file could not be downloaded
+     */
+    void download(String source, Path destination) throws IOException;
+}
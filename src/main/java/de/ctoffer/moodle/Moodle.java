@@ -1,8 +1,10 @@
 package de.ctoffer.moodle;
 
 import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Progress;
 import de.ctoffer.login.CredentialsAccess;
 import de.ctoffer.meta.Student;
+import de.ctoffer.util.CancellationToken;
 import org.apache.commons.math3.util.Pair;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
@@ -15,6 +17,7 @@ import org.openqa.selenium.WebElement;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -22,18 +25,16 @@ import java.util.stream.Collectors;
 import static de.ctoffer.util.ThreadUtils.sleepNoThrow;
 import static java.util.stream.Collectors.toMap;
 
-public class Moodle extends CredentialsAccess<Moodle> {
+public class Moodle extends CredentialsAccess<Moodle> implements Downloader {
     private static final int COURSE_ID = 22829;
 
-    public static Moodle getInstance(final WebDriver driver) {
-        if (instance == null) {
-            instance = new Moodle(driver);
-        }
-
-        return instance;
+    /**
+     * @param driver browser of the new instance, every open browser has a Moodle of its own
+     */
+    public static Moodle create(final WebDriver driver) {
+        return new Moodle(driver);
     }
 
-    private static Moodle instance;
     private Map<String, String> cookies = new HashMap<>();
 
     private Moodle(final WebDriver driver) {
@@ -92,13 +93,19 @@ public class Moodle extends CredentialsAccess<Moodle> {
 
     }
 
-    public List<SubmissionRow> selectExerciseByName(String name, List<Student> myStudents, ConsoleContext console) {
+    public List<SubmissionRow> selectExerciseByName(String name,
+                                                    List<Student> myStudents,
+                                                    ConsoleContext console,
+                                                    CancellationToken cancellation) {
         selectISW();
         clickOnExercise(name);
-        sleepNoThrow(3000);
+        cancellation.sleep(3000);
         selectAllSubmissions();
         console.output("Collect rows");
-        Map<Student, Optional<WebElement>> associatedRows = getRowsOfMyStudents(myStudents);
+        Map<Student, Optional<WebElement>> associatedRows;
+        try (Progress progress = console.startTask("Collect rows of " + name, myStudents.size())) {
+            associatedRows = getRowsOfMyStudents(myStudents, progress, cancellation);
+        }
         Map<Boolean, List<Pair<Student, WebElement>>> accessable = new HashMap<>();
         accessable.computeIfAbsent(true, k -> new ArrayList<>());
         accessable.computeIfAbsent(false, k -> new ArrayList<>());
@@ -123,8 +130,15 @@ public class Moodle extends CredentialsAccess<Moodle> {
         adjustPerPage();
     }
 
-    private Map<Student, Optional<WebElement>> getRowsOfMyStudents(List<Student> myStudents) {
-        return myStudents.stream().collect(toMap(Function.identity(), this::findStudentRow));
+    private Map<Student, Optional<WebElement>> getRowsOfMyStudents(List<Student> myStudents,
+                                                                   Progress progress,
+                                                                   CancellationToken cancellation) {
+        return myStudents.stream().collect(toMap(Function.identity(), student -> {
+            cancellation.throwIfCancelled();
+            Optional<WebElement> row = findStudentRow(student);
+            progress.advance();
+            return row;
+        }));
     }
 
     private Optional<WebElement> findStudentRow(Student student) {
@@ -182,19 +196,45 @@ public class Moodle extends CredentialsAccess<Moodle> {
                 .get();
     }
 
+    @Override
     public void download(final String source, final Path destination) throws IOException {
-        try {
-            Files.write(destination, this.getRaw(source).bodyAsBytes());
-        } catch (IOException e) {
-            e.printStackTrace();
+        download(source, destination, sessionCookies());
+    }
+
+    /**
+     * @return downloader with the session cookies of this moment. It never touches the browser again, so it
+     *         may run on other threads while this instance navigates.
+     */
+    public Downloader downloader() {
+        final Map<String, String> sessionCookies = sessionCookies();
+        return (source, destination) -> download(source, destination, sessionCookies);
+    }
+
+    // the driver isn't thread safe, the download itself only needs its cookies
+    private Map<String, String> sessionCookies() {
+        synchronized (driver) {
+            return driver.manage().getCookies().stream().collect(Collectors.toUnmodifiableMap(Cookie::getName, Cookie::getValue));
         }
     }
 
-    private Connection.Response getRaw(final String url) throws IOException {
-        return Jsoup.connect(url)
-                .maxBodySize(0)
-                .cookies(driver.manage().getCookies().stream().collect(Collectors.toMap(Cookie::getName, Cookie::getValue)))
-                .ignoreContentType(true)
-                .execute();
+    private static void download(final String source,
+                                 final Path destination,
+                                 final Map<String, String> sessionCookies) throws IOException {
+        final Path part = destination.resolveSibling(destination.getFileName() + ".part");
+        try {
+            final Connection.Response response = Jsoup.connect(source)
+                    .maxBodySize(0)
+                    .cookies(sessionCookies)
+                    .ignoreContentType(true)
+                    .execute();
+            Files.write(part, response.bodyAsBytes());
+            Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the callers count the failure, an older file at the destination must not pass as this download
+            throw new IOException("Could not download '" + source + "' to '" + destination + "': "
+                    + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(part);
+        }
     }
 }
@@ -0,0 +1,337 @@
+package de.ctoffer.similarity;
+
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import de.ctoffer.util.codec.Codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Winnowed fingerprints of all source files of one submission and their MinHash signature.
+ *
+ * <p>
+ * The tokens of every file are hashed in overlapping k-grams of {@value #K} tokens. Of every window of
+ * {@value #WINDOW} consecutive k-grams the smallest hash is selected (winnowing), which guarantees that
+ * any match of at least {@value #K} + {@value #WINDOW} - 1 tokens shares a fingerprint. Every selected
+ * hash keeps the file and lines it came from, to show the matching regions later.
+ * </p>
+ * <p>
+ * The signature holds, for each of {@value #SIGNATURE_SIZE} hash functions, the minimum over the distinct
+ * fingerprints. Two signatures agree at a position with the probability of the Jaccard similarity of
+ * both fingerprint sets.
+ * </p>
+ */
+public class Fingerprint {
+    static final int K = 10;
+    static final int WINDOW = 6;
+    static final int SIGNATURE_SIZE = 128;
+    private static final String SOURCE_SUFFIX = ".java";
+
+    private final String key;
+    private final String exercise;
+    private final int groupId;
+    private final String label;
+    private final String sourceHash;
+    private final List<String> files;
+    private final int[] hashes;
+    private final int[] fileIndex;
+    private final int[] startLines;
+    private final int[] endLines;
+    private final int[] distinct;
+    private final int[] signature;
+
+    private Fingerprint(final String key,
+                        final String exercise,
+                        final int groupId,
+                        final String label,
+                        final String sourceHash,
+                        final List<String> files,
+                        final int[] hashes,
+                        final int[] fileIndex,
+                        final int[] startLines,
+                        final int[] endLines) {
+        this.key = key;
+        this.exercise = exercise;
+        this.groupId = groupId;
+        this.label = label;
+        this.sourceHash = sourceHash;
+        this.files = files;
+        this.hashes = hashes;
+        this.fileIndex = fileIndex;
+        this.startLines = startLines;
+        this.endLines = endLines;
+        this.distinct = Arrays.stream(hashes).distinct().sorted().toArray();
+        this.signature = minHash(distinct);
+    }
+
+    /**
+     * Fingerprints all Java files below the given folder.
+     *
+     * @param key        identity of the submission, like {@link de.ctoffer.meta.SubmissionRecord#key()}
+     * @param sourceHash changes whenever the submission changes, decides if a stored fingerprint is reused
+     */
+    public static Fingerprint of(final String key,
+                                 final String exercise,
+                                 final int groupId,
+                                 final String label,
+                                 final String sourceHash,
+                                 final Path root) throws IOException {
+        final List<Path> sources;
+        try (Stream<Path> paths = Files.walk(root)) {
+            sources = paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(SOURCE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        final List<String> files = new ArrayList<>();
+        final Selection selection = new Selection();
+        for (Path source : sources) {
+            final String text = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+            winnow(Tokenizer.tokenize(text), files.size(), selection);
+            files.add(root.relativize(source).toString());
+        }
+        return new Fingerprint(key, exercise, groupId, label, sourceHash, files, selection.hashes(),
+                selection.files(), selection.starts(), selection.ends());
+    }
+
+    private static void winnow(final Tokenizer.Tokens tokens, final int file, final Selection selection) {
+        final int grams = tokens.codes.length - K + 1;
+        if (grams <= 0) {
+            return;
+        }
+        final int[] gramHashes = new int[grams];
+        for (int i = 0; i < grams; ++i) {
+            int hash = 0;
+            for (int j = 0; j < K; ++j) {
+                hash = 31 * hash + tokens.codes[i + j];
+            }
+            gramHashes[i] = mix(hash);
+        }
+
+        int selected = -1;
+        for (int end = Math.min(WINDOW, grams) - 1; end < grams; ++end) {
+            final int start = Math.max(0, end - WINDOW + 1);
+            int minimum = end;
+            // the rightmost minimum, so a window sliding over equal hashes doesn't select each of them
+            for (int i = end; i >= start; --i) {
+                if (gramHashes[i] < gramHashes[minimum]) {
+                    minimum = i;
+                }
+            }
+            if (minimum != selected) {
+                selected = minimum;
+                selection.add(gramHashes[minimum], file, tokens.lines[minimum], tokens.lines[minimum + K - 1]);
+            }
+        }
+    }
+
+    private static int[] minHash(final int[] distinct) {
+        final int[] result = new int[SIGNATURE_SIZE];
+        Arrays.fill(result, Integer.MAX_VALUE);
+        for (int hash : distinct) {
+            for (int i = 0; i < SIGNATURE_SIZE; ++i) {
+                final int value = mix(hash ^ SEEDS[i]);
+                if (value < result[i]) {
+                    result[i] = value;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final int[] SEEDS = new int[SIGNATURE_SIZE];
+
+    static {
+        int seed = 0x5EA5EED;
+        for (int i = 0; i < SIGNATURE_SIZE; ++i) {
+            seed = mix(seed + 0x9E3779B9);
+            SEEDS[i] = seed;
+        }
+    }
+
+    // finalizer of MurmurHash3, spreads similar token sequences over the whole int range
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getExercise() {
+        return exercise;
+    }
+
+    public int getGroupId() {
+        return groupId;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    int size() {
+        return hashes.length;
+    }
+
+    int hashAt(final int i) {
+        return hashes[i];
+    }
+
+    int fileAt(final int i) {
+        return fileIndex[i];
+    }
+
+    int startLineAt(final int i) {
+        return startLines[i];
+    }
+
+    int endLineAt(final int i) {
+        return endLines[i];
+    }
+
+    /**
+     * @return the distinct fingerprints, sorted
+     */
+    int[] distinct() {
+        return distinct;
+    }
+
+    int[] signature() {
+        return signature;
+    }
+
+    private static class Selection {
+        private int[] data = new int[4 * 64];
+        private int size = 0;
+
+        private void add(final int hash, final int file, final int start, final int end) {
+            if (size + 4 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = hash;
+            data[size++] = file;
+            data[size++] = start;
+            data[size++] = end;
+        }
+
+        private int[] column(final int offset) {
+            final int[] result = new int[size / 4];
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = data[4 * i + offset];
+            }
+            return result;
+        }
+
+        private int[] hashes() {
+            return column(0);
+        }
+
+        private int[] files() {
+            return column(1);
+        }
+
+        private int[] starts() {
+            return column(2);
+        }
+
+        private int[] ends() {
+            return column(3);
+        }
+    }
+
+    /**
+     * Fingerprints of one sheet, the signatures are recomputed on reading.
+     */
+    static final Codec<List<Fingerprint>> LIST_CODEC = new Codec<List<Fingerprint>>() {
+        @Override
+        public String id() {
+            return "similarity-fingerprints";
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(final List<Fingerprint> value, final BinaryWriter out) throws IOException {
+            out.writeVarInt(value.size());
+            for (Fingerprint print : value) {
+                out.writeString(print.key);
+                out.writeString(print.exercise);
+                out.writeVarInt(print.groupId);
+                out.writeString(print.label);
+                out.writeString(print.sourceHash);
+                out.writeVarInt(print.files.size());
+                for (String file : print.files) {
+                    out.writeString(file);
+                }
+                out.writeVarInt(print.hashes.length);
+                for (int i = 0; i < print.hashes.length; ++i) {
+                    out.writeInt(print.hashes[i]);
+                    out.writeVarInt(print.fileIndex[i]);
+                    out.writeVarInt(print.startLines[i]);
+                    out.writeVarInt(print.endLines[i] - print.startLines[i]);
+                }
+            }
+        }
+
+        @Override
+        public List<Fingerprint> read(final BinaryReader in, final int version) throws IOException {
+            if (version != 1) {
+                throw new IOException(String.format("Unsupported version %s of codec '%s'", version, id()));
+            }
+            final int count = in.readCount();
+            final List<Fingerprint> result = new ArrayList<>(count);
+            for (int p = 0; p < count; ++p) {
+                final String key = in.readString();
+                final String exercise = in.readString();
+                final int groupId = in.readVarInt();
+                final String label = in.readString();
+                final String sourceHash = in.readString();
+                final int fileCount = in.readCount();
+                final List<String> files = new ArrayList<>(fileCount);
+                for (int f = 0; f < fileCount; ++f) {
+                    files.add(in.readString());
+                }
+                final int size = in.readCount();
+                final int[] hashes = new int[size];
+                final int[] fileIndex = new int[size];
+                final int[] starts = new int[size];
+                final int[] ends = new int[size];
+                for (int i = 0; i < size; ++i) {
+                    hashes[i] = in.readInt();
+                    fileIndex[i] = in.readVarInt();
+                    starts[i] = in.readVarInt();
+                    ends[i] = starts[i] + in.readVarInt();
+                }
+                result.add(new Fingerprint(key, exercise, groupId, label, sourceHash, files, hashes, fileIndex,
+                        starts, ends));
+            }
+            return result;
+        }
+    };
+}
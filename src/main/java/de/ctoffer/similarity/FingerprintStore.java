@@ -0,0 +1,66 @@
+package de.ctoffer.similarity;
+
+import de.ctoffer.util.Serial;
+import de.ctoffer.util.StorageException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fingerprints of the submissions of one sheet, kept between runs so only new or changed submissions are
+ * fingerprinted again.
+ */
+public class FingerprintStore {
+    private static final String FILE_FORMAT = "sheet-%d.bin";
+
+    private final Path file;
+    private final Map<String, Fingerprint> byKey = new HashMap<>();
+
+    private FingerprintStore(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the stored fingerprints of the sheet, a missing or unreadable file yields an empty store.
+     *
+     * @param folder folder of all fingerprint files
+     */
+    public static FingerprintStore open(final Path folder, final int sheetNr) {
+        final FingerprintStore store = new FingerprintStore(folder.resolve(String.format(FILE_FORMAT, sheetNr)));
+        if (Files.exists(store.file)) {
+            try {
+                Serial.read(store.file.toFile(), Fingerprint.LIST_CODEC)
+                        .forEach(print -> store.byKey.put(print.getKey(), print));
+            } catch (StorageException e) {
+                // fingerprints are derived data, they are computed again
+                store.byKey.clear();
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @return the stored fingerprint if it was computed from the same source
+     */
+    public Optional<Fingerprint> get(final String key, final String sourceHash) {
+        return Optional.ofNullable(byKey.get(key)).filter(print -> print.getSourceHash().equals(sourceHash));
+    }
+
+    /**
+     * Replaces the stored fingerprints by the given ones, fingerprints of removed submissions are dropped.
+     */
+    public void save(final Collection<Fingerprint> prints) {
+        byKey.clear();
+        prints.forEach(print -> byKey.put(print.getKey(), print));
+        Serial.write(file.toFile(), new ArrayList<>(prints), Fingerprint.LIST_CODEC);
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+}
@@ -0,0 +1,294 @@
+package de.ctoffer.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds similar submissions of the same exercise without comparing every submission with every other.
+ *
+ * <p>
+ * The MinHash signatures are cut into {@value #BANDS} bands of {@value #ROWS} rows. Submissions sharing all
+ * rows of at least one band land in the same bucket and become a candidate pair; with these numbers a
+ * pair with a Jaccard similarity of 0.3 is found with a probability of about 0.7, one of 0.5 with more than
+ * 0.99. Only the candidates are compared on their fingerprints, which also yields the matching regions.
+ * </p>
+ */
+public class SimilarityDetector {
+    static final int ROWS = 3;
+    static final int BANDS = Fingerprint.SIGNATURE_SIZE / ROWS;
+    // lines between two fingerprints which still count as one region
+    private static final int REGION_GAP = 2;
+
+    private final double threshold;
+
+    /**
+     * @param threshold minimal containment of a candidate pair to be reported, between 0 and 1
+     */
+    public SimilarityDetector(final double threshold) {
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("Threshold must be between 0 and 1!");
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the matches above the threshold, the most similar first
+     */
+    public List<Match> detect(final List<Fingerprint> prints) {
+        final List<Match> matches = new ArrayList<>();
+        for (long pair : candidates(prints)) {
+            final Fingerprint first = prints.get((int) (pair >>> 32));
+            final Fingerprint second = prints.get((int) pair);
+            // the regions are only collected for the pairs which are reported
+            if (containment(first, second) >= threshold) {
+                matches.add(compare(first, second));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getContainment).thenComparingDouble(Match::getJaccard).reversed());
+        return matches;
+    }
+
+    /**
+     * @return indices of the candidate pairs as 'first &lt;&lt; 32 | second' with first &lt; second
+     */
+    Set<Long> candidates(final List<Fingerprint> prints) {
+        final Set<Long> pairs = new HashSet<>();
+        for (int band = 0; band < BANDS; ++band) {
+            final Map<BandKey, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < prints.size(); ++i) {
+                final Fingerprint print = prints.get(i);
+                if (print.distinct().length == 0) {
+                    continue;
+                }
+                buckets.computeIfAbsent(new BandKey(print, band), key -> new ArrayList<>()).add(i);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                for (int a = 0; a < bucket.size(); ++a) {
+                    for (int b = a + 1; b < bucket.size(); ++b) {
+                        final int first = bucket.get(a);
+                        final int second = bucket.get(b);
+                        if (comparable(prints.get(first), prints.get(second))) {
+                            pairs.add((long) first << 32 | second);
+                        }
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static boolean comparable(final Fingerprint first, final Fingerprint second) {
+        return first.getExercise().equals(second.getExercise()) && first.getGroupId() != second.getGroupId();
+    }
+
+    /**
+     * Compares two submissions on all their fingerprints.
+     */
+    public static Match compare(final Fingerprint first, final Fingerprint second) {
+        final int shared = intersection(first.distinct(), second.distinct());
+        final int union = first.distinct().length + second.distinct().length - shared;
+        final double jaccard = union == 0 ? 0 : (double) shared / union;
+        return new Match(first, second, jaccard, containment(first, second), regions(first, second));
+    }
+
+    private static double containment(final Fingerprint first, final Fingerprint second) {
+        final int smaller = Math.min(first.distinct().length, second.distinct().length);
+        return smaller == 0 ? 0 : (double) intersection(first.distinct(), second.distinct()) / smaller;
+    }
+
+    private static int intersection(final int[] first, final int[] second) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                ++i;
+            } else if (first[i] > second[j]) {
+                ++j;
+            } else {
+                ++count;
+                ++i;
+                ++j;
+            }
+        }
+        return count;
+    }
+
+    // fingerprints of 'first' in order; a hash occurring several times in 'second' continues an open region
+    // if one of its occurrences can, otherwise its first occurrence starts a new one
+    private static List<Region> regions(final Fingerprint first, final Fingerprint second) {
+        final Map<Integer, List<Integer>> positions = new HashMap<>();
+        for (int j = 0; j < second.size(); ++j) {
+            positions.computeIfAbsent(second.hashAt(j), hash -> new ArrayList<>(1)).add(j);
+        }
+
+        final Map<Long, Region> open = new HashMap<>();
+        final List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < first.size(); ++i) {
+            final List<Integer> occurrences = positions.get(first.hashAt(i));
+            if (occurrences == null) {
+                continue;
+            }
+            boolean continued = false;
+            for (int j : occurrences) {
+                final Region region = open.get(filePair(first, i, second, j));
+                if (region != null && region.continuedBy(first.startLineAt(i), second.startLineAt(j))) {
+                    region.extend(first.endLineAt(i), second.startLineAt(j), second.endLineAt(j));
+                    continued = true;
+                    break;
+                }
+            }
+            if (!continued) {
+                final int j = occurrences.get(0);
+                final Region started = new Region(first.getFiles().get(first.fileAt(i)), first.startLineAt(i),
+                        first.endLineAt(i), second.getFiles().get(second.fileAt(j)), second.startLineAt(j),
+                        second.endLineAt(j));
+                open.put(filePair(first, i, second, j), started);
+                regions.add(started);
+            }
+        }
+        regions.sort(Comparator.comparingInt(Region::getFingerprints).reversed());
+        return regions;
+    }
+
+    private static long filePair(final Fingerprint first, final int i, final Fingerprint second, final int j) {
+        return (long) first.fileAt(i) << 32 | second.fileAt(j);
+    }
+
+    /**
+     * Rows of one band of a signature, equal keys put two submissions into the same bucket.
+     */
+    private static class BandKey {
+        private final int[] signature;
+        private final int offset;
+        private final int hash;
+
+        private BandKey(final Fingerprint print, final int band) {
+            this.signature = print.signature();
+            this.offset = band * ROWS;
+            int hash = band;
+            for (int i = offset; i < offset + ROWS; ++i) {
+                hash = 31 * hash + signature[i];
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof BandKey)) {
+                return false;
+            }
+            final BandKey other = (BandKey) o;
+            return offset == other.offset && hash == other.hash
+                    && Arrays.equals(signature, offset, offset + ROWS, other.signature, offset, offset + ROWS);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public static class Match {
+        private final Fingerprint first;
+        private final Fingerprint second;
+        private final double jaccard;
+        private final double containment;
+        private final List<Region> regions;
+
+        private Match(final Fingerprint first,
+                      final Fingerprint second,
+                      final double jaccard,
+                      final double containment,
+                      final List<Region> regions) {
+            this.first = first;
+            this.second = second;
+            this.jaccard = jaccard;
+            this.containment = containment;
+            this.regions = regions;
+        }
+
+        public Fingerprint getFirst() {
+            return first;
+        }
+
+        public Fingerprint getSecond() {
+            return second;
+        }
+
+        /**
+         * @return shared fingerprints relative to the fingerprints of both submissions
+         */
+        public double getJaccard() {
+            return jaccard;
+        }
+
+        /**
+         * @return shared fingerprints relative to the fingerprints of the smaller submission
+         */
+        public double getContainment() {
+            return containment;
+        }
+
+        /**
+         * @return the matching regions, the largest first
+         */
+        public List<Region> getRegions() {
+            return regions;
+        }
+    }
+
+    public static class Region {
+        private final String firstFile;
+        private final int firstStart;
+        private int firstEnd;
+        private final String secondFile;
+        private int secondStart;
+        private int secondEnd;
+        private int fingerprints = 1;
+
+        private Region(final String firstFile,
+                       final int firstStart,
+                       final int firstEnd,
+                       final String secondFile,
+                       final int secondStart,
+                       final int secondEnd) {
+            this.firstFile = firstFile;
+            this.firstStart = firstStart;
+            this.firstEnd = firstEnd;
+            this.secondFile = secondFile;
+            this.secondStart = secondStart;
+            this.secondEnd = secondEnd;
+        }
+
+        // a region only grows while the code is contiguous in both submissions
+        private boolean continuedBy(final int firstLine, final int secondLine) {
+            return firstLine <= firstEnd + REGION_GAP
+                    && secondLine >= secondStart - REGION_GAP
+                    && secondLine <= secondEnd + REGION_GAP;
+        }
+
+        private void extend(final int firstEnd, final int secondStart, final int secondEnd) {
+            this.firstEnd = Math.max(this.firstEnd, firstEnd);
+            this.secondStart = Math.min(this.secondStart, secondStart);
+            this.secondEnd = Math.max(this.secondEnd, secondEnd);
+            ++fingerprints;
+        }
+
+        public int getFingerprints() {
+            return fingerprints;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%d-%d ~ %s:%d-%d", firstFile, firstStart, firstEnd, secondFile, secondStart,
+                    secondEnd);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package de.ctoffer.similarity;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Splits Java source text into normalized tokens. Comments and whitespace are dropped, identifiers,
+ * string, char and number literals are replaced by a placeholder each, so renaming variables or changing
+ * texts doesn't hide a copy. Keywords, operators and separators are kept as they are.
+ */
+class Tokenizer {
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "var", "true", "false", "null"));
+    private static final int IDENTIFIER = "<id>".hashCode();
+    private static final int STRING = "<str>".hashCode();
+    private static final int CHARACTER = "<char>".hashCode();
+    private static final int NUMBER = "<num>".hashCode();
+
+    private final String source;
+    private int position = 0;
+    private int line = 1;
+    private int[] codes = new int[256];
+    private int[] lines = new int[256];
+    private int size = 0;
+
+    private Tokenizer(final String source) {
+        this.source = source;
+    }
+
+    /**
+     * @return codes of the tokens and the line of each token
+     */
+    static Tokens tokenize(final String source) {
+        final Tokenizer tokenizer = new Tokenizer(source);
+        tokenizer.run();
+        return new Tokens(Arrays.copyOf(tokenizer.codes, tokenizer.size), Arrays.copyOf(tokenizer.lines, tokenizer.size));
+    }
+
+    private void run() {
+        while (position < source.length()) {
+            final char c = source.charAt(position);
+            if (c == '\n') {
+                ++line;
+                ++position;
+            } else if (Character.isWhitespace(c)) {
+                ++position;
+            } else if (source.startsWith("//", position)) {
+                skipUntil("\n", false);
+            } else if (source.startsWith("/*", position)) {
+                position += 2;
+                skipUntil("*/", true);
+            } else if (c == '"') {
+                skipQuoted('"');
+                add(STRING);
+            } else if (c == '\'') {
+                skipQuoted('\'');
+                add(CHARACTER);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                final int start = position;
+                while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) {
+                    ++position;
+                }
+                final String word = source.substring(start, position);
+                add(KEYWORDS.contains(word) ? word.hashCode() : IDENTIFIER);
+            } else if (Character.isDigit(c)) {
+                while (position < source.length()
+                        && (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '.'
+                        || source.charAt(position) == '_')) {
+                    ++position;
+                }
+                add(NUMBER);
+            } else {
+                add(c);
+                ++position;
+            }
+        }
+    }
+
+    // counts the lines it skips, the tokens after a block comment keep their real line
+    private void skipUntil(final String end, final boolean consumeEnd) {
+        final int found = source.indexOf(end, position);
+        final int stop = found < 0 ? source.length() : found + (consumeEnd ? end.length() : 0);
+        for (int i = position; i < stop; ++i) {
+            if (source.charAt(i) == '\n') {
+                ++line;
+            }
+        }
+        position = stop;
+    }
+
+    private void skipQuoted(final char quote) {
+        ++position;
+        while (position < source.length()) {
+            final char c = source.charAt(position++);
+            if (c == '\\') {
+                ++position;
+            } else if (c == quote || c == '\n') {
+                if (c == '\n') {
+                    ++line;
+                }
+                return;
+            }
+        }
+    }
+
+    private void add(final int code) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        codes[size] = code;
+        lines[size] = line;
+        ++size;
+    }
+
+    static class Tokens {
+        final int[] codes;
+        final int[] lines;
+
+        private Tokens(final int[] codes, final int[] lines) {
+            this.codes = codes;
+            this.lines = lines;
+        }
+    }
+}
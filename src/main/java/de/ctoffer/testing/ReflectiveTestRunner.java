@@ -0,0 +1,186 @@
+package de.ctoffer.testing;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs JUnit 4 and JUnit 5 test classes by their annotations, without depending on JUnit. The tests only
+ * need JUnit on the class path of their own class loader, for the annotations and assertions.
+ *
+ * <p>
+ * Supported are {@code @Test} with the 'expected' exception of JUnit 4, {@code @Before}/{@code @BeforeEach},
+ * {@code @After}/{@code @AfterEach}, {@code @BeforeClass}/{@code @BeforeAll},
+ * {@code @AfterClass}/{@code @AfterAll} and {@code @Ignore}/{@code @Disabled}. Rules, runners, extensions and
+ * parameterized tests are not.
+ * </p>
+ */
+class ReflectiveTestRunner {
+    private static final Set<String> TEST = Set.of("org.junit.Test", "org.junit.jupiter.api.Test");
+    private static final Set<String> BEFORE_EACH = Set.of("org.junit.Before", "org.junit.jupiter.api.BeforeEach");
+    private static final Set<String> AFTER_EACH = Set.of("org.junit.After", "org.junit.jupiter.api.AfterEach");
+    private static final Set<String> BEFORE_ALL = Set.of("org.junit.BeforeClass", "org.junit.jupiter.api.BeforeAll");
+    private static final Set<String> AFTER_ALL = Set.of("org.junit.AfterClass", "org.junit.jupiter.api.AfterAll");
+    private static final Set<String> DISABLED = Set.of("org.junit.Ignore", "org.junit.jupiter.api.Disabled");
+    private static final String NO_EXPECTED_EXCEPTION = "org.junit.Test$None";
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final ClassLoader loader;
+    private final List<TestReport.Outcome> outcomes;
+
+    /**
+     * @param outcomes receives the outcome of each test as soon as it is known
+     */
+    ReflectiveTestRunner(final ClassLoader loader, final List<TestReport.Outcome> outcomes) {
+        this.loader = loader;
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * @throws ClassNotFoundException if a test class is missing
+     */
+    void run(final List<String> testClasses) throws ClassNotFoundException {
+        final List<Class<?>> classes = new ArrayList<>();
+        for (String name : testClasses) {
+            classes.add(Class.forName(name, false, loader));
+        }
+        for (Class<?> testClass : classes) {
+            runClass(testClass);
+        }
+    }
+
+    private void runClass(final Class<?> testClass) {
+        final List<Method> methods = methods(testClass);
+        final List<Method> tests = annotated(methods, TEST);
+        try {
+            invokeAll(null, annotated(methods, BEFORE_ALL));
+        } catch (Throwable t) {
+            tests.forEach(test -> outcomes.add(failed(test, "@BeforeAll failed: " + describe(t))));
+            return;
+        }
+        for (Method test : tests) {
+            if (annotation(test, DISABLED) == null) {
+                outcomes.add(runTest(testClass, test, methods));
+            }
+        }
+        try {
+            invokeAll(null, annotated(methods, AFTER_ALL));
+        } catch (Throwable t) {
+            outcomes.add(new TestReport.Outcome(testClass.getName(), false, "@AfterAll failed: " + describe(t)));
+        }
+    }
+
+    private TestReport.Outcome runTest(final Class<?> testClass, final Method test, final List<Method> methods) {
+        final Class<?> expected = expectedException(test);
+        Throwable failure = null;
+        try {
+            final Constructor<?> constructor = testClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            final Object instance = constructor.newInstance();
+            try {
+                invokeAll(instance, annotated(methods, BEFORE_EACH));
+                invoke(instance, test);
+            } finally {
+                invokeAll(instance, annotated(methods, AFTER_EACH));
+            }
+        } catch (OutOfMemoryError e) {
+            // ends the run, the worker reports the exhausted heap
+            throw e;
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        if (expected == null) {
+            return failure == null ? passed(test) : failed(test, describe(failure));
+        }
+        if (failure == null) {
+            return failed(test, "expected " + expected.getName());
+        }
+        return expected.isInstance(failure) ? passed(test) : failed(test,
+                "expected " + expected.getName() + " but was " + describe(failure));
+    }
+
+    // superclass methods first, as JUnit runs inherited set ups before the own ones
+    private static List<Method> methods(final Class<?> testClass) {
+        final List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = testClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        final List<Method> methods = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            final Method[] declared = current.getDeclaredMethods();
+            Arrays.sort(declared, Comparator.comparing(Method::getName));
+            methods.addAll(Arrays.asList(declared));
+        }
+        return methods;
+    }
+
+    private static List<Method> annotated(final List<Method> methods, final Set<String> annotations) {
+        final List<Method> result = new ArrayList<>();
+        for (Method method : methods) {
+            if (annotation(method, annotations) != null) {
+                result.add(method);
+            }
+        }
+        return result;
+    }
+
+    private static Annotation annotation(final Method method, final Set<String> names) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (names.contains(annotation.annotationType().getName())) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> expectedException(final Method test) {
+        final Annotation annotation = annotation(test, TEST);
+        try {
+            final Class<?> expected = (Class<?>) annotation.annotationType().getMethod("expected").invoke(annotation);
+            return NO_EXPECTED_EXCEPTION.equals(expected.getName()) ? null : expected;
+        } catch (ReflectiveOperationException e) {
+            // JUnit 5 has no 'expected', tests use assertThrows instead
+            return null;
+        }
+    }
+
+    private static void invokeAll(final Object instance, final List<Method> methods) throws Throwable {
+        for (Method method : methods) {
+            invoke(instance, method);
+        }
+    }
+
+    private static void invoke(final Object instance, final Method method) throws Throwable {
+        method.setAccessible(true);
+        try {
+            method.invoke(Modifier.isStatic(method.getModifiers()) ? null : instance);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static TestReport.Outcome passed(final Method test) {
+        return new TestReport.Outcome(name(test), true, "");
+    }
+
+    private static TestReport.Outcome failed(final Method test, final String message) {
+        return new TestReport.Outcome(name(test), false, message);
+    }
+
+    private static String name(final Method test) {
+        return test.getDeclaringClass().getSimpleName() + "." + test.getName();
+    }
+
+    private static String describe(final Throwable t) {
+        final String description = t.toString();
+        return description.length() > MAX_MESSAGE_LENGTH ? description.substring(0, MAX_MESSAGE_LENGTH) + "..." : description;
+    }
+}
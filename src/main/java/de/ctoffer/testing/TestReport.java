@@ -0,0 +1,195 @@
+package de.ctoffer.testing;
+
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import de.ctoffer.util.codec.Codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of running the reference tests against one submission, sent by a {@link TestWorker} as one line
+ * of JSON.
+ */
+public class TestReport {
+    public enum Status {
+        /**
+         * all tests ran, each of them passed or failed
+         */
+        COMPLETED,
+        /**
+         * the tests didn't finish within the time limit
+         */
+        TIMEOUT,
+        /**
+         * the heap of the worker was exhausted
+         */
+        MEMORY,
+        /**
+         * the tests couldn't be started, e.g. a test class is missing
+         */
+        ERROR,
+        /**
+         * the worker died or stopped answering, e.g. the submission called System.exit
+         */
+        CRASHED
+    }
+
+    private long id;
+    // nonce of the request, which the submission never sees, so it can't forge a report
+    private String nonce;
+    private Status status;
+    private long millis;
+    private List<Outcome> outcomes;
+    private String output;
+    // threads the submission started which still run, they might interfere with the next request
+    private int threadsLeft;
+
+    TestReport(final long id,
+               final String nonce,
+               final Status status,
+               final long millis,
+               final List<Outcome> outcomes,
+               final String output,
+               final int threadsLeft) {
+        this.id = id;
+        this.nonce = nonce;
+        this.status = status;
+        this.millis = millis;
+        this.outcomes = outcomes;
+        this.output = output;
+        this.threadsLeft = threadsLeft;
+    }
+
+    static TestReport crashed(final long id, final String reason) {
+        return new TestReport(id, null, Status.CRASHED, 0, List.of(), reason, 0);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getNonce() {
+        return nonce;
+    }
+
+    int getThreadsLeft() {
+        return threadsLeft;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return result of each test which ran, also those which ran before a timeout or crash
+     */
+    public List<Outcome> getOutcomes() {
+        return outcomes;
+    }
+
+    public int getRun() {
+        return outcomes.size();
+    }
+
+    public int getPassed() {
+        return (int) outcomes.stream().filter(Outcome::isPassed).count();
+    }
+
+    /**
+     * @return what the submission printed, cut off after a few kilobytes, or the reason of a crash
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    @Override
+    public String toString() {
+        if (status == Status.COMPLETED) {
+            return String.format("%d/%d tests passed in %d ms", getPassed(), getRun(), millis);
+        }
+        return String.format("%s after %d/%d tests passed", status, getPassed(), getRun());
+    }
+
+    public static class Outcome {
+        private String name;
+        private boolean passed;
+        private String message;
+
+        Outcome(final String name, final boolean passed, final String message) {
+            this.name = name;
+            this.passed = passed;
+            this.message = message;
+        }
+
+        /**
+         * @return test class and method, 'Class.method'
+         */
+        public String getName() {
+            return name;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        /**
+         * @return reason of the failure, empty if passed
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return passed ? name + ": passed" : name + ": " + message;
+        }
+    }
+
+    static final Codec<TestReport> CODEC = new Codec<TestReport>() {
+        @Override
+        public String id() {
+            return "test-report";
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(final TestReport value, final BinaryWriter out) throws IOException {
+            out.writeByte(value.status.ordinal());
+            out.writeLong(value.millis);
+            out.writeVarInt(value.outcomes.size());
+            for (Outcome outcome : value.outcomes) {
+                out.writeString(outcome.name);
+                out.writeByte(outcome.passed ? 1 : 0);
+                out.writeString(outcome.message);
+            }
+            out.writeString(value.output);
+        }
+
+        @Override
+        public TestReport read(final BinaryReader in, final int version) throws IOException {
+            if (version != 1) {
+                throw new IOException("Unsupported version " + version + " of codec '" + id() + "'");
+            }
+            final Status status = Status.values()[in.readByte()];
+            final long millis = in.readLong();
+            final int count = in.readCount();
+            final List<Outcome> outcomes = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                final String name = in.readString();
+                final boolean passed = in.readByte() == 1;
+                outcomes.add(new Outcome(name, passed, in.readString()));
+            }
+            return new TestReport(0, null, status, millis, outcomes, in.readString(), 0);
+        }
+    };
+}
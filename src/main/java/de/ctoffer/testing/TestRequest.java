@@ -0,0 +1,48 @@
+package de.ctoffer.testing;
+
+import java.util.List;
+
+/**
+ * Order to a {@link TestWorker}, sent as one line of JSON.
+ */
+class TestRequest {
+    private long id;
+    // random, only the worker which received the request can answer it
+    private String nonce;
+    // class path of the submission and the reference tests
+    private List<String> classPath;
+    private List<String> testClasses;
+    private long timeLimitMillis;
+
+    TestRequest(final long id,
+                final String nonce,
+                final List<String> classPath,
+                final List<String> testClasses,
+                final long timeLimitMillis) {
+        this.id = id;
+        this.nonce = nonce;
+        this.classPath = classPath;
+        this.testClasses = testClasses;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getNonce() {
+        return nonce;
+    }
+
+    List<String> getClassPath() {
+        return classPath;
+    }
+
+    List<String> getTestClasses() {
+        return testClasses;
+    }
+
+    long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+}
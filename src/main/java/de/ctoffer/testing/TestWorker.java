@@ -0,0 +1,238 @@
+package de.ctoffer.testing;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Main class of the JVMs started by the {@link TestWorkerPool}. Reads one {@link TestRequest} per line from
+ * stdin and answers each with one {@link TestReport} per line on stdout, until stdin is closed.
+ *
+ * <p>
+ * Every request gets a class loader of its own, whose parent is the platform class loader, so submissions
+ * see neither each other nor the classes of the tool. What a submission prints is captured instead of
+ * written to stdout, which only carries the answers. After a timeout or an exhausted heap the worker
+ * answers and exits, since the thread running the submission can't be stopped safely; the pool starts a
+ * new worker.
+ * </p>
+ * <p>
+ * A submission can still write to {@link FileDescriptor#out} and the ids of the requests are easy to guess,
+ * so every answer repeats the random nonce of its request, which only the worker knows. A submission which
+ * leaves threads running could read the next request from {@link FileDescriptor#in}, so the answer counts
+ * them and the pool replaces the worker instead of sending it another request.
+ * </p>
+ */
+public class TestWorker {
+    static final int EXIT_AFTER_TIMEOUT = 2;
+    static final int EXIT_AFTER_MEMORY = 3;
+    private static final int MAX_OUTPUT_BYTES = 4096;
+    // share of the old generation still in use after a collection, above which the heap counts as exhausted
+    private static final double MEMORY_THRESHOLD = 0.9;
+    private static final long WATCHDOG_PERIOD_MILLIS = 50;
+
+    private final Gson gson = new Gson();
+    private final PrintStream protocol;
+    private final BoundedOutput captured = new BoundedOutput(MAX_OUTPUT_BYTES);
+    private volatile long currentId = -1;
+    private volatile String currentNonce;
+    private volatile long currentStart = 0;
+    private final List<TestReport.Outcome> outcomes = Collections.synchronizedList(new ArrayList<>());
+
+    private TestWorker(final PrintStream protocol) {
+        this.protocol = protocol;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final PrintStream protocol = new PrintStream(new FileOutputStream(FileDescriptor.out), true,
+                StandardCharsets.UTF_8);
+        final BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        final TestWorker worker = new TestWorker(protocol);
+        final PrintStream capture = new PrintStream(worker.captured, true, StandardCharsets.UTF_8);
+        System.setOut(capture);
+        System.setErr(capture);
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        worker.startMemoryWatchdog();
+
+        String line;
+        while ((line = requests.readLine()) != null) {
+            worker.handle(worker.gson.fromJson(line, TestRequest.class));
+        }
+    }
+
+    private void handle(final TestRequest request) {
+        captured.reset();
+        outcomes.clear();
+        currentStart = System.nanoTime();
+        currentNonce = request.getNonce();
+        currentId = request.getId();
+
+        // the runner only holds what the submission may see, not the request with its nonce
+        final List<String> classPath = request.getClassPath();
+        final List<String> testClasses = request.getTestClasses();
+        final Set<Thread> before = new HashSet<>(Thread.getAllStackTraces().keySet());
+        final Throwable[] failure = new Throwable[1];
+        final Thread runner = new Thread(() -> {
+            try (URLClassLoader loader = new URLClassLoader(urls(classPath), ClassLoader.getPlatformClassLoader())) {
+                Thread.currentThread().setContextClassLoader(loader);
+                new ReflectiveTestRunner(loader, outcomes).run(testClasses);
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        }, "test-runner");
+        runner.setDaemon(true);
+        runner.start();
+        try {
+            runner.join(request.getTimeLimitMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (runner.isAlive()) {
+            answer(TestReport.Status.TIMEOUT, "time limit of " + request.getTimeLimitMillis() + " ms exceeded");
+            Runtime.getRuntime().halt(EXIT_AFTER_TIMEOUT);
+        } else if (failure[0] instanceof OutOfMemoryError) {
+            answer(TestReport.Status.MEMORY, failure[0].toString());
+            Runtime.getRuntime().halt(EXIT_AFTER_MEMORY);
+        } else if (failure[0] != null) {
+            answer(TestReport.Status.ERROR, failure[0].toString(), threadsLeft(before, runner));
+        } else {
+            answer(TestReport.Status.COMPLETED, captured.toString(), threadsLeft(before, runner));
+        }
+        currentId = -1;
+    }
+
+    private static URL[] urls(final List<String> classPath) throws MalformedURLException {
+        final URL[] urls = new URL[classPath.size()];
+        for (int i = 0; i < urls.length; ++i) {
+            urls[i] = Paths.get(classPath.get(i)).toUri().toURL();
+        }
+        return urls;
+    }
+
+    // threads the submission started and left running, e.g. a timer or an executor it didn't shut down
+    private static int threadsLeft(final Set<Thread> before, final Thread runner) {
+        int left = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread != runner && thread.isAlive() && !before.contains(thread)) {
+                ++left;
+            }
+        }
+        return left;
+    }
+
+    // the worker exits after these answers, the threads left don't matter
+    private void answer(final TestReport.Status status, final String output) {
+        answer(status, output, 0);
+    }
+
+    // the watchdog and the worker may answer at the same time, only the first answer per request is sent
+    private synchronized void answer(final TestReport.Status status, final String output, final int threadsLeft) {
+        final long id = currentId;
+        if (id < 0) {
+            return;
+        }
+        final long millis = (System.nanoTime() - currentStart) / 1_000_000;
+        final List<TestReport.Outcome> snapshot;
+        synchronized (outcomes) {
+            snapshot = new ArrayList<>(outcomes);
+        }
+        // on a line of its own, the submission may have left an unfinished line on FileDescriptor.out
+        protocol.println();
+        protocol.println(gson.toJson(new TestReport(id, currentNonce, status, millis, snapshot, output,
+                threadsLeft)));
+        currentId = -1;
+    }
+
+    /**
+     * Watches the heap pools which are only collected by full collections. Once a collection leaves them
+     * almost full, the submission would soon fail with an OutOfMemoryError anywhere, also in the worker.
+     */
+    private void startMemoryWatchdog() {
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            final long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * MEMORY_THRESHOLD));
+                pools.add(pool);
+            }
+        }
+        final Thread watchdog = new Thread(() -> {
+            while (true) {
+                for (MemoryPoolMXBean pool : pools) {
+                    if (pool.isCollectionUsageThresholdExceeded() && currentId >= 0) {
+                        answer(TestReport.Status.MEMORY, "heap exhausted in " + pool.getName());
+                        Runtime.getRuntime().halt(EXIT_AFTER_MEMORY);
+                    }
+                }
+                try {
+                    Thread.sleep(WATCHDOG_PERIOD_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "memory-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * Keeps the first bytes written, the rest is counted but dropped.
+     */
+    private static class BoundedOutput extends OutputStream {
+        private final int limit;
+        private final ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        private long dropped = 0;
+
+        private BoundedOutput(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized void write(final int b) {
+            if (kept.size() < limit) {
+                kept.write(b);
+            } else {
+                ++dropped;
+            }
+        }
+
+        @Override
+        public synchronized void write(final byte[] b, final int off, final int len) {
+            final int taken = Math.max(0, Math.min(len, limit - kept.size()));
+            kept.write(b, off, taken);
+            dropped += len - taken;
+        }
+
+        private synchronized void reset() {
+            kept.reset();
+            dropped = 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            final String text = kept.toString(StandardCharsets.UTF_8);
+            return dropped == 0 ? text : text + "... (" + dropped + " more bytes)";
+        }
+    }
+}
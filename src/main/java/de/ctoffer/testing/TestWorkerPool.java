@@ -0,0 +1,312 @@
+package de.ctoffer.testing;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import de.ctoffer.util.FileUtils;
+import de.ctoffer.util.ResultCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs reference tests against submissions in long-lived {@link TestWorker} JVMs, talking to them over their
+ * stdin and stdout.
+ *
+ * <p>
+ * Starting a JVM and loading the test framework takes longer than most test runs, so the workers are started
+ * up front and reused. A submission can still break the JVM it runs in, e.g. by leaking threads or static
+ * state, so a worker is replaced after 'maxRuns' runs and after every run which didn't complete: a timeout,
+ * an exhausted heap, a crash or no answer within the time limit. The replacement is started right away, so
+ * it is warm when the next run needs it. {@link #run(List, List)} may be called from as many threads as
+ * wanted; a call waits while all workers are busy.
+ * </p>
+ * <p>
+ * Only an answer with the random nonce of its request counts, what a submission writes to the worker's stdout
+ * itself is skipped. A worker whose submission left threads running is replaced as well, those threads could
+ * read the next request. If a replacement can't be started, the next run starts it.
+ * </p>
+ */
+public class TestWorkerPool implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(TestWorkerPool.class);
+    // time a worker gets on top of the time limit to answer, e.g. after a long collection
+    private static final long GRACE_MILLIS = 2000;
+    private static final String END_OF_OUTPUT = "\u0000eof";
+    private static final String CACHE_NAME = "test";
+    private static final int NONCE_BYTES = 16;
+    private static final long RETRY_MILLIS = 100;
+
+    private final int maxRuns;
+    private final long memoryMb;
+    private final long timeLimitMillis;
+    private final Path workingFolder;
+    private final BlockingQueue<Worker> idle;
+    private final List<Worker> all = new ArrayList<>();
+    private final Gson gson = new Gson();
+    private final AtomicLong nextId = new AtomicLong();
+    private final SecureRandom random = new SecureRandom();
+    // workers which couldn't be replaced after a run
+    private final AtomicInteger missing = new AtomicInteger();
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger recycled = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    /**
+     * @param workers         number of worker JVMs
+     * @param maxRuns         runs after which a worker is replaced
+     * @param memoryMb        maximum heap of each worker
+     * @param timeLimitMillis time limit of the tests of one submission
+     * @throws IllegalStateException if no worker can be started, e.g. in a native image
+     */
+    public TestWorkerPool(final int workers, final int maxRuns, final long memoryMb, final long timeLimitMillis)
+            throws IOException {
+        if (workers < 1 || maxRuns < 1) {
+            throw new IllegalArgumentException("At least one worker and one run per worker are required!");
+        }
+        this.maxRuns = maxRuns;
+        this.memoryMb = memoryMb;
+        this.timeLimitMillis = timeLimitMillis;
+        workingFolder = Files.createTempDirectory("sea-test");
+        idle = new LinkedBlockingQueue<>();
+        for (int i = 0; i < workers; ++i) {
+            idle.add(startWorker());
+        }
+    }
+
+    private List<String> command() {
+        final Path java = Path.of(System.getProperty("java.home", ""), "bin", "java");
+        final String classPath = System.getProperty("java.class.path", "");
+        if (!Files.isExecutable(java) || classPath.isEmpty()) {
+            throw new IllegalStateException("Test workers need the tool to run on a JVM, found no java at " + java);
+        }
+        return List.of(java.toString(),
+                "-Xmx" + memoryMb + "m",
+                "-XX:+UseSerialGC",
+                "-XX:TieredStopAtLevel=1",
+                "-Djava.awt.headless=true",
+                "-cp", classPath,
+                TestWorker.class.getName());
+    }
+
+    private synchronized Worker startWorker() throws IOException {
+        final Process process = new ProcessBuilder(command())
+                .directory(workingFolder.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        final Worker worker = new Worker(process);
+        all.add(worker);
+        started.incrementAndGet();
+        return worker;
+    }
+
+    /**
+     * Runs the test classes in a fresh class loader of a worker.
+     *
+     * @param classPath   folders and archives of the submission, the tests and the test framework
+     * @param testClasses fully qualified names of the test classes, run in this order
+     * @throws InterruptedException if interrupted while waiting for a worker or its answer
+     */
+    public TestReport run(final List<String> classPath, final List<String> testClasses)
+            throws IOException, InterruptedException {
+        final Worker worker = take();
+        TestReport report = null;
+        try {
+            report = worker.run(new TestRequest(nextId.incrementAndGet(), nonce(), classPath, testClasses,
+                    timeLimitMillis));
+            return report;
+        } finally {
+            if (report != null && report.getStatus() == TestReport.Status.COMPLETED && report.getThreadsLeft() == 0
+                    && worker.runs < maxRuns) {
+                idle.add(worker);
+            } else {
+                recycle(worker);
+            }
+        }
+    }
+
+    // polls, so a worker which couldn't be replaced is started again while waiting
+    private Worker take() throws IOException, InterruptedException {
+        while (true) {
+            startMissing();
+            final Worker worker = idle.poll(RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            if (worker != null) {
+                return worker;
+            }
+        }
+    }
+
+    private void startMissing() throws IOException {
+        int count;
+        while (!closed && (count = missing.get()) > 0) {
+            if (missing.compareAndSet(count, count - 1)) {
+                try {
+                    idle.add(startWorker());
+                } catch (IOException | RuntimeException e) {
+                    missing.incrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private String nonce() {
+        final byte[] bytes = new byte[NONCE_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    // never throws, the report of the run must reach the caller; a failed start is retried by the next run
+    private void recycle(final Worker worker) {
+        worker.stop();
+        synchronized (this) {
+            all.remove(worker);
+        }
+        if (!closed) {
+            recycled.incrementAndGet();
+            try {
+                idle.add(startWorker());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not replace test worker {}, the next run tries again: {}", worker.process.pid(),
+                        e.getMessage());
+                missing.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param cacheFolder folder of all caches of the sheet, the results are kept in a sub folder
+     * @param testClasses reference tests, the cache only holds results of these tests
+     * @param classPath   class path of the tests, without the classes of the submission
+     * @return cache of completed test runs, which misses as soon as the tests or the limits change
+     */
+    public ResultCache<TestReport> openCache(final Path cacheFolder,
+                                             final List<String> testClasses,
+                                             final List<String> classPath) throws IOException {
+        final StringBuilder version = new StringBuilder("tests ").append(String.join(",", testClasses))
+                .append(" limit ").append(timeLimitMillis).append("ms ").append(memoryMb).append("mb");
+        for (String entry : classPath) {
+            version.append(' ').append(entry).append('@').append(FileUtils.stamp(Paths.get(entry)));
+        }
+        return new ResultCache<>(cacheFolder.resolve(CACHE_NAME), version.toString(), TestReport.CODEC);
+    }
+
+    public int getStarted() {
+        return started.get();
+    }
+
+    public int getRecycled() {
+        return recycled.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d workers started, %d recycled", started.get(), recycled.get());
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        final List<Worker> workers;
+        synchronized (this) {
+            workers = new ArrayList<>(all);
+            all.clear();
+        }
+        workers.forEach(Worker::stop);
+        FileUtils.deletePath(workingFolder);
+    }
+
+    private class Worker {
+        private final Process process;
+        private final Writer requests;
+        private final BlockingQueue<String> answers = new LinkedBlockingQueue<>();
+        private int runs = 0;
+
+        private Worker(final Process process) {
+            this.process = process;
+            requests = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+            final Thread reader = new Thread(this::readAnswers, "test-worker-" + process.pid());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void readAnswers() {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    answers.add(line);
+                }
+            } catch (IOException e) {
+                logger.debug("Test worker {} closed its output: {}", process.pid(), e.getMessage());
+            } finally {
+                answers.add(END_OF_OUTPUT);
+            }
+        }
+
+        private TestReport run(final TestRequest request) throws InterruptedException {
+            ++runs;
+            try {
+                requests.write(gson.toJson(request));
+                requests.write('\n');
+                requests.flush();
+            } catch (IOException e) {
+                return TestReport.crashed(request.getId(), "worker not reachable: " + e.getMessage());
+            }
+
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(request.getTimeLimitMillis()
+                    + GRACE_MILLIS);
+            while (true) {
+                final String answer = answers.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (answer == null) {
+                    return TestReport.crashed(request.getId(), "no answer within the time limit");
+                }
+                if (answer.equals(END_OF_OUTPUT)) {
+                    return TestReport.crashed(request.getId(), "worker exited" + exitCode());
+                }
+                try {
+                    final TestReport report = gson.fromJson(answer, TestReport.class);
+                    // an answer to an earlier request, which came too late, is skipped
+                    if (report != null && report.getId() == request.getId()) {
+                        if (request.getNonce().equals(report.getNonce())) {
+                            return report;
+                        }
+                        logger.warn("Skipped a report of test worker {} without the nonce of request {}",
+                                process.pid(), request.getId());
+                    }
+                } catch (JsonParseException e) {
+                    logger.debug("Skipped unexpected output of test worker {}: {}", process.pid(), answer);
+                }
+            }
+        }
+
+        private String exitCode() throws InterruptedException {
+            return process.waitFor(GRACE_MILLIS, TimeUnit.MILLISECONDS) ? " with code " + process.exitValue() : "";
+        }
+
+        private void stop() {
+            try {
+                requests.close();
+            } catch (IOException e) {
+                // the worker is gone already
+            }
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package de.ctoffer.util;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooperative cancellation of a running command. Long running code checks the token between steps
+ * and stops with a {@link CancellationException} once the token was cancelled, its deadline passed
+ * or the running thread was interrupted.
+ */
+public final class CancellationToken {
+    public static final CancellationToken NONE = new CancellationToken(false);
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final boolean cancellable;
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private volatile String reason;
+    private volatile long deadline = NO_DEADLINE;
+    private volatile Duration timeout;
+
+    private CancellationToken(final boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    public static CancellationToken create() {
+        return new CancellationToken(true);
+    }
+
+    /**
+     * Cancels the token once the given time passed from now on.
+     *
+     * @param timeout time the holder of the token may run
+     */
+    public void setDeadline(final Duration timeout) {
+        if (!cancellable) {
+            throw new UnsupportedOperationException("Can't set a deadline for CancellationToken.NONE!");
+        }
+        this.timeout = timeout;
+        this.deadline = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * @param reason why the token was cancelled, reported by {@link #throwIfCancelled()}
+     */
+    public void cancel(final String reason) {
+        if (cancellable && this.reason == null) {
+            this.reason = reason;
+            cancelled.countDown();
+        }
+    }
+
+    public boolean isCancelled() {
+        if (!cancellable) {
+            return false;
+        }
+        if (cancelled.getCount() == 0) {
+            return true;
+        }
+        if (System.nanoTime() - deadline > 0 && deadline != NO_DEADLINE) {
+            cancel("Deadline of " + timeout.getSeconds() + "s exceeded");
+            return true;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            cancel("Interrupted");
+            return true;
+        }
+        return false;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @throws CancellationException if the token was cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException(reason);
+        }
+    }
+
+    /**
+     * Sleeps for the given time, but wakes up as soon as the token is cancelled.
+     *
+     * @param millis time to sleep
+     * @throws CancellationException if the token was cancelled before or while sleeping
+     */
+    public void sleep(final long millis) {
+        throwIfCancelled();
+        try {
+            final long remaining = deadline == NO_DEADLINE
+                    ? millis
+                    : Math.min(millis, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+            if (!cancellable) {
+                Thread.sleep(millis);
+            } else {
+                cancelled.await(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        throwIfCancelled();
+    }
+}
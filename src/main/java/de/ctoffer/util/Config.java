@@ -1,71 +1,172 @@
 package de.ctoffer.util;
 
-import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Immutable snapshot of a json configuration.
+ *
+ * <p>
+ * All paths of the form "a/b/c" are resolved once, when the snapshot is created. Every value
+ * and every nested object is indexed by its full path, so lookups are a single hash lookup and
+ * {@link #sub(String)} returns an already built instance instead of walking the json tree.
+ * </p>
+ * Arrays are indexed as well, arrays of values as unmodifiable lists of strings and arrays of objects
+ * as lists of configs. Nothing handed out can be modified, so no lookup has to copy.
+ */
 public class Config {
-    private JsonObject object;
+    private static final String SEPARATOR = "/";
+
+    private final Set<String> keys;
+    private final Map<String, JsonElement> values;
+    private final Map<String, Config> subs;
+    private final Map<String, List<String>> lists;
+    private final Map<String, List<Config>> configLists;
 
     public Config(Path path) throws IOException {
         this(Files.newInputStream(path));
     }
 
     public Config(final InputStream input) throws IOException {
-        try (InputStreamReader reader = new InputStreamReader(input)) {
-            object = JsonParser.parseReader(reader).getAsJsonObject();
-        }
-        input.close();
+        this(parse(input), new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
     }
 
     public Config(final JsonObject obj) {
-        this.object = obj;
+        this(obj.deepCopy(), new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
     }
 
-    public String getString(String path) {
-        String[] parts = path.split("/");
-        if (parts.length == 1) {
-            return object.get(parts[0]).getAsString();
-        } else {
-            String[] subArray = Arrays.asList(parts).subList(0, parts.length - 1).toArray(new String[]{});
-            return sub(subArray).object.get(parts[parts.length - 1]).getAsString();
+    private Config(final JsonObject object,
+                   final Map<String, JsonElement> values,
+                   final Map<String, Config> subs,
+                   final Map<String, List<String>> lists,
+                   final Map<String, List<Config>> configLists) {
+        this.keys = Collections.unmodifiableSet(new LinkedHashSet<>(object.keySet()));
+
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            final String key = entry.getKey();
+            final JsonElement value = entry.getValue();
+            values.put(key, value);
+            if (value.isJsonObject()) {
+                final Config child = of(value.getAsJsonObject());
+                subs.put(key, child);
+                child.values.forEach((path, element) -> values.put(key + SEPARATOR + path, element));
+                child.subs.forEach((path, config) -> subs.put(key + SEPARATOR + path, config));
+                child.lists.forEach((path, list) -> lists.put(key + SEPARATOR + path, list));
+                child.configLists.forEach((path, list) -> configLists.put(key + SEPARATOR + path, list));
+            } else if (value.isJsonArray()) {
+                indexArray(key, value.getAsJsonArray(), lists, configLists);
+            }
         }
+
+        this.values = Collections.unmodifiableMap(values);
+        this.subs = Collections.unmodifiableMap(subs);
+        this.lists = Collections.unmodifiableMap(lists);
+        this.configLists = Collections.unmodifiableMap(configLists);
+    }
+
+    private static Config of(final JsonObject object) {
+        return new Config(object, new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
     }
 
-    public JsonArray getList(String path) {
-        String[] parts = path.split("/");
-        JsonArray result;
+    // an empty array is both, mixed arrays and arrays of arrays are neither
+    private static void indexArray(final String key,
+                                   final Iterable<JsonElement> array,
+                                   final Map<String, List<String>> lists,
+                                   final Map<String, List<Config>> configLists) {
+        final List<String> strings = new ArrayList<>();
+        final List<Config> configs = new ArrayList<>();
+        for (JsonElement element : array) {
+            if (element.isJsonPrimitive()) {
+                strings.add(element.getAsString());
+            } else if (element.isJsonObject()) {
+                configs.add(of(element.getAsJsonObject()));
+            } else {
+                return;
+            }
+        }
+        if (configs.isEmpty()) {
+            lists.put(key, Collections.unmodifiableList(strings));
+        }
+        if (strings.isEmpty()) {
+            configLists.put(key, Collections.unmodifiableList(configs));
+        }
+    }
 
-        if (parts.length == 1) {
-            result = object.get(parts[0]).getAsJsonArray();
-        } else {
-            String[] subArray = Arrays.asList(parts).subList(0, parts.length - 1).toArray(new String[]{});
-            result = sub(subArray).object.get(parts[parts.length - 1]).getAsJsonArray();
+    private static JsonObject parse(final InputStream input) throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
         }
+    }
+
+    public boolean has(String path) {
+        return values.containsKey(path);
+    }
 
+    public String getString(String path) {
+        return get(path).getAsString();
+    }
+
+    /**
+     * @return unmodifiable keys of the values and objects directly inside this config
+     */
+    public Set<String> keys() {
+        return keys;
+    }
+
+    /**
+     * @return unmodifiable list of the values of an array, numbers and booleans as strings
+     */
+    public List<String> getList(String path) {
+        final List<String> result = lists.get(path);
+        if (result == null) {
+            throw new IllegalArgumentException("No list of values at '" + path + "'");
+        }
         return result;
     }
 
-    public JsonObject getObject(String path) {
-        return sub(path).object;
+    /**
+     * @return unmodifiable list of the configs of an array of objects
+     */
+    public List<Config> getConfigs(String path) {
+        final List<Config> result = configLists.get(path);
+        if (result == null) {
+            throw new IllegalArgumentException("No list of config objects at '" + path + "'");
+        }
+        return result;
     }
 
     public Config sub(String path) {
-        return sub(path.split("/"));
+        final Config result = subs.get(path);
+        if (result == null) {
+            throw new IllegalArgumentException("No config object at '" + path + "'");
+        }
+        return result;
     }
 
     public Config sub(String... path) {
-        JsonObject result = object;
-        for (String name : path) {
-            result = result.getAsJsonObject(name);
+        return sub(String.join(SEPARATOR, path));
+    }
+
+    private JsonElement get(String path) {
+        final JsonElement result = values.get(path);
+        if (result == null) {
+            throw new IllegalArgumentException("No config value at '" + path + "'");
         }
-        return new Config(result);
+        return result;
     }
 }
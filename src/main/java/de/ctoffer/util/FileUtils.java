@@ -1,24 +1,50 @@
 package de.ctoffer.util;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.util.stream.Stream;
 
 public enum FileUtils {
     ;
 
+    /**
+     * Deletes the file or directory tree on the calling thread, see {@link TreeDeleter} for several threads.
+     *
+     * @param path file or directory to delete, nothing happens if it doesn't exist
+     * @throws IOException if a part of the tree couldn't be deleted, the failures are listed in the message
+     */
     public static void deletePath(final Path path) throws IOException {
-        if (Files.exists(path)) {
-            if (Files.isDirectory(path)) {
-                Files.walk(path)
-                        .sorted(Comparator.reverseOrder())
-                        .map(Path::toFile)
-                        .forEach(File::delete);
-            } else {
-                Files.delete(path);
+        try {
+            // a file or an empty directory, as for most entries of a zip, needs no walk
+            Files.deleteIfExists(path);
+            return;
+        } catch (DirectoryNotEmptyException e) {
+            // delete the tree below
+        }
+        final TreeDeleter.Result result = new TreeDeleter(Runnable::run, 1, CancellationToken.NONE).delete(path);
+        if (!result.isComplete()) {
+            throw new IOException(String.format("Couldn't delete %d paths of '%s': %s",
+                    result.getFailureCount(), path, String.join(", ", result.getFailures())));
+        }
+    }
+
+    /**
+     * @return value which changes with the size or modification time of any file of the entry, e.g. a
+     *         recompiled class of a class path folder or a replaced archive; 0 if the entry doesn't exist
+     */
+    public static long stamp(final Path entry) throws IOException {
+        if (!Files.exists(entry)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(entry).sorted()) {
+            long stamp = 17;
+            for (Path file : (Iterable<Path>) files::iterator) {
+                stamp = 31 * stamp + Files.getLastModifiedTime(file).toMillis();
+                stamp = 31 * stamp + Files.size(file);
             }
+            return stamp;
         }
     }
 }
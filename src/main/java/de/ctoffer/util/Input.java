@@ -1,16 +1,22 @@
 package de.ctoffer.util;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Scanner;
+import java.io.InputStreamReader;
 
 public enum Input {
     ;
 
-    public static String readNextLine(final InputStream in) {
-        try (Scanner sc = new Scanner(closeProtection(in))) {
-            return sc.nextLine();
-        }
+    /**
+     * Creates a reader which should be used for all lines read from the given stream, because
+     * it buffers ahead. Closing the reader doesn't close the stream.
+     *
+     * @param in stream to read from
+     * @return buffered reader for 'in'
+     */
+    public static BufferedReader newReader(final InputStream in) {
+        return new BufferedReader(new InputStreamReader(closeProtection(in)));
     }
 
     public static InputStream closeProtection(final InputStream inputStream) {
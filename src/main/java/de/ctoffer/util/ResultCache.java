@@ -0,0 +1,183 @@
+package de.ctoffer.util;
+
+import de.ctoffer.util.codec.Codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent results of a tool, keyed by the content of the sources it ran on and the version of the tool.
+ *
+ * <p>
+ * The key is the SHA-256 of the tool version and of the name and normalized content of every source file,
+ * so a submission handed in again unchanged, also for another exercise, finds the result of the first run,
+ * while any change to a source or to the tool misses. Normalizing drops a byte order mark, line ending
+ * differences and trailing whitespace. The folders the files are in are not part of the key, the compiler
+ * only depends on the packages declared in the files. A result which names source files, like the messages of a
+ * compiler, has to refer to them by their {@link #sourceKeys(Path) key} and resolve it in the submission at hand.
+ * </p>
+ * <p>
+ * Every result is a file of its own, written to a temporary file first and then moved into place, so
+ * several threads may use the cache at once and a crash never leaves a half written result behind.
+ * </p>
+ *
+ * @param <T> type of the results
+ */
+public class ResultCache<T> {
+    private static final String SOURCE_SUFFIX = ".java";
+    private static final String ENTRY_SUFFIX = ".bin";
+
+    private final Path folder;
+    private final String toolVersion;
+    private final Codec<T> codec;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param folder      folder of the results of this tool
+     * @param toolVersion changes whenever the tool would produce another result for the same sources
+     * @param codec       writes and reads the results
+     */
+    public ResultCache(final Path folder, final String toolVersion, final Codec<T> codec) {
+        this.folder = folder;
+        this.toolVersion = toolVersion;
+        this.codec = codec;
+    }
+
+    /**
+     * @return key of the Java sources below 'root' for this tool
+     */
+    public String key(final Path root) throws IOException {
+        return key(sourceKeys(root));
+    }
+
+    /**
+     * @param sourceKeys keys of the sources as returned by {@link #sourceKeys(Path)}
+     * @return key of these sources for this tool
+     */
+    public String key(final Map<Path, String> sourceKeys) {
+        final List<String> files = new ArrayList<>(sourceKeys.values());
+        // sorted by content, the same files in other folders or another order give the same key
+        Collections.sort(files);
+        final MessageDigest digest = sha256();
+        update(digest, toolVersion);
+        files.forEach(file -> update(digest, file));
+        return hex(digest.digest());
+    }
+
+    /**
+     * @return key of the name and normalized content of every Java source below 'root', by its path relative
+     *         to 'root'; the same file has the same key in every submission
+     */
+    public static Map<Path, String> sourceKeys(final Path root) throws IOException {
+        final Map<Path, String> keys = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path source : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(source) && source.getFileName().toString().endsWith(SOURCE_SUFFIX)) {
+                    final MessageDigest file = sha256();
+                    update(file, source.getFileName().toString());
+                    update(file, normalize(new String(Files.readAllBytes(source), StandardCharsets.UTF_8)));
+                    keys.put(root.relativize(source), hex(file.digest()));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // length first, so the boundary between two strings can't move
+    private static void update(final MessageDigest digest, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(new byte[]{(byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                (byte) (bytes.length >>> 8), (byte) bytes.length});
+        digest.update(bytes);
+    }
+
+    // the result of compiling or testing doesn't depend on these differences
+    static String normalize(final String source) {
+        final String text = source.startsWith("\uFEFF") ? source.substring(1) : source;
+        return text.lines()
+                .map(String::stripTrailing)
+                .collect(Collectors.joining("\n"))
+                .stripTrailing();
+    }
+
+    /**
+     * Looks up a result, a missing or unreadable result counts as a miss.
+     */
+    public Optional<T> get(final String key) {
+        final Path entry = folder.resolve(key + ENTRY_SUFFIX);
+        if (Files.exists(entry)) {
+            try {
+                final T value = Serial.read(entry.toFile(), codec);
+                hits.incrementAndGet();
+                return Optional.of(value);
+            } catch (StorageException e) {
+                // written by another version of the codec or damaged, the result is computed again
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(final String key, final T value) throws IOException {
+        Files.createDirectories(folder);
+        final Path temporary = Files.createTempFile(folder, key, ".tmp");
+        try {
+            Serial.write(temporary.toFile(), value, codec);
+            try {
+                Files.move(temporary, folder.resolve(key + ENTRY_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, folder.resolve(key + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (StorageException e) {
+            throw new IOException(e);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cache hits, %d misses", hits.get(), misses.get());
+    }
+}
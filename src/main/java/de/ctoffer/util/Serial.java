@@ -1,5 +1,10 @@
 package de.ctoffer.util;
 
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import de.ctoffer.util.codec.Codec;
+import de.ctoffer.util.funtional.ThrowingConsumer;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -7,31 +12,91 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.of;
 
+/**
+ * Stores objects in files, either with java object serialization or with a {@link Codec}.
+ *
+ * <p>
+ * Files written with a codec start with a header of the form
+ * {@code MAGIC, FORMAT_VERSION, codec id, codec version}, which is checked when reading.
+ * Files written with java object serialization can still be read by
+ * {@link #read(File, Codec, Function)}, which converts them with the given migration.
+ * </p>
+ */
 public enum Serial {
     ;
 
+    private static final int MAGIC = 0x53454143;
+    private static final int FORMAT_VERSION = 1;
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED0005;
+
     public static void write(File destination, Serializable object) {
         requireNonNull(destination);
         requireNonNull(object);
-        of(destination)
-                .map(File::getParentFile)
-                .ifPresent(File::mkdirs);
-        try (ObjectOutputStream oos = createOutputStream(destination)) {
-            oos.writeObject(object);
+        writeAtomically(destination, temp -> {
+            try (ObjectOutputStream oos = createOutputStream(temp.toFile())) {
+                oos.writeObject(object);
+            }
+        });
+    }
+
+    /**
+     * Writes to a temporary file next to the destination and moves it into place once it is complete, so a
+     * failed or aborted write leaves the previous content behind instead of a truncated file.
+     */
+    private static void writeAtomically(File destination, ThrowingConsumer<Path, IOException> write) {
+        createParent(destination);
+        final Path target = destination.toPath().toAbsolutePath();
+        try {
+            final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                write.accept(temp);
+                Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
         } catch (IOException ioe) {
             throw new StorageException(ioe);
         }
     }
 
+    private static void createParent(File destination) {
+        of(destination)
+                .map(File::getParentFile)
+                .ifPresent(File::mkdirs);
+    }
+
     private static ObjectOutputStream createOutputStream(File destionation) throws IOException {
         final FileOutputStream fos = new FileOutputStream(destionation);
         return new ObjectOutputStream(fos);
     }
 
+    public static <T> void write(File destination, T object, Codec<T> codec) {
+        requireNonNull(destination);
+        requireNonNull(object);
+        requireNonNull(codec);
+        writeAtomically(destination, temp -> {
+            try (BinaryWriter out = new BinaryWriter(FileChannel.open(temp, WRITE))) {
+                out.writeInt(MAGIC);
+                out.writeVarInt(FORMAT_VERSION);
+                out.writeString(codec.id());
+                out.writeVarInt(codec.version());
+                codec.write(object, out);
+            }
+        });
+    }
+
     public static <T> T read(File source, T defaultObj) {
         try {
             return read(source);
@@ -53,4 +118,48 @@ public enum Serial {
         final FileInputStream fis = new FileInputStream(source);
         return new ObjectInputStream(fis);
     }
+
+    public static <T> T read(File source, Codec<T> codec) {
+        return read(source, codec, legacy -> {
+            throw new StorageException("'" + source + "' was not written by codec '" + codec.id() + "'");
+        });
+    }
+
+    /**
+     * Reads an object written with the given codec. If the file was written with java object
+     * serialization instead, the deserialized object is converted with 'migration'.
+     *
+     * @param source    file to read
+     * @param codec     codec which wrote the file
+     * @param migration conversion from the java serialized object to the codecs type
+     * @param <T>       type of the result
+     * @return read object
+     * @throws StorageException if the file can't be read or was written by another codec
+     */
+    public static <T> T read(File source, Codec<T> codec, Function<Object, T> migration) {
+        requireNonNull(codec);
+        try (BinaryReader in = new BinaryReader(FileChannel.open(source.toPath(), READ))) {
+            final int magic = in.readInt();
+            if (magic == JAVA_SERIALIZATION_MAGIC) {
+                return migration.apply(read(source));
+            }
+            if (magic != MAGIC) {
+                throw new StorageException("'" + source + "' is no Serial file");
+            }
+            final int formatVersion = in.readVarInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new StorageException("Unsupported format version " + formatVersion + " of '" + source + "'");
+            }
+            final String codecId = in.readString();
+            if (!codec.id().equals(codecId)) {
+                throw new StorageException("'" + source + "' was written by codec '" + codecId + "', not '" + codec.id() + "'");
+            }
+            return codec.read(in, in.readVarInt());
+        } catch (IOException ioe) {
+            throw new StorageException(ioe);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            // a codec indexing or constructing with damaged values
+            throw new StorageException(e);
+        }
+    }
 }
@@ -3,11 +3,17 @@ package de.ctoffer.util;
 public enum ThreadUtils {
     ;
 
+    /**
+     * Sleeps without throwing. An interrupt ends the sleep early and stays set on the thread,
+     * so callers can still react to it.
+     *
+     * @param millis time to sleep
+     */
     public static void sleepNoThrow(long millis) {
         try {
             Thread.sleep(millis);
         } catch (InterruptedException exc) {
-            // ignore
+            Thread.currentThread().interrupt();
         }
     }
 }
@@ -0,0 +1,270 @@
+package de.ctoffer.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes directory trees with several threads.
+ *
+ * <p>
+ * Every directory is a task which streams its entries, deletes the files right away and hands its
+ * subdirectories to further tasks. A directory is deleted by whichever task finishes its last subdirectory,
+ * so no task waits for another. At most 'parallelism' tasks are handed to the executor at a time; a
+ * subdirectory beyond that is deleted by the task which found it. This bounds the memory to the tasks in
+ * flight and the depth of the tree, instead of the whole tree.
+ * </p>
+ * <p>
+ * Symbolic links are deleted, never followed. A path which can't be deleted is reported, its parent
+ * directories are kept without further reports.
+ * </p>
+ * <p>
+ * Once cancelled, directories which were handed to the executor but didn't start yet are taken back and
+ * kept, so a task the executor holds back or drops doesn't keep the deletion waiting.
+ * </p>
+ */
+public class TreeDeleter {
+    private static final int MAX_REPORTED_FAILURES = 100;
+    private static final long POLL_MILLIS = 100;
+
+    private final Executor executor;
+    private final Semaphore slots;
+    private final CancellationToken cancellation;
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong directories = new AtomicLong();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    // handed to the executor, but not started yet; whoever removes a directory from here processes it
+    private final Set<Directory> queued = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param executor     runs the directory tasks
+     * @param parallelism  maximum number of tasks handed to the executor at the same time
+     * @param cancellation stops the deletion, the parts not deleted yet are kept
+     */
+    public TreeDeleter(final Executor executor, final int parallelism, final CancellationToken cancellation) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1!");
+        }
+        this.executor = executor;
+        this.slots = new Semaphore(parallelism);
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Deletes the given files and directory trees, missing paths are skipped.
+     *
+     * @return number of deleted entries and the failures
+     * @throws CancellationException if the token was cancelled
+     */
+    public Result deleteAll(final Collection<Path> roots) {
+        final CountDownLatch done = new CountDownLatch(roots.size());
+        for (Path root : roots) {
+            final Directory marker = new Directory(null, null, done);
+            deleteEntry(root, marker);
+            finish(marker);
+        }
+        await(done);
+        cancellation.throwIfCancelled();
+        return new Result(files.get(), directories.get(), failureCount.get(), new ArrayList<>(failures));
+    }
+
+    public Result delete(final Path root) {
+        return deleteAll(Collections.singletonList(root));
+    }
+
+    // running tasks end on their own once cancelled, the queued ones may never run
+    private void await(final CountDownLatch done) {
+        try {
+            while (!done.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancellation.isCancelled()) {
+                    dropQueued();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+    }
+
+    private void dropQueued() {
+        for (Directory directory : queued) {
+            if (queued.remove(directory)) {
+                slots.release();
+                directory.failed = true;
+                finish(directory);
+            }
+        }
+    }
+
+    private void deleteEntry(final Path path, final Directory parent) {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            fail(path, e, parent);
+            return;
+        }
+
+        if (attributes.isDirectory()) {
+            parent.pending.incrementAndGet();
+            schedule(new Directory(path, parent, null));
+        } else {
+            try {
+                Files.deleteIfExists(path);
+                files.incrementAndGet();
+            } catch (IOException e) {
+                fail(path, e, parent);
+            }
+        }
+    }
+
+    private void schedule(final Directory directory) {
+        if (slots.tryAcquire()) {
+            queued.add(directory);
+            try {
+                executor.execute(() -> {
+                    if (!queued.remove(directory)) {
+                        return;
+                    }
+                    try {
+                        process(directory);
+                    } finally {
+                        slots.release();
+                    }
+                });
+                return;
+            } catch (RejectedExecutionException e) {
+                if (!queued.remove(directory)) {
+                    return;
+                }
+                slots.release();
+            }
+        }
+        process(directory);
+    }
+
+    private void process(final Directory directory) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory.path)) {
+            for (Path entry : entries) {
+                if (cancellation.isCancelled()) {
+                    directory.failed = true;
+                    break;
+                }
+                deleteEntry(entry, directory);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(directory.path, e, directory);
+        }
+        finish(directory);
+    }
+
+    // called once per subdirectory and once by the directory's own task, the last call deletes the directory
+    private void finish(final Directory directory) {
+        Directory current = directory;
+        while (current != null && current.pending.decrementAndGet() == 0) {
+            if (current.path == null) {
+                current.done.countDown();
+                return;
+            }
+            if (current.failed) {
+                current.parent.failed = true;
+            } else {
+                try {
+                    Files.deleteIfExists(current.path);
+                    directories.incrementAndGet();
+                } catch (IOException e) {
+                    fail(current.path, e, current.parent);
+                }
+            }
+            current = current.parent;
+        }
+    }
+
+    private void fail(final Path path, final Exception e, final Directory parent) {
+        parent.failed = true;
+        if (failureCount.incrementAndGet() <= MAX_REPORTED_FAILURES) {
+            failures.add(path + ": " + e);
+        }
+    }
+
+    private static class Directory {
+        private final Path path;
+        private final Directory parent;
+        // only set for the marker above a root
+        private final CountDownLatch done;
+        // one for the task listing the directory plus one per subdirectory not finished yet
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile boolean failed = false;
+
+        private Directory(final Path path, final Directory parent, final CountDownLatch done) {
+            this.path = path;
+            this.parent = parent;
+            this.done = done;
+        }
+    }
+
+    public static class Result {
+        private final long files;
+        private final long directories;
+        private final int failureCount;
+        private final List<String> failures;
+
+        private Result(final long files, final long directories, final int failureCount, final List<String> failures) {
+            this.files = files;
+            this.directories = directories;
+            this.failureCount = failureCount;
+            this.failures = failures;
+        }
+
+        public long getFiles() {
+            return files;
+        }
+
+        public long getDirectories() {
+            return directories;
+        }
+
+        public boolean isComplete() {
+            return failureCount == 0;
+        }
+
+        public int getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return the first failures as 'path: error', at most 100
+         */
+        public List<String> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Deleted %d files and %d directories, %d failures", files, directories, failureCount);
+        }
+    }
+}
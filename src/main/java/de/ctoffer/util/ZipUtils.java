@@ -11,6 +11,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -25,7 +26,17 @@ public enum ZipUtils {
     }
 
     public static Optional<Path> unzip(Path src, ConsoleContext console) {
-        return new Unzipper(src).run(console);
+        return unzip(src, console, CancellationToken.NONE);
+    }
+
+    /**
+     * Unzips the archive next to itself, nested archives included. If the token is cancelled while
+     * unzipping, the partially extracted folder is deleted.
+     *
+     * @throws java.util.concurrent.CancellationException if the token was cancelled
+     */
+    public static Optional<Path> unzip(Path src, ConsoleContext console, CancellationToken cancellation) {
+        return new Unzipper(src).run(console, cancellation);
     }
 }
 
@@ -51,20 +62,27 @@ class Unzipper {
         this.destination = destination;
     }
 
-    public Optional<Path> run(final ConsoleContext console) {
+    public Optional<Path> run(final ConsoleContext console, final CancellationToken cancellation) {
         Optional<Path> result = Optional.empty();
         try {
+            cancellation.throwIfCancelled();
             console.output("Unzip from '%s' to '%s'", source.getFileName(), destination.getFileName());
             Files.createDirectories(destination);
             final Charset CP437 = Charset.forName("CP437");
 
             try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(source), CP437)) {
-                tryLoopUntilNull(zis::getNextEntry, entry -> handleZipEntry(zis, entry, console));
+                tryLoopUntilNull(zis::getNextEntry, entry -> {
+                    cancellation.throwIfCancelled();
+                    handleZipEntry(zis, entry, console, cancellation);
+                });
             }
 
             result = Optional.of(destination);
         } catch (IOException ioe) {
             console.error(ioe.getMessage());
+        } catch (CancellationException e) {
+            removePartialDestination();
+            throw e;
         }
 
         return result;
@@ -72,7 +90,8 @@ class Unzipper {
 
     private void handleZipEntry(final ZipInputStream zis,
                                 final ZipEntry zipEntry,
-                                final ConsoleContext console) throws IOException {
+                                final ConsoleContext console,
+                                final CancellationToken cancellation) throws IOException {
         final String fileName = zipEntry.getName();
         if (isMacMeta(fileName)) {
             final Path entryPath = destination.resolve(fileName);
@@ -84,13 +103,21 @@ class Unzipper {
                 Files.createDirectories(entryPath.getParent());
                 Files.copy(zis, entryPath, StandardCopyOption.REPLACE_EXISTING);
                 if(ZipUtils.isZip(entryPath)) {
-                    new Unzipper(entryPath).run(console);
+                    new Unzipper(entryPath).run(console, cancellation);
                 }
             }
         }
         zis.closeEntry();
     }
 
+    private void removePartialDestination() {
+        try {
+            deletePath(destination);
+        } catch (IOException ioe) {
+            logger.warn("Couldn't remove partially unzipped '{}': {}", destination, ioe.getMessage());
+        }
+    }
+
     private boolean isMacMeta(final String fileName) {
         return !fileName.contains("__MACOSX");
     }
@@ -0,0 +1,144 @@
+package de.ctoffer.util.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered reader for data written by {@link BinaryWriter}.
+ */
+public class BinaryReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    public BinaryReader(final ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    /**
+     * Creates a reader for data which is already in memory.
+     *
+     * @param bytes data to read
+     */
+    public BinaryReader(final byte[] bytes) {
+        this.channel = null;
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    public int readByte() throws IOException {
+        ensure(1);
+        return buffer.get() & 0xFF;
+    }
+
+    public int readInt() throws IOException {
+        ensure(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        ensure(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    public int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    /**
+     * Reads a length or number of elements written by {@link BinaryWriter#writeVarInt(int)}.
+     *
+     * @throws IOException if the count is negative or exceeds the bytes left, as in damaged data
+     */
+    public int readCount() throws IOException {
+        final int count = readVarInt();
+        if (count < 0 || count > remaining()) {
+            throw new IOException("Invalid length " + count + " with " + remaining() + " bytes left");
+        }
+        return count;
+    }
+
+    /**
+     * @return bytes left to read, {@link Long#MAX_VALUE} if the channel doesn't know its size
+     */
+    public long remaining() throws IOException {
+        if (channel == null) {
+            return buffer.remaining();
+        }
+        if (channel instanceof SeekableByteChannel) {
+            final SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            return seekable.size() - seekable.position() + buffer.remaining();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public String readString() throws IOException {
+        final int length = readCount();
+        if (length <= buffer.capacity()) {
+            ensure(length);
+            final String result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return result;
+        }
+        return new String(readFully(length), StandardCharsets.UTF_8);
+    }
+
+    public byte[] readBytes() throws IOException {
+        return readFully(readCount());
+    }
+
+    /**
+     * Reads exactly 'length' bytes, which were written without their length.
+     */
+    public byte[] readFully(final int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Invalid length " + length);
+        }
+        final byte[] result = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            ensure(1);
+            final int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(result, offset, chunk);
+            offset += chunk;
+        }
+        return result;
+    }
+
+    private void ensure(final int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (channel == null) {
+            throw new EOFException();
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
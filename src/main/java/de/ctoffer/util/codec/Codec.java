@@ -0,0 +1,33 @@
+package de.ctoffer.util.codec;
+
+import java.io.IOException;
+
+/**
+ * Converts objects of one shape to a compact binary form and back.
+ *
+ * <p>
+ * Every codec has a stable {@link #id()} and a {@link #version()}. Both are stored in the
+ * header of every file written by {@link de.ctoffer.util.Serial}, so a codec can still read
+ * data written by an older version of itself.
+ * </p>
+ *
+ * @param <T> type of the encoded objects
+ * @see Codecs
+ */
+public interface Codec<T> {
+    String id();
+
+    int version();
+
+    void write(T value, BinaryWriter out) throws IOException;
+
+    /**
+     * Reads an object written by this codec.
+     *
+     * @param in      source of the data
+     * @param version version of the codec which wrote the data
+     * @return decoded object
+     * @throws IOException if the data can't be read or has an unknown version
+     */
+    T read(BinaryReader in, int version) throws IOException;
+}
@@ -0,0 +1,151 @@
+package de.ctoffer.util.codec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codecs for the shapes which are stored most often.
+ */
+public enum Codecs {
+    ;
+
+    /**
+     * List of absolute paths. Consecutive paths usually share a long prefix (the sheet and
+     * group folder), so every path is stored as the length of the prefix it shares with its
+     * predecessor followed by the remaining suffix.
+     */
+    public static final Codec<List<Path>> PATH_LIST = new Codec<List<Path>>() {
+        @Override
+        public String id() {
+            return "path-list";
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(final List<Path> value, final BinaryWriter out) throws IOException {
+            out.writeVarInt(value.size());
+            String previous = "";
+            for (Path path : value) {
+                final String current = path.toAbsolutePath().toString();
+                final int shared = sharedPrefixLength(previous, current);
+                out.writeVarInt(shared);
+                out.writeString(current.substring(shared));
+                previous = current;
+            }
+        }
+
+        @Override
+        public List<Path> read(final BinaryReader in, final int version) throws IOException {
+            requireVersion(this, version);
+            final int size = in.readCount();
+            final List<Path> result = new ArrayList<>(size);
+            String previous = "";
+            for (int i = 0; i < size; ++i) {
+                final int shared = in.readVarInt();
+                if (shared < 0 || shared > previous.length()) {
+                    throw new IOException("Invalid shared prefix " + shared + " of path " + i);
+                }
+                final String current = previous.substring(0, shared) + in.readString();
+                result.add(Paths.get(current));
+                previous = current;
+            }
+            return result;
+        }
+    };
+
+    /**
+     * Map of strings to strings, keeping the iteration order of the written map.
+     */
+    public static final Codec<Map<String, String>> STRING_MAP = new Codec<Map<String, String>>() {
+        @Override
+        public String id() {
+            return "string-map";
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(final Map<String, String> value, final BinaryWriter out) throws IOException {
+            out.writeVarInt(value.size());
+            for (Map.Entry<String, String> entry : value.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeString(entry.getValue());
+            }
+        }
+
+        @Override
+        public Map<String, String> read(final BinaryReader in, final int version) throws IOException {
+            requireVersion(this, version);
+            final int size = in.readCount();
+            final Map<String, String> result = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+            for (int i = 0; i < size; ++i) {
+                result.put(in.readString(), in.readString());
+            }
+            return result;
+        }
+    };
+
+    /**
+     * List of strings.
+     */
+    public static final Codec<List<String>> STRING_LIST = new Codec<List<String>>() {
+        @Override
+        public String id() {
+            return "string-list";
+        }
+
+        @Override
+        public int version() {
+            return 1;
+        }
+
+        @Override
+        public void write(final List<String> value, final BinaryWriter out) throws IOException {
+            out.writeVarInt(value.size());
+            for (String string : value) {
+                out.writeString(string);
+            }
+        }
+
+        @Override
+        public List<String> read(final BinaryReader in, final int version) throws IOException {
+            requireVersion(this, version);
+            final int size = in.readCount();
+            final List<String> result = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                result.add(in.readString());
+            }
+            return result;
+        }
+    };
+
+    private static int sharedPrefixLength(final String a, final String b) {
+        final int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            ++i;
+        }
+        if (i > 0 && Character.isHighSurrogate(b.charAt(i - 1))) {
+            --i;
+        }
+        return i;
+    }
+
+    private static void requireVersion(final Codec<?> codec, final int version) throws IOException {
+        if (version < 1 || version > codec.version()) {
+            throw new IOException(String.format("Unsupported version %s of codec '%s'", version, codec.id()));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package de.ctoffer.util.funtional;
+
+public interface ThrowingFunction <T, R, E extends Exception> {
+    R apply(T obj) throws E;
+}
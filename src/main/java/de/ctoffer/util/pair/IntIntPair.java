@@ -0,0 +1,91 @@
+package de.ctoffer.util.pair;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static de.ctoffer.util.pair.Pair.MAP_KEY_FIRST;
+import static de.ctoffer.util.pair.Pair.MAP_KEY_SECOND;
+
+/**
+ * Immutable tuple of two ints, a {@link Pair} without boxing. Meant as key of maps, like group and sheet number.
+ */
+public final class IntIntPair {
+    public final int first;
+    public final int second;
+
+    public IntIntPair(final int first, final int second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public IntIntPair swapArgs() {
+        return new IntIntPair(second, first);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntIntPair)) {
+            return false;
+        }
+        final IntIntPair other = (IntIntPair) obj;
+        return first == other.first && second == other.second;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * first + second;
+    }
+
+    /**
+     * @return string representation like {@link Pair#toString()}
+     */
+    @Override
+    public String toString() {
+        return String.format("(%s, %s)", first, second);
+    }
+
+    public Pair<Integer, Integer> toPair() {
+        return Pair.paired(first, second);
+    }
+
+    /**
+     * @return map in the format of {@link Pair#toMap()}
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(MAP_KEY_FIRST, first);
+        map.put(MAP_KEY_SECOND, second);
+        return map;
+    }
+
+    public static IntIntPair paired(final int first, final int second) {
+        return new IntIntPair(first, second);
+    }
+
+    /**
+     * @throws NullPointerException if a component of the pair is null
+     */
+    public static IntIntPair from(final Pair<? extends Number, ? extends Number> pair) {
+        return new IntIntPair(pair.first.intValue(), pair.second.intValue());
+    }
+
+    /**
+     * Reverses {@link #toMap()} and {@link Pair#toMap()}.
+     *
+     * @throws IllegalArgumentException if the map doesn't contain two whole numbers in the range of int
+     */
+    public static IntIntPair fromMap(final Map<String, ?> map) {
+        return new IntIntPair(Pairs.intValue(map, MAP_KEY_FIRST), Pairs.intValue(map, MAP_KEY_SECOND));
+    }
+}
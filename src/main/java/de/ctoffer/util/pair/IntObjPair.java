@@ -0,0 +1,97 @@
+package de.ctoffer.util.pair;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static de.ctoffer.util.pair.Pair.MAP_KEY_FIRST;
+import static de.ctoffer.util.pair.Pair.MAP_KEY_SECOND;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable tuple of an int and an object, a {@link Pair} without boxing the first component. Meant as key of maps,
+ * like a Moodle id or group number together with an exercise.
+ *
+ * @param <S> type of the second object
+ */
+public final class IntObjPair<S> {
+    public final int first;
+    public final S second;
+
+    /**
+     * @throws NullPointerException if 'second' is null
+     */
+    public IntObjPair(final int first, final S second) {
+        this.first = first;
+        this.second = requireNonNull(second);
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public S getSecond() {
+        return second;
+    }
+
+    public <X> IntObjPair<X> mapSecond(final Function<S, X> mapper) {
+        return new IntObjPair<>(first, mapper.apply(second));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntObjPair)) {
+            return false;
+        }
+        final IntObjPair<?> other = (IntObjPair<?>) obj;
+        return first == other.first && second.equals(other.second);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * first + second.hashCode();
+    }
+
+    /**
+     * @return string representation like {@link Pair#toString()}
+     */
+    @Override
+    public String toString() {
+        return String.format("(%s, %s)", first, second);
+    }
+
+    public Pair<Integer, S> toPair() {
+        return Pair.paired(first, second);
+    }
+
+    /**
+     * @return map in the format of {@link Pair#toMap()}
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(MAP_KEY_FIRST, first);
+        map.put(MAP_KEY_SECOND, second);
+        return map;
+    }
+
+    public static <S> IntObjPair<S> paired(final int first, final S second) {
+        return new IntObjPair<>(first, second);
+    }
+
+    public static <S> IntObjPair<S> from(final Pair<? extends Number, S> pair) {
+        return new IntObjPair<>(pair.first.intValue(), pair.second);
+    }
+
+    /**
+     * Reverses {@link #toMap()} and {@link Pair#toMap()}.
+     *
+     * @throws IllegalArgumentException if the map doesn't contain a whole number in the range of int and a value
+     */
+    @SuppressWarnings("unchecked")
+    public static <S> IntObjPair<S> fromMap(final Map<String, ?> map) {
+        return new IntObjPair<>(Pairs.intValue(map, MAP_KEY_FIRST), (S) Pairs.value(map, MAP_KEY_SECOND));
+    }
+}
@@ -25,7 +25,7 @@ public class Pair <F, S> {
     public static final String MAP_KEY_FIRST = "first";
     public static final String MAP_KEY_SECOND = "second";
 
-    private static final Traits TRAITS = new Traits(Pair.class);
+    private static final Traits TRAITS = Traits.of(Pair.class);
 
     @Trait
     public final F first;
@@ -124,6 +124,20 @@ public class Pair <F, S> {
         return map;
     }
 
+    /**
+     * Reverses {@link #toMap()}.
+     *
+     * @param map map containing the keys {@value #MAP_KEY_FIRST} and {@value #MAP_KEY_SECOND}
+     * @param <F> type of the first object
+     * @param <S> type of the second object
+     * @return a new pair containing the two values of the map
+     * @throws IllegalArgumentException if a value is missing
+     */
+    @SuppressWarnings("unchecked")
+    public static <F, S> Pair<F, S> fromMap(Map<String, ?> map) {
+        return new Pair<>((F) Pairs.value(map, MAP_KEY_FIRST), (S) Pairs.value(map, MAP_KEY_SECOND));
+    }
+
     /**
      * Converts an Map.Entry to a pair of the contained key and value.
      *
@@ -0,0 +1,50 @@
+package de.ctoffer.util.pair;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Reading the maps written by the toMap methods of the pairs.
+ */
+enum Pairs {
+    ;
+
+    static int intValue(final Map<String, ?> map, final String key) {
+        try {
+            return exact(map, key).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(format("Expected an int for '%s', but got %s.", key, map.get(key)));
+        }
+    }
+
+    static long longValue(final Map<String, ?> map, final String key) {
+        try {
+            return exact(map, key).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(format("Expected a long for '%s', but got %s.", key, map.get(key)));
+        }
+    }
+
+    // JSON parsers hand out doubles or their own numbers, 3.0 is accepted as 3 but 3.5 is rejected
+    private static BigDecimal exact(final Map<String, ?> map, final String key) {
+        final Object value = value(map, key);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(format("Expected a number for '%s', but got %s.", key, value));
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(format("Expected a finite number for '%s', but got %s.", key, value));
+        }
+    }
+
+    static Object value(final Map<String, ?> map, final String key) {
+        final Object value = map.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException(format("Expected a value for '%s', but got none.", key));
+        }
+        return value;
+    }
+}
@@ -9,7 +9,7 @@ import java.util.Objects;
 public class SerializablePair<F extends Serializable, S extends Serializable>
         implements Serializable {
 
-    private static final Traits TRAITS = new Traits(Pair.class);
+    private static final Traits TRAITS = Traits.of(SerializablePair.class);
 
     @Trait public final F first;
     @Trait public final S second;
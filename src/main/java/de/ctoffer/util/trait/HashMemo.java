@@ -0,0 +1,160 @@
+package de.ctoffer.util.trait;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.ToIntFunction;
+
+/**
+ * Side table remembering the hash of objects by identity. The objects are only weakly referenced, so an
+ * object which is no longer used elsewhere is removed from the table by the garbage collector.
+ *
+ * <p>
+ * Chained hash tables keyed by {@link System#identityHashCode(Object)}. It never calls <i>equals</i> or
+ * <i>hashCode</i> of the stored objects, which is the reason {@link java.util.WeakHashMap} can't be used.
+ * The objects are spread over {@value #STRIPES} stripes with a lock and a table of their own, so threads
+ * hashing different objects rarely wait for each other. A missing hash is computed outside the lock.
+ * </p>
+ */
+class HashMemo {
+    // object header, the four fields of the reference and the three of the entry, with compressed oops
+    static final int ENTRY_BYTES = 40;
+    private static final int STRIPES = 16;
+    private static final int STRIPE_BITS = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    HashMemo() {
+        for (int i = 0; i < STRIPES; ++i) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    int get(final Object key, final ToIntFunction<Object> hash) {
+        final int identity = System.identityHashCode(key);
+        final Stripe stripe = stripes[(identity ^ (identity >>> 16)) & (STRIPES - 1)];
+        final Entry remembered = stripe.find(key, identity);
+        if (remembered != null) {
+            return remembered.hash;
+        }
+        // two threads may both compute the hash of a new object, the result is the same
+        final int value = hash.applyAsInt(key);
+        stripe.add(key, identity, value);
+        return value;
+    }
+
+    Traits.MemoStats stats() {
+        long hits = 0;
+        long misses = 0;
+        int entries = 0;
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.expungeCollected();
+                hits += stripe.hits;
+                misses += stripe.misses;
+                entries += stripe.size;
+                bytes += (long) stripe.size * ENTRY_BYTES + (long) stripe.table.length * 4;
+            }
+        }
+        return new Traits.MemoStats(hits, misses, entries, bytes);
+    }
+
+    private static class Stripe {
+        private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+        private Entry[] table = new Entry[INITIAL_CAPACITY];
+        private int size = 0;
+        private long hits = 0;
+        private long misses = 0;
+
+        // the hash of an entry is final, it may be read after the lock was released
+        private synchronized Entry find(final Object key, final int identity) {
+            expungeCollected();
+            final Entry entry = lookup(key, identity);
+            if (entry != null) {
+                ++hits;
+            } else {
+                ++misses;
+            }
+            return entry;
+        }
+
+        private synchronized void add(final Object key, final int identity, final int hash) {
+            if (lookup(key, identity) != null) {
+                return;
+            }
+            if (size >= table.length * 3 / 4) {
+                resize();
+            }
+            final int index = bitsOf(identity) & (table.length - 1);
+            table[index] = new Entry(key, identity, hash, table[index], collected);
+            ++size;
+        }
+
+        private Entry lookup(final Object key, final int identity) {
+            for (Entry entry = table[bitsOf(identity) & (table.length - 1)]; entry != null; entry = entry.next) {
+                if (entry.identity == identity && entry.get() == key) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        private void resize() {
+            final Entry[] resized = new Entry[table.length * 2];
+            for (Entry head : table) {
+                Entry entry = head;
+                while (entry != null) {
+                    final Entry next = entry.next;
+                    final int index = bitsOf(entry.identity) & (resized.length - 1);
+                    entry.next = resized[index];
+                    resized[index] = entry;
+                    entry = next;
+                }
+            }
+            table = resized;
+        }
+
+        private void expungeCollected() {
+            Object reference;
+            while ((reference = collected.poll()) != null) {
+                final Entry dead = (Entry) reference;
+                final int index = bitsOf(dead.identity) & (table.length - 1);
+                Entry previous = null;
+                for (Entry entry = table[index]; entry != null; previous = entry, entry = entry.next) {
+                    if (entry == dead) {
+                        if (previous == null) {
+                            table[index] = entry.next;
+                        } else {
+                            previous.next = entry.next;
+                        }
+                        --size;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // the low bits chose the stripe, the ones above chose the bucket
+        private static int bitsOf(final int identity) {
+            return (identity ^ (identity >>> 16)) >>> STRIPE_BITS;
+        }
+    }
+
+    private static class Entry extends WeakReference<Object> {
+        private final int identity;
+        private final int hash;
+        private Entry next;
+
+        private Entry(final Object key,
+                      final int identity,
+                      final int hash,
+                      final Entry next,
+                      final ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.identity = identity;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -1,20 +1,21 @@
 package de.ctoffer.util.trait;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
 
 import static de.ctoffer.util.ObjectUtils.getAllFields;
 import static de.ctoffer.util.ObjectUtils.getAllMethods;
 import static java.lang.String.format;
 import static java.lang.reflect.Modifier.isFinal;
 import static java.util.Objects.requireNonNull;
-import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
@@ -35,7 +36,7 @@ import static java.util.stream.Collectors.toList;
  * </p>
  * <pre><code>
  * public class Foo {
- *      private static final Traits TRAITS = new Traits(Foo.class);
+ *      private static final Traits TRAITS = Traits.of(Foo.class);
  *     {@literal @}Trait private String x;
  *     {@literal @}Trait private int y;
  *
@@ -61,15 +62,32 @@ import static java.util.stream.Collectors.toList;
  * @see Trait
  */
 public class Traits {
-    private static final Traits TRAITS = new Traits(Traits.class);
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final ClassValue<Traits> REGISTRY = new ClassValue<>() {
+        @Override
+        protected Traits computeValue(final Class<?> type) {
+            return new Traits(type);
+        }
+    };
+    private static final ClassValue<Traits> MEMOIZING_REGISTRY = new ClassValue<>() {
+        @Override
+        protected Traits computeValue(final Class<?> type) {
+            return new Traits(type, new HashMemo());
+        }
+    };
+    private static final Traits TRAITS = of(Traits.class);
 
     @Trait
     private final Class<?> cls;
-    private List<Field> fields;
-    private List<Method> methods;
-    private List<TraitAccessPoint> traitFields;
-    private List<TraitAccessPoint> immutableFields;
-    private List<TraitAccessPoint> traitGetter;
+    private final List<Field> fields;
+    private final List<Method> methods;
+    // compiled once, so comparing and hashing neither allocates nor goes through reflection
+    private final MethodHandle[] traitFields;
+    private final MethodHandle[] immutableFields;
+    private final MethodHandle[] traitGetter;
+    // only set for instances of memoizing(Class)
+    private final HashMemo hashMemo;
+    private final ToIntFunction<Object> fieldHash = this::createHashForFields;
 
     /**
      * Creates a new instance collecting all fields and methods via reflection,
@@ -82,87 +100,99 @@ public class Traits {
      * <li>has no parameters</li>
      * <li>may contain <i>null</i></li>
      * </ul>
+     * Prefer {@link #of(Class)}, which creates the instance only once per class.
      *
      * @param cls class which should be used for this Traits instance
      * @throws RuntimeException if a field or method could not be accessed
      */
     public Traits(final Class<?> cls) {
+        this(cls, null);
+    }
+
+    private Traits(final Class<?> cls, final HashMemo hashMemo) {
         this.cls = cls;
-        collectDeclaredImmutableFields();
-        collectDeclaredFields();
-        collectDeclaredGetters();
+        this.hashMemo = hashMemo;
+        this.fields = collectDeclaredFields(cls);
+        this.methods = collectDeclaredGetters(cls);
+        this.traitFields = fields.stream()
+                .map(Traits::toAccessibleField)
+                .toArray(MethodHandle[]::new);
+        this.immutableFields = fields.stream()
+                .filter(f -> isFinal(f.getModifiers()))
+                .map(Traits::toAccessibleField)
+                .toArray(MethodHandle[]::new);
+        this.traitGetter = methods.stream()
+                .map(Traits::toGetter)
+                .toArray(MethodHandle[]::new);
+        if (hashMemo != null && (immutableFields.length != traitFields.length || traitGetter.length != 0)) {
+            throw new IllegalArgumentException(format("%s has traits which are not final fields.", cls));
+        }
     }
 
     /**
-     * Collects all declared fields of the stored class, which are annotated
-     * with {@link Trait} and are declared <i>final</i>.
-     * Stores a{@link TraitAccessPoint} for each of them.
-     *
-     * @throws java.lang.reflect.InaccessibleObjectException if access can not be enabled
-     * @throws SecurityException                             if a {@link SecurityManager} blocks access
+     * @param cls class whose traits are requested
+     * @return the {@link Traits} of the given class, created on first use and shared afterwards
      */
-    private void collectDeclaredImmutableFields() {
-        fields = getAllFields(cls)
-                .stream()
-                .filter(Traits::isTraitPresent)
-                .filter(f -> isFinal(f.getModifiers()))
-                .collect(toList());
-        immutableFields = fields.stream()
-                .map(Traits::toAccessibleField)
-                .collect(toList());
+    public static Traits of(final Class<?> cls) {
+        return REGISTRY.get(cls);
     }
 
     /**
-     * Collects all declared fields of the stored class, which are annotated
-     * with {@link Trait} and stores {@link TraitAccessPoint}s for them.
+     * Like {@link #of(Class)}, but the hash of every object is only computed once and then remembered, as long
+     * as the object is in use. Only for classes whose traits are all <i>final</i> fields referencing immutable
+     * objects, a hash must not change after it was computed.
      *
-     * @throws java.lang.reflect.InaccessibleObjectException if access can not be enabled
-     * @throws SecurityException                             if a {@link SecurityManager} blocks access
+     * @param cls class whose traits are requested
+     * @return the memoizing {@link Traits} of the given class
+     * @throws IllegalArgumentException if a trait of the class is a getter or a non-<i>final</i> field
      */
-    private void collectDeclaredFields() {
-        fields = getAllFields(cls).stream()
+    public static Traits memoizing(final Class<?> cls) {
+        return MEMOIZING_REGISTRY.get(cls);
+    }
+
+    /**
+     * Collects all declared fields of the given class, which are annotated
+     * with {@link Trait}.
+     */
+    private static List<Field> collectDeclaredFields(final Class<?> cls) {
+        return getAllFields(cls).stream()
                 .filter(Traits::isTraitPresent)
                 .collect(toList());
-        traitFields = fields.stream()
-                .map(Traits::toAccessibleField)
-                .collect(toList());
     }
 
     /**
-     * Tries to inject 'field' accessible and creates an {@link TraitAccessPoint}.
+     * Makes 'field' accessible and compiles a getter for it.
      *
      * @param field the field which should be transformed
-     * @return the {@link TraitAccessPoint} for 'field'
+     * @return handle of type (Object)Object reading 'field'
      * @throws java.lang.reflect.InaccessibleObjectException if access can not be enabled
      * @throws SecurityException                             if a {@link SecurityManager} blocks access
      */
-    private static TraitAccessPoint toAccessibleField(Field field) {
+    private static MethodHandle toAccessibleField(final Field field) {
         field.setAccessible(true);
-        return obj -> ofNullable(field.get(obj));
+        try {
+            return MethodHandles.lookup().unreflectGetter(field).asType(ACCESSOR_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
-     * Collects all declared methods of the stored class, which are annotated
-     * with {@link Trait} and stores {@link TraitAccessPoint}s for them.
+     * Collects all declared methods of the given class, which are annotated
+     * with {@link Trait}.
      * Only methods that fulfill following criterion's will be used:
      * <ul>
      * <li>The method's return type is non-<i>void</i></li>
      * <li>The method has no parameters</li>
      * </ul>
-     *
-     * @throws java.lang.reflect.InaccessibleObjectException if access can not be enabled
-     * @throws SecurityException                             if a {@link SecurityManager} blocks access
      */
-    private void collectDeclaredGetters() {
-        methods = getAllMethods(cls)
+    private static List<Method> collectDeclaredGetters(final Class<?> cls) {
+        return getAllMethods(cls)
                 .stream()
                 .filter(Traits::isTraitPresent)
                 .filter(Traits::isNonVoid)
                 .filter(Traits::hasNoParameters)
                 .collect(toList());
-        traitGetter = methods.stream()
-                .map(Traits::toGetter)
-                .collect(toList());
     }
 
     private static boolean isTraitPresent(AccessibleObject ao) {
@@ -177,13 +207,13 @@ public class Traits {
         return m.getParameterTypes().length == 0;
     }
 
-    private static TraitAccessPoint toGetter(final Method m) {
-        return obj -> {
-            m.setAccessible(true);
-            final Optional<Object> result = ofNullable(m.invoke(obj));
-            m.setAccessible(false);
-            return result;
-        };
+    private static MethodHandle toGetter(final Method m) {
+        m.setAccessible(true);
+        try {
+            return MethodHandles.lookup().unreflect(m).asType(ACCESSOR_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
@@ -243,32 +273,31 @@ public class Traits {
     }
 
     private boolean compareTraitsOfObjects(Object dis, Object object) {
-        boolean sameFieldTraits = compareFieldTraits(dis, object);
-        boolean sameMethodTrais = compareMethodTraits(dis, object);
-        return sameFieldTraits && sameMethodTrais;
+        return check(dis, object, traitFields) && check(dis, object, traitGetter);
     }
 
-    private boolean compareFieldTraits(Object dis, Object object) {
-        return check(dis, object, traitFields);
-    }
-
-    private boolean compareMethodTraits(Object dis, Object object) {
-        return check(dis, object, traitGetter);
-    }
-
-    private static boolean check(Object a, Object b, List<TraitAccessPoint> li) {
-        return li.stream()
-                .map(Traits::createComparison)
-                .allMatch(comp -> comp.test(a, b));
+    private static boolean check(Object a, Object b, MethodHandle[] accessors) {
+        for (MethodHandle accessor : accessors) {
+            if (!Objects.equals(enter(accessor, a), enter(accessor, b))) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private static BiPredicate<Object, Object> createComparison(TraitAccessPoint field) {
-        return (obj1, obj2) -> {
-            Optional<?> field1 = field.tryEnter(obj1);
-            Optional<?> field2 = field.tryEnter(obj2);
-
-            return field1.equals(field2);
-        };
+    /**
+     * Receives the value of a trait.
+     *
+     * @throws RuntimeException if the trait could not be accessed or its getter has thrown a checked exception
+     */
+    private static Object enter(MethodHandle accessor, Object obj) {
+        try {
+            return (Object) accessor.invokeExact(obj);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
     }
 
     /**
@@ -286,6 +315,11 @@ public class Traits {
      * @throws RuntimeException         if access was denied or a called getter has thrown exception
      */
     public int createHashCodeFor(Object obj) {
+        checkType(obj);
+        if (hashMemo != null) {
+            // a memoizing instance has no getters, their hash is the one of no traits
+            return 11 * hashMemo.get(obj, fieldHash) + 31 * createHash(obj, traitGetter);
+        }
         return 11 * createHashForFields(obj) + 31 * createHashForGetters(obj);
     }
 
@@ -297,19 +331,40 @@ public class Traits {
         return createHash(obj, traitGetter);
     }
 
-    private static int createHash(Object a, List<TraitAccessPoint> li) {
-        Object[] traits = li.stream()
-                .map(func -> func.tryEnter(a))
-                .filter(Optional::isPresent)
-                .toArray();
-        return Objects.hash(traits);
+    // same as Objects.hash over the non-null traits
+    private static int createHash(Object a, MethodHandle[] accessors) {
+        int hash = 1;
+        for (MethodHandle accessor : accessors) {
+            final Object trait = enter(accessor, a);
+            if (trait != null) {
+                hash = 31 * hash + trait.hashCode();
+            }
+        }
+        return hash;
     }
 
-
     public int createImmutableHashFor(Object obj) {
+        checkType(obj);
+        if (hashMemo != null) {
+            return hashMemo.get(obj, fieldHash);
+        }
         return createHash(obj, immutableFields);
     }
 
+    /**
+     * @return hits, misses and memory of the remembered hashes, empty if this instance doesn't memoize
+     * @see #memoizing(Class)
+     */
+    public Optional<MemoStats> memoStats() {
+        return Optional.ofNullable(hashMemo).map(HashMemo::stats);
+    }
+
+    private void checkType(Object obj) {
+        if (!cls.isInstance(requireNonNull(obj))) {
+            throw new IllegalArgumentException(format("Expected instance of %s, but got %s.", cls, obj.getClass()));
+        }
+    }
+
     /**
      * @param obj
      * @return <i>true</i> if the given object if it equals <i>this</i>
@@ -357,32 +412,47 @@ public class Traits {
                 .collect(joining(", "));
         return format(format, clsName, fieldStr, methodStr);
     }
-}
 
-@FunctionalInterface
-interface TraitAccessPoint {
-    /**
-     * Enters the trait and receives its value.
-     *
-     * @param obj object which trait should be accessed
-     * @return Optional containing the retrieved trait or empty if trait was <i>null</i>
-     * @throws IllegalAccessException    if access was denied
-     * @throws InvocationTargetException if underlying model is throws an exception
-     */
-    Optional<Object> enter(Object obj) throws IllegalAccessException, InvocationTargetException;
+    public static class MemoStats {
+        private final long hits;
+        private final long misses;
+        private final int entries;
+        private final long bytes;
+
+        MemoStats(final long hits, final long misses, final int entries, final long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
 
-    /**
-     * Tries to call the {@link TraitAccessPoint#enter(Object)}.
-     *
-     * @param obj object which trait should be accessed
-     * @return Optional containing the retrieved trait or empty if trait was <i>null</i>
-     * @throws RuntimeException if enter throws an exception
-     */
-    default Optional<Object> tryEnter(Object obj) {
-        try {
-            return ofNullable(enter(obj));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return estimated size of the side table in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return format("MemoStats{hits=%d, misses=%d, hitRate=%.1f%%, entries=%d, bytes=%d}",
+                    hits, misses, getHitRate() * 100, entries, bytes);
         }
     }
 }
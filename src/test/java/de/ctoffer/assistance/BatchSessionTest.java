@@ -0,0 +1,84 @@
+package de.ctoffer.assistance;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchSessionTest {
+    private static final String LOG_FOLDER = "sea.log.folder";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private PrintStream previousOut;
+    private URI previousConfig;
+    private Path logFolder;
+
+    // the log configuration of the application, its console appender would write to the captured stdout
+    @Before
+    public void setUp() throws Exception {
+        previousOut = System.out;
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+        logFolder = folder.getRoot().toPath().resolve("logs");
+        System.setProperty(LOG_FOLDER, logFolder.toString());
+        final LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        previousConfig = context.getConfigLocation();
+        context.setConfigLocation(getClass().getClassLoader().getResource("log4j2.yml").toURI());
+    }
+
+    @After
+    public void tearDown() {
+        final LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        if (previousConfig != null) {
+            context.setConfigLocation(previousConfig);
+        } else {
+            context.reconfigure();
+        }
+        System.clearProperty(LOG_FOLDER);
+        System.setOut(previousOut);
+    }
+
+    @Test
+    public void writesOnlyJsonLinesWhileCommandsReportProgress() throws Exception {
+        final String script = ProgressCheckCommands.PROGRESS_CHECK + "\nscheduler\n";
+        // the assistant is a singleton of the JVM, it isn't closed so other tests may still use it
+        final BatchSession session = new BatchSession(Assistant.getInstance(),
+                new BufferedReader(new StringReader(script)), System.out);
+
+        assertEquals(BatchSession.SUCCESS, session.run());
+
+        final List<String> lines = stdout.toString(StandardCharsets.UTF_8).lines()
+                .collect(Collectors.toList());
+        assertTrue(lines.size() >= 5);
+        for (String line : lines) {
+            final JsonObject event = JsonParser.parseString(line).getAsJsonObject();
+            assertTrue(line, event.has("type") && event.has("line"));
+        }
+        assertTrue(lines.contains("{\"type\":\"output\",\"line\":1,\"message\":\"checked\"}"));
+
+        final String log = Files.readString(logFolder.resolve("app.log"));
+        assertTrue(log, log.contains("'Check' started with 3 units"));
+        assertTrue(log, log.contains("'Check' finished"));
+    }
+}
@@ -0,0 +1,51 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.assistance.commands.Command;
+import de.ctoffer.assistance.commands.CommandDescriptor;
+import de.ctoffer.assistance.commands.CommandProvider;
+import de.ctoffer.assistance.context.ConsoleContext;
+import de.ctoffer.assistance.context.Context;
+import de.ctoffer.assistance.context.Progress;
+import de.ctoffer.assistance.context.Require;
+import de.ctoffer.assistance.progress.ProgressHub;
+
+import java.util.List;
+
+/**
+ * Commands only known to the tests, found through the service file of the test resources.
+ */
+public class ProgressCheckCommands implements CommandProvider {
+    static final String PROGRESS_CHECK = "progress-check";
+
+    @Override
+    public List<CommandDescriptor> commands() {
+        return List.of(CommandDescriptor.of(PROGRESS_CHECK, () -> new ProgressCheckCommand()));
+    }
+
+    /**
+     * Reports a task long enough for the progress hub to send updates and logs on every level.
+     */
+    @Require({Context.CONSOLE, Context.SCHEDULER})
+    static class ProgressCheckCommand extends Command {
+        private static final int UNITS = 3;
+
+        @Override
+        public String name() {
+            return PROGRESS_CHECK;
+        }
+
+        @Override
+        public void runCore() {
+            final ConsoleContext console = contexts.getContext(Context.CONSOLE);
+            try (Progress progress = console.startTask("Check", UNITS)) {
+                for (int i = 0; i < UNITS; ++i) {
+                    Thread.sleep(ProgressHub.DEFAULT_REFRESH_MILLIS + 50);
+                    progress.advance(1, 100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            console.output("checked");
+        }
+    }
+}
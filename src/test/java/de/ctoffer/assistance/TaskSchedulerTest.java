@@ -0,0 +1,109 @@
+package de.ctoffer.assistance;
+
+import de.ctoffer.assistance.context.SchedulerContext;
+import de.ctoffer.assistance.context.SchedulerContext.Priority;
+import de.ctoffer.assistance.context.SchedulerContext.Workload;
+import de.ctoffer.assistance.context.SchedulerStats;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskSchedulerTest {
+    private final TaskScheduler scheduler = new TaskScheduler();
+
+    @After
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    public void runsNoMoreTasksThanTheQuotaAllows() throws Exception {
+        scheduler.setQuota("test", Workload.IO, 2);
+        final SchedulerContext context = scheduler.forCommand("test");
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            futures.add(context.submit(Workload.IO, Priority.NORMAL, () -> {
+                maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                return running.decrementAndGet();
+            }));
+        }
+
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, maximum.get());
+    }
+
+    @Test
+    public void cancelsHeldTasksWhenClosed() throws Exception {
+        scheduler.setQuota("test", Workload.IO, 1);
+        final SchedulerContext context = scheduler.forCommand("test");
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<Object> blocking = context.submit(Workload.IO, Priority.NORMAL, () -> {
+            started.countDown();
+            return new CountDownLatch(1).await(1, TimeUnit.MINUTES);
+        });
+        final List<Future<Object>> held = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            held.add(context.submit(Workload.IO, Priority.NORMAL, () -> null));
+        }
+        started.await();
+
+        scheduler.close();
+        assertCompletesWithoutResult(blocking);
+        for (Future<Object> future : held) {
+            assertCompletesWithoutResult(future);
+        }
+        assertTrue(context.submit(Workload.IO, Priority.NORMAL, () -> null).isCancelled());
+    }
+
+    @Test
+    public void reportsTheUtilisationOfRunningTasks() throws Exception {
+        final SchedulerContext context = scheduler.forCommand("test");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<Boolean> future = context.submit(Workload.CPU, Priority.NORMAL, () -> {
+            started.countDown();
+            return release.await(1, TimeUnit.MINUTES);
+        });
+        started.await();
+        cpu(scheduler.stats());
+        Thread.sleep(100);
+
+        final SchedulerStats stats = cpu(scheduler.stats());
+        release.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        assertTrue("utilisation " + stats.getUtilisation(),
+                stats.getUtilisation() > 0.5 / Runtime.getRuntime().availableProcessors());
+    }
+
+    private static SchedulerStats cpu(final List<SchedulerStats> stats) {
+        return stats.stream().filter(pool -> pool.getWorkload() == Workload.CPU).findFirst().orElseThrow();
+    }
+
+    private static void assertCompletesWithoutResult(final Future<?> future)
+            throws InterruptedException, TimeoutException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("a task of a closed scheduler returned a result");
+        } catch (CancellationException | ExecutionException expected) {
+            // cancelled while held back or interrupted while running
+        }
+    }
+}
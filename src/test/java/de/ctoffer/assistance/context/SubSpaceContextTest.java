@@ -0,0 +1,61 @@
+package de.ctoffer.assistance.context;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SubSpaceContextTest {
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AutoCloseable resource = closed::incrementAndGet;
+
+    @Test
+    public void closesTheResourceWithItsSpace() {
+        final SubSpaceContext context = SubSpaceContext.build(space -> { }, space -> { });
+        context.openSpace(SubSpace.MOODLE, resource);
+
+        assertSame(resource, context.getResource(SubSpace.MOODLE, AutoCloseable.class).orElseThrow());
+        assertFalse(context.getResource(SubSpace.MUESLI, AutoCloseable.class).isPresent());
+        assertFalse(context.getResource(SubSpace.MOODLE, String.class).isPresent());
+
+        context.closeSpace(SubSpace.MOODLE);
+        assertEquals(1, closed.get());
+        assertFalse(context.getResource(SubSpace.MOODLE, AutoCloseable.class).isPresent());
+    }
+
+    @Test
+    public void keepsEachSessionsResourceApart() {
+        final SubSpaceContext first = SubSpaceContext.build(space -> { }, space -> { });
+        final SubSpaceContext second = SubSpaceContext.build(space -> { }, space -> { });
+        first.openSpace(SubSpace.MOODLE, resource);
+
+        assertFalse(second.getResource(SubSpace.MOODLE, AutoCloseable.class).isPresent());
+        try {
+            second.closeSpace(SubSpace.MOODLE);
+            fail("closed a space of another session");
+        } catch (IllegalStateException expected) {
+            assertEquals(0, closed.get());
+        }
+    }
+
+    @Test
+    public void closesTheOpenSpaceWhenItsOwnerGoesAway() {
+        final SubSpaceContext context = SubSpaceContext.build(space -> { }, space -> { });
+        context.closeOpenSpace();
+        context.openSpace(SubSpace.MOODLE, resource);
+        try {
+            context.openSpace(SubSpace.MOODLE, resource);
+            fail("opened a second browser");
+        } catch (IllegalStateException expected) {
+            // the first one is kept
+        }
+
+        context.closeOpenSpace();
+        context.closeOpenSpace();
+        assertEquals(1, closed.get());
+    }
+}
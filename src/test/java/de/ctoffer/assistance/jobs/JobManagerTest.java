@@ -0,0 +1,50 @@
+package de.ctoffer.assistance.jobs;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobManagerTest {
+    private final JobManager manager = new JobManager();
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void keepsFinishedJobsUntilTheyAreCollected() throws InterruptedException {
+        final Job job = manager.start("echo", started -> {
+        });
+        while (!job.isFinished()) {
+            Thread.sleep(1);
+        }
+
+        assertEquals(1, manager.jobs().size());
+        assertEquals(1, manager.jobs().size());
+        assertEquals(Job.State.DONE, manager.await(job.getId()).getState());
+        assertTrue(manager.jobs().isEmpty());
+        assertFalse(manager.find(job.getId()).isPresent());
+    }
+
+    @Test
+    public void killsAJobRightAfterItsStart() throws InterruptedException {
+        final CountDownLatch never = new CountDownLatch(1);
+        for (int i = 0; i < 100; ++i) {
+            final Job job = manager.start("sleep", started -> {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(manager.kill(job.getId()));
+            assertEquals(Job.State.KILLED, manager.await(job.getId()).getState());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package de.ctoffer.compile;
+
+import de.ctoffer.util.ResultCache;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SubmissionCompilerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final SubmissionCompiler compiler = new SubmissionCompiler(1, "");
+
+    @After
+    public void tearDown() throws IOException {
+        compiler.close();
+    }
+
+    @Test
+    public void compilesASubmission() throws Exception {
+        final Path root = submission("ok", "Main.java", "public class Main { Helper helper; }");
+        Files.writeString(root.resolve("Helper.java"), "class Helper { }");
+
+        final CompileResult result = compiler.compile(root);
+
+        assertTrue(result.isSuccess());
+        assertTrue(Files.exists(SubmissionCompiler.classesFolder(root).resolve("Helper.class")));
+    }
+
+    @Test
+    public void doesNotSeeTheClassesOfTheTool() throws Exception {
+        final Path root = submission("leak", "Main.java", "public class Main { de.ctoffer.util.Serial serial; }");
+
+        final CompileResult result = compiler.compile(root);
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getErrors());
+    }
+
+    @Test
+    public void reportsCachedMessagesWithThePathsOfTheSubmission() throws Exception {
+        final ResultCache<CachedCompilation> cache = compiler.openCache(folder.newFolder("cache").toPath());
+        final String broken = "public class Main {\n    int x = \"text\";\n}\n";
+        final Path first = folder.newFolder("first", "src").toPath().getParent();
+        Files.writeString(first.resolve("src").resolve("Main.java"), broken);
+        final Path second = folder.newFolder("second", "abgabe", "code").toPath().getParent().getParent();
+        Files.writeString(second.resolve("abgabe").resolve("code").resolve("Main.java"), broken);
+
+        final CompileResult compiled = compiler.compile(first, cache);
+        final CompileResult cached = compiler.compile(second, cache);
+
+        assertFalse(compiled.isCached());
+        assertTrue(cached.isCached());
+        assertEquals(Path.of("src", "Main.java") + ":2: error: ", prefix(compiled));
+        assertEquals(Path.of("abgabe", "code", "Main.java") + ":2: error: ", prefix(cached));
+    }
+
+    @Test
+    public void missesTheCacheOnceTheClassPathChanged() throws Exception {
+        final Path library = folder.newFolder("library").toPath();
+        Files.write(library.resolve("Library.class"), new byte[]{1, 2, 3});
+        final Path cacheFolder = folder.newFolder("cache").toPath();
+        final Path root = submission("ok", "Main.java", "public class Main { }");
+
+        try (SubmissionCompiler withLibrary = new SubmissionCompiler(1, library.toString())) {
+            final String before = withLibrary.openCache(cacheFolder).key(root);
+            assertEquals(before, withLibrary.openCache(cacheFolder).key(root));
+            Files.write(library.resolve("Library.class"), new byte[]{1, 2, 3, 4});
+            assertNotEquals(before, withLibrary.openCache(cacheFolder).key(root));
+        }
+    }
+
+    // the file, line and kind of the first message
+    private static String prefix(final CompileResult result) {
+        final String message = result.getDiagnostics().get(0).toString();
+        return message.substring(0, message.indexOf("error: ") + "error: ".length());
+    }
+
+    private Path submission(final String name, final String file, final String source) throws IOException {
+        final Path root = folder.newFolder(name).toPath();
+        Files.writeString(root.resolve(file), source);
+        return root;
+    }
+}
@@ -0,0 +1,154 @@
+package de.ctoffer.meta;
+
+import de.ctoffer.util.StorageException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubmissionCatalogTest {
+    private static final Exercise EXERCISE = new Exercise("Aufgabe 3.1", "1");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysTheLogOnOpen() throws IOException {
+        final Path location = location();
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            catalog.put(record(1));
+            catalog.put(record(2));
+            catalog.put(record(1).extracted(Paths.get("x1")));
+        }
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertEquals(2, catalog.all().size());
+            assertEquals(SubmissionRecord.State.EXTRACTED, catalog.get(3, "1", 1).orElseThrow().getState());
+            assertEquals(1, catalog.byGroup(1).size());
+        }
+    }
+
+    @Test
+    public void cutsOffATornRecordAtTheEnd() throws IOException {
+        final Path location = location();
+        writeRecords(location, 3);
+        try (FileChannel channel = FileChannel.open(location, WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertEquals(2, catalog.all().size());
+            catalog.put(record(3));
+        }
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertEquals(3, catalog.all().size());
+        }
+        assertEquals(1, backups().count());
+    }
+
+    @Test
+    public void skipsADamagedRecordAndKeepsTheOnesAfterIt() throws IOException {
+        final Path location = location();
+        writeRecords(location, 3);
+        final byte[] bytes = Files.readAllBytes(location);
+        // inside the payload of the second frame: header, first frame, length of the second and a few bytes
+        final int frame = (bytes.length - 5) / 3;
+        bytes[5 + frame + 10] ^= 0x55;
+        Files.write(location, bytes);
+
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertEquals(2, catalog.all().size());
+            assertTrue(catalog.get(3, "1", 1).isPresent());
+            assertFalse(catalog.get(3, "1", 2).isPresent());
+            assertTrue(catalog.get(3, "1", 3).isPresent());
+        }
+        assertEquals(1, backups().count());
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertEquals(2, catalog.all().size());
+        }
+    }
+
+    @Test
+    public void failsOnANegativeLength() throws IOException {
+        final Path location = location();
+        writeRecords(location, 1);
+        try (FileChannel channel = FileChannel.open(location, WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, 0x0F, 0, 0, 0, 0, 0, 0, 0, 0}), 5);
+        }
+        try (SubmissionCatalog ignored = SubmissionCatalog.open(location)) {
+            fail("a damaged length must not be read");
+        } catch (StorageException expected) {
+            // the file is kept as it is
+        }
+    }
+
+    @Test
+    public void sharesOneInstanceUntilTheLastClose() throws IOException {
+        final Path location = location();
+        final SubmissionCatalog first = SubmissionCatalog.open(location);
+        final SubmissionCatalog second = SubmissionCatalog.open(location.getParent().resolve(".").resolve(
+                location.getFileName()));
+        assertSame(first, second);
+        first.close();
+        second.put(record(1));
+        second.close();
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertEquals(1, catalog.all().size());
+        }
+    }
+
+    @Test
+    public void refusesACatalogLockedByAnotherProcess() throws IOException {
+        final Path location = location();
+        final Path lockFile = location.resolveSibling(location.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, CREATE, WRITE);
+             FileLock ignored = channel.lock()) {
+            try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+                fail("opened a locked catalog");
+            } catch (IOException expected) {
+                // another process writes the catalog
+            }
+        }
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            assertTrue(catalog.all().isEmpty());
+        }
+    }
+
+    private Path location() {
+        return folder.getRoot().toPath().resolve(SubmissionCatalog.CATALOG_NAME);
+    }
+
+    private Stream<Path> backups() throws IOException {
+        return Files.list(folder.getRoot().toPath()).filter(file -> file.toString().endsWith(".damaged"));
+    }
+
+    private static void writeRecords(final Path location, final int count) throws IOException {
+        try (SubmissionCatalog catalog = SubmissionCatalog.open(location)) {
+            for (int i = 1; i <= count; ++i) {
+                catalog.put(record(i));
+            }
+        }
+    }
+
+    // records of the same size, so each frame has the same length
+    private static SubmissionRecord record(final int id) {
+        final Student student = new Student(id, id, id, "Student " + id, "s" + id + "@example.org");
+        return SubmissionRecord.downloaded(3, EXERCISE, student, "https://moodle/" + id,
+                Paths.get("abgabe" + id + ".zip"), "hash", 100, "Mo");
+    }
+}
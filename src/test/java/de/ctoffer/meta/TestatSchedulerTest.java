@@ -0,0 +1,126 @@
+package de.ctoffer.meta;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestatSchedulerTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2019, 11, 11, 8, 0);
+    private static final Duration SLOT = Duration.ofMinutes(20);
+
+    @Test
+    public void movesAnAssignedGroupToMakeRoomForAnother() {
+        // both groups have two slots and group 1 is placed first, in the first slot, which group 2 gets in the end
+        final Map<Integer, List<TimeWindow>> availability = new HashMap<>();
+        availability.put(1, List.of(window(0, 40)));
+        availability.put(2, List.of(window(0, 20), window(40, 60)));
+        final TestatScheduler.Result result = new TestatScheduler(SLOT).schedule(
+                groups(1, 2), List.of(tutor("A", window(0, 60))), availability);
+
+        assertTrue(result.isComplete());
+        assertEquals(2, result.getSlots().size());
+        assertEquals(MONDAY, slotOf(result, 2).getStart());
+        assertEquals(MONDAY.plus(SLOT), slotOf(result, 1).getStart());
+    }
+
+    @Test
+    public void reportsGroupsWithoutSlot() {
+        final TestatScheduler.Result result = new TestatScheduler(SLOT).schedule(
+                groups(1, 2, 3), List.of(tutor("A", window(0, 40))), Map.of());
+
+        assertEquals(2, result.getSlots().size());
+        assertEquals(List.of(3), result.getUnassignedGroups());
+    }
+
+    @Test
+    public void onlyUsesSlotsInsideTheAvailabilityOfAGroup() {
+        final TestatScheduler.Result result = new TestatScheduler(SLOT).schedule(
+                groups(1), List.of(tutor("A", window(0, 120))), Map.of(1, List.of(window(50, 90))));
+
+        assertTrue(result.isComplete());
+        assertEquals(MONDAY.plusMinutes(60), slotOf(result, 1).getStart());
+    }
+
+    @Test
+    public void sharesTheOptionsOfGroupsWithEqualAvailability() {
+        // windows read separately for each group, equal by value
+        final Map<Integer, List<TimeWindow>> availability = Map.of(
+                1, List.of(window(20, 60)), 2, List.of(window(20, 60)), 3, List.of(window(20, 60)));
+        final TestatScheduler.Result result = new TestatScheduler(SLOT).schedule(
+                groups(1, 2, 3), List.of(tutor("A", window(0, 120))), availability);
+
+        assertEquals(window(20, 60), window(20, 60));
+        assertEquals(window(20, 60).hashCode(), window(20, 60).hashCode());
+        assertEquals(2, result.getSlots().size());
+        assertEquals(List.of(3), result.getUnassignedGroups());
+        assertEquals(Set.of(MONDAY.plusMinutes(20), MONDAY.plusMinutes(40)),
+                Set.of(slotOf(result, 1).getStart(), slotOf(result, 2).getStart()));
+    }
+
+    @Test
+    public void schedules150GroupsOf10TutorsWithinASecond() {
+        final Random random = new Random(42);
+        final List<TutorAvailability> tutors = new ArrayList<>();
+        for (int tutor = 0; tutor < 10; ++tutor) {
+            tutors.add(tutor("T" + tutor, window(0, 180), window(24 * 60, 24 * 60 + 180)));
+        }
+        final Map<Integer, List<TimeWindow>> availability = new HashMap<>();
+        final Integer[] ids = new Integer[150];
+        for (int group = 0; group < ids.length; ++group) {
+            ids[group] = group + 1;
+            final int day = random.nextInt(2) * 24 * 60;
+            final int from = random.nextInt(6) * 20;
+            availability.put(ids[group], List.of(window(day + from, day + from + 60)));
+        }
+
+        final long start = System.nanoTime();
+        final TestatScheduler.Result result = new TestatScheduler(SLOT).schedule(groups(ids), tutors, availability);
+        final long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue("took " + millis + " ms", millis < 1000);
+        assertEquals(150, result.getSlots().size() + result.getUnassignedGroups().size());
+        final Set<String> used = new HashSet<>();
+        for (TestatSlot slot : result.getSlots()) {
+            assertTrue("slot used twice: " + slot.getNote(), used.add(slot.getStart() + tutorOf(slot)));
+        }
+    }
+
+    private static TimeWindow window(final int fromMinute, final int toMinute) {
+        return new TimeWindow(MONDAY.plusMinutes(fromMinute), MONDAY.plusMinutes(toMinute));
+    }
+
+    private static TutorAvailability tutor(final String name, final TimeWindow... windows) {
+        return new TutorAvailability(name, List.of(windows));
+    }
+
+    private static Map<Integer, List<Student>> groups(final Integer... ids) {
+        final Map<Integer, List<Student>> groups = new HashMap<>();
+        for (int id : ids) {
+            groups.put(id, List.of(new Student(id, id, id, "Student " + id, "s" + id + "@example.org")));
+        }
+        return groups;
+    }
+
+    private static TestatSlot slotOf(final TestatScheduler.Result result, final int groupId) {
+        final String note = String.format("Gruppe %02d,", groupId);
+        return result.getSlots().stream()
+                .filter(slot -> slot.getNote().startsWith(note))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String tutorOf(final TestatSlot slot) {
+        return slot.getNote().substring(slot.getNote().indexOf("Tutor: "));
+    }
+}
@@ -0,0 +1,86 @@
+package de.ctoffer.meta;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TestatWorkbookWriterTest {
+    private static final Exercise FIRST = new Exercise("Aufgabe 3.1", "1");
+    private static final Exercise SECOND = new Exercise("Aufgabe 3.2", "2");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void gradesTheSubmissionOfAGroupTestedLast() throws InterruptedException {
+        final SubmissionRecord older = record(FIRST, 1, 1).tested(4, 2);
+        Thread.sleep(5);
+        final SubmissionRecord newer = record(FIRST, 2, 1).tested(4, 3);
+        final SubmissionRecord other = record(SECOND, 3, 2).tested(2, 2);
+        final SubmissionRecord untested = record(SECOND, 1, 1);
+
+        final List<GradingResult> results = GradingResult.fromTestRuns(Arrays.asList(other, newer, untested, older));
+
+        assertEquals(2, results.size());
+        assertEquals(1, results.get(0).getGroupId());
+        assertEquals(3.0, results.get(0).getPoints(), 0.0);
+        assertEquals("3 von 4 Tests bestanden", results.get(0).getNote());
+        assertEquals(2, results.get(1).getGroupId());
+        assertEquals("2", results.get(1).getExerciseAlias());
+    }
+
+    @Test
+    public void writesScheduleAndResultsInOneCommit() throws IOException {
+        final Path location = folder.getRoot().toPath().resolve("Organisation.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(location)) {
+            workbook.createSheet("Metadaten").createRow(0).createCell(0).setCellValue("kept");
+            workbook.write(out);
+        }
+        final LocalDateTime start = LocalDateTime.of(2026, 11, 2, 10, 0);
+        final TestatSlot slot = new TestatSlot(start, start.plusMinutes(20), Arrays.asList("Student 1"), "Tutor");
+        final List<GradingResult> results = GradingResult.fromTestRuns(Arrays.asList(
+                record(FIRST, 1, 1).tested(4, 4), record(SECOND, 2, 2).tested(3, 1)));
+
+        try (TestatWorkbookWriter writer = new TestatWorkbookWriter(location, "Testat %s", 10)) {
+            writer.writeSchedule("3", Arrays.asList(slot));
+            writer.writeResults(results);
+            writer.commit();
+        }
+
+        try (InputStream in = Files.newInputStream(location); XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+            assertEquals("kept", workbook.getSheet("Metadaten").getRow(0).getCell(0).getStringCellValue());
+            final Sheet schedule = workbook.getSheet("Testat 3");
+            assertNotNull(schedule);
+            assertEquals(start, schedule.getRow(1).getCell(0).getLocalDateTimeCellValue());
+            final Sheet grading = workbook.getSheet(TestatWorkbookWriter.RESULT_SHEET);
+            assertEquals(2, grading.getLastRowNum());
+            final Row second = grading.getRow(2);
+            assertEquals(2, (int) second.getCell(0).getNumericCellValue());
+            assertEquals(3, (int) second.getCell(1).getNumericCellValue());
+            assertEquals("2", second.getCell(2).getStringCellValue());
+            assertEquals(1.0, second.getCell(3).getNumericCellValue(), 0.0);
+        }
+    }
+
+    private static SubmissionRecord record(final Exercise exercise, final int id, final int groupId) {
+        final Student student = new Student(id, id, groupId, "Student " + id, "s" + id + "@example.org");
+        return SubmissionRecord.downloaded(3, exercise, student, "https://moodle/" + id,
+                Paths.get("abgabe" + id + ".zip"), "hash", 100, "Mo");
+    }
+}
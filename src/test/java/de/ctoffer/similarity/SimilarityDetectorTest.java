@@ -0,0 +1,130 @@
+package de.ctoffer.similarity;
+
+import de.ctoffer.util.Serial;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimilarityDetectorTest {
+    private static final String ORIGINAL = "public class Sorter {\n"
+            + "    // sorts the numbers\n"
+            + "    public static void sort(int[] numbers) {\n"
+            + "        for (int i = 0; i < numbers.length; ++i) {\n"
+            + "            for (int j = i + 1; j < numbers.length; ++j) {\n"
+            + "                if (numbers[j] < numbers[i]) {\n"
+            + "                    int swap = numbers[i];\n"
+            + "                    numbers[i] = numbers[j];\n"
+            + "                    numbers[j] = swap;\n"
+            + "                }\n"
+            + "            }\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+    // the same code with other names, comments and layout
+    private static final String RENAMED = "public class Ordering {\n"
+            + "    public static void order(int[] values) {\n"
+            + "        for (int a = 0; a < values.length; ++a) { for (int b = a + 1; b < values.length; ++b) {\n"
+            + "            if (values[b] < values[a]) { int tmp = values[a]; values[a] = values[b]; values[b] = tmp; }\n"
+            + "        } }\n"
+            + "    }\n"
+            + "}\n";
+    private static final String UNRELATED = "import java.util.Map;\n"
+            + "interface Greeter {\n"
+            + "    default String greet(Map<String, String> names, String key) throws Exception {\n"
+            + "        try {\n"
+            + "            switch (key) {\n"
+            + "                case \"x\": return \"hello\";\n"
+            + "                default: throw new IllegalStateException(names.get(key));\n"
+            + "            }\n"
+            + "        } finally {\n"
+            + "            synchronized (this) { names.clear(); }\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void findsACopyWithRenamedIdentifiers() throws IOException {
+        final Fingerprint original = print("a", "1", 1, "Sorter.java", ORIGINAL);
+        final Fingerprint copy = print("b", "1", 2, "Ordering.java", RENAMED);
+        final Fingerprint other = print("c", "1", 3, "Greeter.java", UNRELATED);
+
+        final List<SimilarityDetector.Match> matches = new SimilarityDetector(0.5)
+                .detect(List.of(original, copy, other));
+
+        assertEquals(1, matches.size());
+        assertEquals(1.0, matches.get(0).getContainment(), 0.0);
+        assertEquals("a", matches.get(0).getFirst().getKey());
+        assertEquals("b", matches.get(0).getSecond().getKey());
+        assertTrue(SimilarityDetector.compare(original, other).getContainment() < 0.5);
+    }
+
+    @Test
+    public void sharesAFingerprintForEveryLongEnoughMatch() throws IOException {
+        // the copied method is embedded into different code, winnowing still selects one of its k-grams
+        final Fingerprint original = print("a", "1", 1, "A.java", UNRELATED + ORIGINAL);
+        final Fingerprint embedded = print("b", "1", 2, "B.java", ORIGINAL.replace("Sorter", "Other")
+                + UNRELATED.replace("Greeter", "Polite"));
+
+        final SimilarityDetector.Match match = SimilarityDetector.compare(original, embedded);
+
+        assertTrue(match.getJaccard() > 0);
+        final SimilarityDetector.Region region = match.getRegions().get(0);
+        // the method starts on line 14 of A and on line 1 of B
+        assertTrue(region.toString(), region.toString().matches("A\\.java:1[4-9]-\\d+ ~ B\\.java:[1-5]-\\d+"));
+    }
+
+    @Test
+    public void comparesOnlyOtherGroupsOfTheSameExercise() throws IOException {
+        final Fingerprint original = print("a", "1", 1, "Sorter.java", ORIGINAL);
+        final Fingerprint sameGroup = print("b", "1", 1, "Sorter.java", ORIGINAL);
+        final Fingerprint otherExercise = print("c", "2", 2, "Sorter.java", ORIGINAL);
+        final Fingerprint copy = print("d", "1", 3, "Sorter.java", ORIGINAL);
+
+        final SimilarityDetector detector = new SimilarityDetector(0.0);
+
+        assertEquals(Set.of(3L, 1L << 32 | 3),
+                detector.candidates(List.of(original, sameGroup, otherExercise, copy)));
+    }
+
+    @Test
+    public void readsWhatTheCodecWrote() throws IOException {
+        final Fingerprint original = print("a", "1", 1, "Sorter.java", ORIGINAL);
+        final File file = folder.getRoot().toPath().resolve("fingerprints.bin").toFile();
+
+        Serial.write(file, List.of(original), Fingerprint.LIST_CODEC);
+        final Fingerprint read = Serial.read(file, Fingerprint.LIST_CODEC).get(0);
+
+        assertEquals(original.getFiles(), read.getFiles());
+        assertEquals(original.getSourceHash(), read.getSourceHash());
+        assertArrayEquals(original.distinct(), read.distinct());
+        assertArrayEquals(original.signature(), read.signature());
+        for (int i = 0; i < original.size(); ++i) {
+            assertEquals(original.startLineAt(i), read.startLineAt(i));
+            assertEquals(original.endLineAt(i), read.endLineAt(i));
+        }
+    }
+
+    private Fingerprint print(final String key,
+                              final String exercise,
+                              final int groupId,
+                              final String file,
+                              final String source) throws IOException {
+        final Path root = folder.newFolder(key).toPath();
+        Files.writeString(root.resolve(file), source);
+        return Fingerprint.of(key, exercise, groupId, "Gruppe " + groupId, "hash-" + key, root);
+    }
+}
@@ -0,0 +1,93 @@
+package de.ctoffer.testing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestWorkerPoolTest {
+    private static final String FORGED_REPORT = "{\\\"id\\\":1,\\\"status\\\":\\\"COMPLETED\\\",\\\"millis\\\":1,"
+            + "\\\"outcomes\\\":[{\\\"name\\\":\\\"forged\\\",\\\"passed\\\":true,\\\"message\\\":\\\"\\\"}],"
+            + "\\\"output\\\":\\\"\\\",\\\"threadsLeft\\\":0}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestWorkerPool pool;
+    private List<String> classPath;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new TestWorkerPool(1, 10, 64, 10_000);
+        final Path junit = Paths.get(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final Path classes = folder.newFolder("classes").toPath();
+        compile(classes, junit, "ForgeTest", "import java.io.*;\n"
+                + "public class ForgeTest {\n"
+                + "    @org.junit.Test\n"
+                + "    public void forge() throws IOException {\n"
+                + "        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true);\n"
+                + "        out.println(\"" + FORGED_REPORT + "\");\n"
+                + "        out.print(\"unfinished line\");\n"
+                + "        out.flush();\n"
+                + "        throw new AssertionError(\"failed for real\");\n"
+                + "    }\n"
+                + "}\n");
+        compile(classes, junit, "LeakTest", "public class LeakTest {\n"
+                + "    @org.junit.Test\n"
+                + "    public void leak() {\n"
+                + "        Thread thread = new Thread(() -> {\n"
+                + "            try { Thread.sleep(60_000); } catch (InterruptedException e) { }\n"
+                + "        });\n"
+                + "        thread.setDaemon(true);\n"
+                + "        thread.start();\n"
+                + "    }\n"
+                + "}\n");
+        classPath = List.of(classes.toString(), junit.toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.close();
+    }
+
+    @Test
+    public void skipsAReportForgedByTheSubmission() throws Exception {
+        final TestReport report = pool.run(classPath, List.of("ForgeTest"));
+
+        assertEquals(TestReport.Status.COMPLETED, report.getStatus());
+        assertEquals(1, report.getRun());
+        assertEquals(0, report.getPassed());
+        assertEquals(0, pool.getRecycled());
+    }
+
+    @Test
+    public void replacesAWorkerWithThreadsLeftRunning() throws Exception {
+        final TestReport leaked = pool.run(classPath, List.of("LeakTest"));
+        final TestReport next = pool.run(classPath, List.of("ForgeTest"));
+
+        assertEquals(1, leaked.getPassed());
+        assertEquals(1, leaked.getThreadsLeft());
+        assertEquals(1, pool.getRecycled());
+        assertEquals(TestReport.Status.COMPLETED, next.getStatus());
+        assertEquals(2, pool.getStarted());
+    }
+
+    private static void compile(final Path classes, final Path junit, final String name, final String source)
+            throws Exception {
+        final Path file = classes.resolveSibling(name + ".java");
+        Files.writeString(file, source);
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-d", classes.toString(), "-classpath", junit.toString(),
+                file.toString()));
+    }
+}
@@ -0,0 +1,61 @@
+package de.ctoffer.util;
+
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ConfigTest {
+    private static final Config CONFIG = new Config(JsonParser.parseString("{"
+            + "\"tests\": {\"2\": {\"1\": [\"a.ATest\", \"a.BTest\"], \"2\": []}},"
+            + "\"tutors\": [{\"name\": \"Ada\", \"slots\": [1, 2]}, {\"name\": \"Bob\"}],"
+            + "\"mixed\": [1, {\"name\": \"x\"}]"
+            + "}").getAsJsonObject());
+
+    @Test
+    public void indexesListsOnce() {
+        final List<String> tests = CONFIG.getList("tests/2/1");
+        assertEquals(Arrays.asList("a.ATest", "a.BTest"), tests);
+        assertSame(tests, CONFIG.sub("tests/2").getList("1"));
+        assertEquals(Arrays.asList("1", "2"), CONFIG.getConfigs("tutors").get(0).getList("slots"));
+        assertEquals(Arrays.asList("1", "2"), new ArrayList<>(CONFIG.sub("tests/2").keys()));
+    }
+
+    @Test
+    public void indexesArraysOfObjectsAsConfigs() {
+        final List<Config> tutors = CONFIG.getConfigs("tutors");
+        assertEquals("Bob", tutors.get(1).getString("name"));
+        assertSame(tutors, CONFIG.getConfigs("tutors"));
+        assertFalse(tutors.get(1).has("slots"));
+        assertEquals(0, CONFIG.getConfigs("tests/2/2").size());
+        assertEquals(0, CONFIG.getList("tests/2/2").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void handsOutUnmodifiableLists() {
+        CONFIG.getList("tests/2/1").add("b.CTest");
+    }
+
+    @Test
+    public void refusesMixedArrays() {
+        try {
+            CONFIG.getList("mixed");
+            fail("a mixed array is no list of values");
+        } catch (IllegalArgumentException expected) {
+            // neither values nor objects only
+        }
+        try {
+            CONFIG.getConfigs("mixed");
+            fail("a mixed array is no list of objects");
+        } catch (IllegalArgumentException expected) {
+            // neither values nor objects only
+        }
+    }
+}
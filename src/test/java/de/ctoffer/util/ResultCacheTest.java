@@ -0,0 +1,80 @@
+package de.ctoffer.util;
+
+import de.ctoffer.util.codec.Codecs;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+public class ResultCacheTest {
+    private static final String SOURCE = "public class Main {\n    public static void main(String[] args) { }\n}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ignoresFoldersAndFormatting() throws IOException {
+        final ResultCache<List<String>> cache = cache("tool 1");
+        final Path first = submission("first", "src/Main.java", SOURCE);
+        final Path second = submission("second", "abgabe/code/Main.java",
+                "﻿" + SOURCE.replace("\n", "  \r\n") + "\n\n");
+
+        assertEquals(cache.key(first), cache.key(second));
+    }
+
+    @Test
+    public void missesOnAnyChangeOfTheSourcesOrTheTool() throws IOException {
+        final ResultCache<List<String>> cache = cache("tool 1");
+        final String key = cache.key(submission("first", "Main.java", SOURCE));
+
+        assertNotEquals(key, cache.key(submission("changed", "Main.java", SOURCE.replace("args", "arguments"))));
+        assertNotEquals(key, cache.key(submission("renamed", "Other.java", SOURCE)));
+        assertNotEquals(key, cache("tool 2").key(submission("tool", "Main.java", SOURCE)));
+    }
+
+    @Test
+    public void keysEachSourceByItsRelativePath() throws IOException {
+        final Path root = submission("first", "src/Main.java", SOURCE);
+        Files.writeString(root.resolve("src/Helper.java"), "class Helper { }");
+
+        assertEquals(List.of(Path.of("src", "Helper.java"), Path.of("src", "Main.java")),
+                List.copyOf(ResultCache.sourceKeys(root).keySet()));
+        assertEquals(ResultCache.sourceKeys(root).get(Path.of("src", "Main.java")),
+                ResultCache.sourceKeys(submission("second", "Main.java", SOURCE)).get(Path.of("Main.java")));
+    }
+
+    @Test
+    public void storesResultsAndTreatsDamagedOnesAsMiss() throws IOException {
+        final ResultCache<List<String>> cache = cache("tool 1");
+        final String key = cache.key(submission("first", "Main.java", SOURCE));
+        assertFalse(cache.get(key).isPresent());
+
+        cache.put(key, List.of("ok"));
+        assertEquals(List.of("ok"), cache.get(key).orElseThrow());
+
+        Files.write(folder.getRoot().toPath().resolve("cache").resolve(key + ".bin"), new byte[]{1, 2, 3});
+        assertFalse(cache.get(key).isPresent());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    private ResultCache<List<String>> cache(final String version) {
+        return new ResultCache<>(folder.getRoot().toPath().resolve("cache"), version, Codecs.STRING_LIST);
+    }
+
+    private Path submission(final String name, final String file, final String source) throws IOException {
+        final Path root = folder.getRoot().toPath().resolve(name);
+        final Path path = root.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, source);
+        return root;
+    }
+}
@@ -0,0 +1,93 @@
+package de.ctoffer.util;
+
+import de.ctoffer.util.codec.Codecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Java serialization against {@link Codecs#PATH_LIST} for a path manifest of 10k submissions, as written by
+ * the exercise manager.
+ *
+ * <pre><code>
+ *     mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp -Dmdep.includeScope=test
+ *     java -cp target/test-classes:target/classes:$(cat target/test.cp) org.openjdk.jmh.Main SerialBenchmark
+ * </code></pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialBenchmark {
+    private static final int SUBMISSIONS = 10_000;
+
+    private Path folder;
+    private File java;
+    private File codec;
+    private List<Path> paths;
+    private ArrayList<URI> uris;
+
+    @Setup
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("serial-benchmark");
+        java = folder.resolve("paths.ser").toFile();
+        codec = folder.resolve("paths.bin").toFile();
+        paths = new ArrayList<>();
+        for (int i = 0; i < SUBMISSIONS; ++i) {
+            paths.add(Paths.get("/home/tutor/Uni/WiSe19/ISW/Uebungsblaetter/Uebungsblatt_03/03_Abgabe",
+                    String.format("%02d_Max-Mustermann_Erika-Musterfrau", i / 70),
+                    (i % 4) + "__Max-Mustermann__abgabe" + i + ".zip"));
+        }
+        uris = paths.stream().map(Path::toUri).collect(Collectors.toCollection(ArrayList::new));
+        Serial.write(java, uris);
+        Serial.write(codec, paths, Codecs.PATH_LIST);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deletePath(folder);
+    }
+
+    @Benchmark
+    public File writeJava() {
+        Serial.write(java, uris);
+        return java;
+    }
+
+    @Benchmark
+    public List<URI> readJava() {
+        return Serial.read(java);
+    }
+
+    @Benchmark
+    public File writeCodec() {
+        Serial.write(codec, paths, Codecs.PATH_LIST);
+        return codec;
+    }
+
+    @Benchmark
+    public List<Path> readCodec() {
+        return Serial.read(codec, Codecs.PATH_LIST);
+    }
+}
@@ -0,0 +1,116 @@
+package de.ctoffer.util;
+
+import de.ctoffer.util.codec.BinaryReader;
+import de.ctoffer.util.codec.BinaryWriter;
+import de.ctoffer.util.codec.Codec;
+import de.ctoffer.util.codec.Codecs;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SerialTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsWhatTheCodecsWrote() {
+        final File file = new File(folder.getRoot(), "nested/paths.bin");
+        final List<Path> paths = List.of(
+                Paths.get("/home/tutor/ISW/Blatt_03/01_Gruppe/abgabe.zip"),
+                Paths.get("/home/tutor/ISW/Blatt_03/01_Gruppe/abgabe"),
+                Paths.get("/home/tutor/ISW/Blatt_03/02_Gruppe/abgabe.zip"));
+        Serial.write(file, paths, Codecs.PATH_LIST);
+        assertEquals(paths, Serial.read(file, Codecs.PATH_LIST));
+
+        final Map<String, String> map = Map.of("Aufgabe 3.1", "1", "Aufgabe 3.2", "");
+        Serial.write(file, map, Codecs.STRING_MAP);
+        assertEquals(map, Serial.read(file, Codecs.STRING_MAP));
+    }
+
+    @Test
+    public void migratesJavaSerializedFiles() {
+        final File file = new File(folder.getRoot(), "legacy.ser");
+        Serial.write(file, new ArrayList<>(List.of("a", "b")));
+        assertEquals(List.of("a", "b", "migrated"), Serial.read(file, Codecs.STRING_LIST, legacy -> {
+            final List<String> migrated = new ArrayList<>((List<?>) legacy).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.toList());
+            migrated.add("migrated");
+            return migrated;
+        }));
+    }
+
+    @Test
+    public void keepsThePreviousContentIfAWriteFails() {
+        final File file = new File(folder.getRoot(), "list.bin");
+        Serial.write(file, List.of("kept"), Codecs.STRING_LIST);
+        final Codec<List<String>> failing = new Codec<>() {
+            @Override
+            public String id() {
+                return Codecs.STRING_LIST.id();
+            }
+
+            @Override
+            public int version() {
+                return Codecs.STRING_LIST.version();
+            }
+
+            @Override
+            public void write(final List<String> value, final BinaryWriter out) throws IOException {
+                out.writeVarInt(2);
+                out.writeString("half");
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public List<String> read(final BinaryReader in, final int version) throws IOException {
+                return Codecs.STRING_LIST.read(in, version);
+            }
+        };
+
+        try {
+            Serial.write(file, List.of("half", "written"), failing);
+            fail("a failed write was reported as success");
+        } catch (StorageException expected) {
+            // the old file is still in place
+        }
+        assertEquals(List.of("kept"), Serial.read(file, Codecs.STRING_LIST));
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void rejectsDamagedLengths() throws IOException {
+        final File file = new File(folder.getRoot(), "paths.bin");
+        Serial.write(file, List.of(), Codecs.PATH_LIST);
+        // the count of an empty list is the single byte after the header
+        final int header = (int) file.length() - 1;
+        Serial.write(file, List.of(Paths.get("/a"), Paths.get("/b")), Codecs.PATH_LIST);
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        final byte[] damaged = new byte[bytes.length + 4];
+        System.arraycopy(bytes, 0, damaged, 0, header);
+        // a count of 2^28 paths, far more than the file holds
+        System.arraycopy(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01}, 0, damaged, header, 5);
+        System.arraycopy(bytes, header + 1, damaged, header + 5, bytes.length - header - 1);
+        Files.write(file.toPath(), damaged);
+
+        try {
+            Serial.read(file, Codecs.PATH_LIST);
+            fail("read a list of 2^28 paths");
+        } catch (StorageException expected) {
+            // instead of an OutOfMemoryError
+        }
+    }
+}
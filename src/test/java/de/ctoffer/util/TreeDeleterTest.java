@@ -0,0 +1,91 @@
+package de.ctoffer.util;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TreeDeleterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void deletesTreesInParallel() throws IOException {
+        final Path first = tree("first", 3, 4);
+        final Path second = tree("second", 2, 3);
+
+        final TreeDeleter.Result result = new TreeDeleter(executor, 4, CancellationToken.create())
+                .deleteAll(List.of(first, second, folder.getRoot().toPath().resolve("missing")));
+
+        assertTrue(result.isComplete());
+        assertEquals(85 + 13, result.getDirectories());
+        assertEquals(4 * 85 + 3 * 13, result.getFiles());
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+    }
+
+    @Test
+    public void deletesItselfWhenTheExecutorRejects() throws IOException {
+        final Path root = tree("root", 2, 3);
+
+        final TreeDeleter.Result result = new TreeDeleter(task -> {
+            throw new RejectedExecutionException("closed");
+        }, 4, CancellationToken.create()).delete(root);
+
+        assertTrue(result.isComplete());
+        assertFalse(Files.exists(root));
+    }
+
+    @Test(timeout = 5000)
+    public void stopsWaitingForDroppedTasksOnceCancelled() throws IOException {
+        final Path root = tree("root", 2, 3);
+        final CancellationToken cancellation = CancellationToken.create();
+        // holds every task back like a full quota, the scheduler cancels them when it is closed
+        final TreeDeleter deleter = new TreeDeleter(task -> cancellation.cancel("Closed"), 4, cancellation);
+
+        try {
+            deleter.delete(root);
+            fail("a cancelled deletion returned a result");
+        } catch (CancellationException expected) {
+            assertTrue(Files.isDirectory(root));
+        }
+    }
+
+    // a tree of the given depth, each directory has 'width' subdirectories and files
+    private Path tree(final String name, final int depth, final int width) throws IOException {
+        final Path root = folder.getRoot().toPath().resolve(name);
+        fill(root, depth, width);
+        return root;
+    }
+
+    private static void fill(final Path directory, final int depth, final int width) throws IOException {
+        Files.createDirectories(directory);
+        for (int i = 0; i < width; ++i) {
+            Files.write(directory.resolve("file" + i), new byte[16]);
+            if (depth > 0) {
+                fill(directory.resolve("dir" + i), depth - 1, width);
+            }
+        }
+    }
+}
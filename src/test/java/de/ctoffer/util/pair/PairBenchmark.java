@@ -0,0 +1,62 @@
+package de.ctoffer.util.pair;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts 288k points into a HashMap keyed by group and sheet, 60 groups times 12 sheets, with boxed
+ * {@link Pair}s and with {@link IntIntPair}s.
+ *
+ * <pre><code>
+ *     mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp -Dmdep.includeScope=test
+ *     java -cp target/test-classes:target/classes:$(cat target/test.cp) org.openjdk.jmh.Main PairBenchmark
+ * </code></pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairBenchmark {
+    private static final int GROUPS = 60;
+    private static final int SHEETS = 12;
+    private static final int ROUNDS = 400;
+
+    @Benchmark
+    public int boxed() {
+        final Map<Pair<Integer, Integer>, Integer> points = new HashMap<>();
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int group = 0; group < GROUPS; ++group) {
+                for (int sheet = 0; sheet < SHEETS; ++sheet) {
+                    points.merge(Pair.paired(group, sheet), 1, Integer::sum);
+                }
+            }
+        }
+        return points.get(Pair.paired(GROUPS - 1, SHEETS - 1));
+    }
+
+    @Benchmark
+    public int primitive() {
+        final Map<IntIntPair, Integer> points = new HashMap<>();
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int group = 0; group < GROUPS; ++group) {
+                for (int sheet = 0; sheet < SHEETS; ++sheet) {
+                    points.merge(new IntIntPair(group, sheet), 1, Integer::sum);
+                }
+            }
+        }
+        return points.get(new IntIntPair(GROUPS - 1, SHEETS - 1));
+    }
+}
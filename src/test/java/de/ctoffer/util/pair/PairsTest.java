@@ -0,0 +1,38 @@
+package de.ctoffer.util.pair;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class PairsTest {
+    @Test
+    public void acceptsWholeNumbersOfAnyType() {
+        assertEquals(new IntIntPair(3, 4), IntIntPair.fromMap(Map.of("first", 3.0, "second", 4L)));
+        assertEquals(new LongObjPair<>(1L << 40, "a"), LongObjPair.fromMap(Map.of("first", BigInteger.ONE.shiftLeft(40),
+                "second", "a")));
+    }
+
+    @Test
+    public void roundTripsThroughTheMap() {
+        final IntObjPair<String> pair = new IntObjPair<>(7, "x");
+        assertEquals(pair, IntObjPair.fromMap(pair.toMap()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFractions() {
+        IntIntPair.fromMap(Map.of("first", 3.5, "second", 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValuesOutOfRange() {
+        IntObjPair.fromMap(Map.of("first", 1L << 40, "second", "a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNaN() {
+        LongObjPair.fromMap(Map.of("first", Double.NaN, "second", "a"));
+    }
+}
@@ -0,0 +1,191 @@
+package de.ctoffer.util.trait;
+
+import de.ctoffer.util.pair.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts 200k keys into a HashMap and looks each one up again, with equals and hashCode from {@link Traits},
+ * from {@link Traits#memoizing(Class)}, written by hand, and by reflection on every call as Traits did before
+ * it used method handles.
+ *
+ * <pre><code>
+ *     mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp -Dmdep.includeScope=test
+ *     java -cp target/test-classes:target/classes:$(cat target/test.cp) org.openjdk.jmh.Main TraitsBenchmark
+ * </code></pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraitsBenchmark {
+    private static final int KEYS = 200_000;
+
+    private List<Pair<Integer, String>> traits;
+    private List<Memoized> memoized;
+    private List<HandWritten> handWritten;
+    private List<Reflective> reflective;
+
+    @Setup
+    public void setUp() {
+        traits = new ArrayList<>(KEYS);
+        memoized = new ArrayList<>(KEYS);
+        handWritten = new ArrayList<>(KEYS);
+        reflective = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; ++i) {
+            final String exercise = "exercise-" + (i % 12);
+            traits.add(new Pair<>(i, exercise));
+            memoized.add(new Memoized(i, exercise));
+            handWritten.add(new HandWritten(i, exercise));
+            reflective.add(new Reflective(i, exercise));
+        }
+    }
+
+    @Benchmark
+    public int traits() {
+        return insertAndLookUp(traits);
+    }
+
+    @Benchmark
+    public int memoized() {
+        return insertAndLookUp(memoized);
+    }
+
+    @Benchmark
+    public int handWritten() {
+        return insertAndLookUp(handWritten);
+    }
+
+    @Benchmark
+    public int reflective() {
+        return insertAndLookUp(reflective);
+    }
+
+    private static <K> int insertAndLookUp(final List<K> keys) {
+        final Map<K, Integer> map = new HashMap<>();
+        for (int i = 0; i < keys.size(); ++i) {
+            map.put(keys.get(i), i);
+        }
+        int sum = 0;
+        for (K key : keys) {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    private static class Memoized {
+        private static final Traits TRAITS = Traits.memoizing(Memoized.class);
+
+        @Trait private final Integer first;
+        @Trait private final String second;
+
+        private Memoized(final Integer first, final String second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return TRAITS.testEqualityBetween(this, obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return TRAITS.createHashCodeFor(this);
+        }
+    }
+
+    private static class HandWritten {
+        private final Integer first;
+        private final String second;
+
+        private HandWritten(final Integer first, final String second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HandWritten)) {
+                return false;
+            }
+            final HandWritten other = (HandWritten) obj;
+            return first.equals(other.first) && second.equals(other.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(first, second);
+        }
+    }
+
+    private static class Reflective {
+        private static final Field[] FIELDS = Reflective.class.getDeclaredFields();
+
+        private final Integer first;
+        private final String second;
+
+        private Reflective(final Integer first, final String second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != Reflective.class) {
+                return false;
+            }
+            try {
+                for (Field field : FIELDS) {
+                    if (!Modifier.isStatic(field.getModifiers())
+                            && !Objects.equals(field.get(this), field.get(obj))) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            final List<Object> values = new ArrayList<>();
+            try {
+                for (Field field : FIELDS) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        values.add(field.get(this));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            return Objects.hash(values.toArray());
+        }
+    }
+}
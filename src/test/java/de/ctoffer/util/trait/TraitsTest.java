@@ -0,0 +1,133 @@
+package de.ctoffer.util.trait;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TraitsTest {
+    @Test
+    public void memoizesTheSameHashAsComputing() {
+        final Traits memoizing = Traits.memoizing(Immutable.class);
+        final Immutable value = new Immutable("a", List.of(1, 2, 3));
+        final long missesBefore = memoizing.memoStats().orElseThrow().getMisses();
+        final long hitsBefore = memoizing.memoStats().orElseThrow().getHits();
+
+        assertEquals(new Traits(Immutable.class).createHashCodeFor(value), value.hashCode());
+        assertEquals(value.hashCode(), value.hashCode());
+        assertEquals(value, new Immutable("a", List.of(1, 2, 3)));
+
+        final Traits.MemoStats stats = memoizing.memoStats().orElseThrow();
+        assertEquals(missesBefore + 1, stats.getMisses());
+        assertEquals(hitsBefore + 2, stats.getHits());
+        assertTrue(stats.getBytes() >= (long) stats.getEntries() * HashMemo.ENTRY_BYTES);
+    }
+
+    @Test
+    public void rejectsClassesWithMutableTraits() {
+        try {
+            Traits.memoizing(Mutable.class);
+            fail("a memoized hash of a mutable class goes stale");
+        } catch (IllegalArgumentException expected) {
+            // the class has to stay with Traits.of
+        }
+        assertFalse(Traits.of(Mutable.class).memoStats().isPresent());
+    }
+
+    @Test
+    public void hashesFromManyThreads() throws Exception {
+        final List<Immutable> values = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            values.add(new Immutable("value " + i, List.of(i)));
+        }
+        final Traits plain = new Traits(Immutable.class);
+        final Traits.MemoStats before = Traits.memoizing(Immutable.class).memoStats().orElseThrow();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; ++thread) {
+                results.add(executor.submit((Callable<Boolean>) () -> {
+                    for (int round = 0; round < 10; ++round) {
+                        for (Immutable value : values) {
+                            if (value.hashCode() != plain.createHashCodeFor(value)) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final Traits.MemoStats after = Traits.memoizing(Immutable.class).memoStats().orElseThrow();
+        assertEquals(4 * 10 * values.size(), after.getHits() + after.getMisses() - before.getHits() - before.getMisses());
+        assertTrue(after.getHitRate() > 0.9);
+    }
+
+    @Test
+    public void releasesTheHashesOfCollectedObjects() throws InterruptedException {
+        final Traits memoizing = Traits.memoizing(Collected.class);
+        for (int i = 0; i < 1000; ++i) {
+            new Collected("value " + i).hashCode();
+        }
+        assertTrue(memoizing.memoStats().orElseThrow().getMisses() >= 1000);
+
+        for (int attempt = 0; attempt < 50 && memoizing.memoStats().orElseThrow().getEntries() > 0; ++attempt) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals(0, memoizing.memoStats().orElseThrow().getEntries());
+    }
+
+    private static class Immutable {
+        @Trait private final String name;
+        @Trait private final List<Integer> values;
+
+        private Immutable(final String name, final List<Integer> values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return Traits.memoizing(Immutable.class).testEqualityBetween(this, other);
+        }
+
+        @Override
+        public int hashCode() {
+            return Traits.memoizing(Immutable.class).createHashCodeFor(this);
+        }
+    }
+
+    private static class Collected {
+        @Trait private final String name;
+
+        private Collected(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return Traits.memoizing(Collected.class).createHashCodeFor(this);
+        }
+    }
+
+    private static class Mutable {
+        @Trait private String name;
+    }
+}